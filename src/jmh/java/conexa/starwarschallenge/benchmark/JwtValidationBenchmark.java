@@ -0,0 +1,84 @@
+package conexa.starwarschallenge.benchmark;
+
+import conexa.starwarschallenge.config.JwtCacheProperties;
+import conexa.starwarschallenge.security.JwtService;
+import conexa.starwarschallenge.security.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * CPU cost of validating the bearer token of one request. {@code perRequestParsing} repeats what
+ * the authentication filter used to do: extract the username, then check it and the expiry, each
+ * step decoding the secret, building a parser and verifying the signature again. {@code
+ * singleVerify} is {@link JwtService#verify(String)} with its pre-built parser, and {@code
+ * cachedVerify} the filter's path for a token it has already seen, which only hashes the token.
+ *
+ * <p>Run with {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark.args=JwtValidationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtValidationBenchmark {
+
+    private static final String SECRET_KEY = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+    private JwtService jwtService;
+    private VerifiedTokenCache verifiedTokens;
+    private UserDetails user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(SECRET_KEY);
+        user = new User("luke", "unused", List.of());
+        token = jwtService.generateToken(user);
+        verifiedTokens = new VerifiedTokenCache(new JwtCacheProperties(), new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public boolean perRequestParsing() {
+        String username = extractClaim(token, Claims::getSubject);
+        return username.equals(user.getUsername())
+                && extractClaim(token, Claims::getSubject).equals(user.getUsername())
+                && !extractClaim(token, Claims::getExpiration).before(new Date());
+    }
+
+    @Benchmark
+    public boolean singleVerify() {
+        return jwtService.verify(token).map(verified -> verified.isFor(user.getUsername())).orElse(false);
+    }
+
+    @Benchmark
+    public boolean cachedVerify() {
+        return verifiedTokens.get(token, jwtService::verify).map(verified -> verified.isFor(user.getUsername())).orElse(false);
+    }
+
+    private static <T> T extractClaim(String token, Function<Claims, T> resolver) {
+        Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY));
+        return resolver.apply(Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody());
+    }
+}
@@ -0,0 +1,136 @@
+package conexa.starwarschallenge.benchmark;
+
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares request handling on a Tomcat-sized platform thread pool with a virtual thread per
+ * request, when every request makes one blocking call to a slow SWAPI. The fake SWAPI runs in
+ * process on the loopback interface, so results do not depend on the real service.
+ *
+ * <p>With {@code upstream=http} each request goes through the JDK HTTP stack to the fake SWAPI;
+ * {@code upstream=sleep} only blocks for the same latency, isolating scheduling from the HTTP
+ * stack's CPU cost, which dominates on small machines.
+ *
+ * <p>Run with {@code mvn -Pbenchmark test-compile exec:exec}. Each operation is a burst of
+ * {@code concurrentRequests} requests; the score is the time until the whole burst is served.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ThreadingBenchmark {
+
+    private static final byte[] PERSON = """
+            {"message":"ok","result":{"uid":"1","properties":{"name":"Luke Skywalker"}}}
+            """.getBytes(StandardCharsets.UTF_8);
+
+    @Param({"platform", "virtual"})
+    public String threading;
+
+    @Param({"http", "sleep"})
+    public String upstream;
+
+    @Param({"1000"})
+    public int concurrentRequests;
+
+    @Param({"100"})
+    public int swapiLatencyMillis;
+
+    /** Tomcat's default {@code server.tomcat.threads.max}. */
+    @Param({"200"})
+    public int platformThreads;
+
+    private HttpServer swapi;
+    private ExecutorService swapiExecutor;
+    private HttpClient client;
+    private HttpRequest request;
+    private ExecutorService requestExecutor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        swapiExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        swapi = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 4096);
+        swapi.setExecutor(swapiExecutor);
+        swapi.createContext("/api/people", exchange -> {
+            try {
+                TimeUnit.MILLISECONDS.sleep(swapiLatencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, PERSON.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(PERSON);
+            }
+        });
+        swapi.start();
+
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        request = HttpRequest.newBuilder(URI.create("http://" + InetAddress.getLoopbackAddress().getHostAddress()
+                + ":" + swapi.getAddress().getPort() + "/api/people/1")).GET().build();
+        requestExecutor = "virtual".equals(threading)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(platformThreads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        requestExecutor.shutdownNow();
+        swapi.stop(0);
+        swapiExecutor.shutdownNow();
+        client.close();
+    }
+
+    @Benchmark
+    public long burst() throws Exception {
+        List<Future<Integer>> responses = new ArrayList<>(concurrentRequests);
+        for (int i = 0; i < concurrentRequests; i++) {
+            responses.add(requestExecutor.submit(this::handleRequest));
+        }
+        long bytes = 0;
+        for (Future<Integer> response : responses) {
+            bytes += response.get();
+        }
+        return bytes;
+    }
+
+    private int handleRequest() throws IOException, InterruptedException {
+        if ("sleep".equals(upstream)) {
+            TimeUnit.MILLISECONDS.sleep(swapiLatencyMillis);
+            return PERSON.length;
+        }
+        // A blocking upstream call, as SwapiService makes through RestTemplate.
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray()).body().length;
+    }
+}
@@ -1,9 +1,28 @@
 package conexa.starwarschallenge.config;
 
 import conexa.starwarschallenge.repository.UserRepository;
+import conexa.starwarschallenge.security.BoundedPasswordEncoder;
+import conexa.starwarschallenge.security.CachingUserDetailsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
 import lombok.RequiredArgsConstructor;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -18,16 +37,95 @@ import org.springframework.web.client.RestTemplate;
 public class ApplicationConfig {
 
     private final UserRepository userRepository;
+    private final SwapiHttpClientProperties httpClientProperties;
+    private final UserCacheProperties userCacheProperties;
+    private final JwtStatelessProperties jwtStatelessProperties;
+    private final PasswordHashingProperties passwordHashingProperties;
+    private final MeterRegistry meterRegistry;
 
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public PoolingHttpClientConnectionManager swapiConnectionManager() {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(httpClientProperties.getMaxConnections())
+                .setMaxConnPerRoute(httpClientProperties.getMaxConnectionsPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(httpClientProperties.getConnectTimeout()))
+                        .setSocketTimeout(Timeout.of(httpClientProperties.getReadTimeout()))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(10))
+                        .build())
+                .build();
     }
 
     @Bean
-    public UserDetailsService userDetailsService() {
-        return username -> userRepository.findByUsername(username)
+    public CloseableHttpClient swapiHttpClient(PoolingHttpClientConnectionManager swapiConnectionManager) {
+        HttpClientBuilder builder = HttpClients.custom()
+                .setConnectionManager(swapiConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(httpClientProperties.getConnectionRequestTimeout()))
+                        .setResponseTimeout(Timeout.of(httpClientProperties.getResponseTimeout()))
+                        .setConnectionKeepAlive(TimeValue.of(httpClientProperties.getKeepAlive()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(httpClientProperties.getIdleEviction()));
+        if (!httpClientProperties.isCompression()) {
+            builder.disableContentCompression();
+        }
+        return builder.build();
+    }
+
+    @Bean
+    public MeterBinder swapiConnectionPoolMetrics(PoolingHttpClientConnectionManager swapiConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(swapiConnectionManager, "swapi");
+    }
+
+    @Bean
+    public PoolingAsyncClientConnectionManager swapiAsyncConnectionManager() {
+        return PoolingAsyncClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(httpClientProperties.getMaxConnections())
+                .setMaxConnPerRoute(httpClientProperties.getMaxConnectionsPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(httpClientProperties.getConnectTimeout()))
+                        .setSocketTimeout(Timeout.of(httpClientProperties.getReadTimeout()))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(10))
+                        .build())
+                .build();
+    }
+
+    @Bean
+    public CloseableHttpAsyncClient swapiAsyncHttpClient(PoolingAsyncClientConnectionManager swapiAsyncConnectionManager) {
+        // No content compression to configure here: SwapiAsyncClient negotiates and decodes gzip itself.
+        CloseableHttpAsyncClient client = HttpAsyncClients.custom()
+                .setConnectionManager(swapiAsyncConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(httpClientProperties.getConnectionRequestTimeout()))
+                        .setResponseTimeout(Timeout.of(httpClientProperties.getResponseTimeout()))
+                        .setConnectionKeepAlive(TimeValue.of(httpClientProperties.getKeepAlive()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(httpClientProperties.getIdleEviction()))
+                .build();
+        client.start();
+        return client;
+    }
+
+    @Bean
+    public MeterBinder swapiAsyncConnectionPoolMetrics(PoolingAsyncClientConnectionManager swapiAsyncConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(swapiAsyncConnectionManager, "swapi-async");
+    }
+
+    @Bean
+    public RestTemplate restTemplate(CloseableHttpClient swapiHttpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(swapiHttpClient));
+    }
+
+    @Bean
+    public CachingUserDetailsService userDetailsService() {
+        UserDetailsService users = username -> userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        // Changes made on other nodes are evicted on the next token version sync; capping the TTL
+        // at its interval bounds how long anything the sync cannot see stays stale.
+        return new CachingUserDetailsService(users, userCacheProperties,
+                jwtStatelessProperties.getVersionSyncInterval(), meterRegistry);
     }
 
     @Bean
@@ -45,6 +143,6 @@ public class ApplicationConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), passwordHashingProperties, meterRegistry);
     }
 }
@@ -0,0 +1,12 @@
+package conexa.starwarschallenge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "jwt.cache")
+public class JwtCacheProperties {
+
+    private boolean enabled = true;
+    private long maxSize = 10_000;
+}
@@ -0,0 +1,14 @@
+package conexa.starwarschallenge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "jwt.stateless")
+public class JwtStatelessProperties {
+
+    private boolean enabled = true;
+    private Duration versionSyncInterval = Duration.ofSeconds(30);
+}
@@ -0,0 +1,16 @@
+package conexa.starwarschallenge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "security.password-hashing")
+public class PasswordHashingProperties {
+
+    /** Hashing threads; 0 uses one per available processor. */
+    private int threads = 0;
+    private int queueCapacity = 32;
+    private Duration retryAfter = Duration.ofSeconds(2);
+}
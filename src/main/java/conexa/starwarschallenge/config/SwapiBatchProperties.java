@@ -0,0 +1,13 @@
+package conexa.starwarschallenge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "swapi.batch")
+public class SwapiBatchProperties {
+
+    private int maxSize = 50;
+    private int parallelism = 8;
+    private int expandParallelism = 8;
+}
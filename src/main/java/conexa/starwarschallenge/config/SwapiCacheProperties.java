@@ -0,0 +1,48 @@
+package conexa.starwarschallenge.config;
+
+import conexa.starwarschallenge.enums.SwapiResource;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "swapi.cache")
+public class SwapiCacheProperties {
+
+    private boolean enabled = true;
+    private long maxSize = 500;
+    private Duration softTtl = Duration.ofMinutes(10);
+    private Duration hardTtl = Duration.ofHours(24);
+    private boolean staleWhileRevalidate = true;
+    private boolean compactEntities = true;
+    private Map<SwapiResource, ResourceCache> resources = new EnumMap<>(SwapiResource.class);
+
+    public long maxSizeFor(SwapiResource resource) {
+        ResourceCache override = resources.get(resource);
+        return override != null && override.getMaxSize() != null ? override.getMaxSize() : maxSize;
+    }
+
+    public Duration softTtlFor(SwapiResource resource) {
+        ResourceCache override = resources.get(resource);
+        return override != null && override.getSoftTtl() != null ? override.getSoftTtl() : softTtl;
+    }
+
+    public Duration hardTtlFor(SwapiResource resource) {
+        ResourceCache override = resources.get(resource);
+        Duration hard = override != null && override.getHardTtl() != null ? override.getHardTtl() : hardTtl;
+        Duration soft = softTtlFor(resource);
+        return hard.compareTo(soft) < 0 ? soft : hard;
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class ResourceCache {
+        private Long maxSize;
+        private Duration softTtl;
+        private Duration hardTtl;
+    }
+}
@@ -0,0 +1,18 @@
+package conexa.starwarschallenge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "swapi.concurrency")
+public class SwapiConcurrencyProperties {
+
+    private boolean enabled = true;
+    private int initialLimit = 20;
+    private int minLimit = 2;
+    private int maxLimit = 100;
+    private Duration latencyThreshold = Duration.ofSeconds(1);
+    private double backoffRatio = 0.7;
+}
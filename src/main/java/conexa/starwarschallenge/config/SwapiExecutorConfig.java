@@ -0,0 +1,66 @@
+package conexa.starwarschallenge.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class SwapiExecutorConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor swapiRefreshExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("swapi-refresh-");
+        return executor;
+    }
+
+    @Bean
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ThreadPoolTaskExecutor swapiFanOutExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(8);
+        executor.setMaxPoolSize(16);
+        executor.setQueueCapacity(200);
+        executor.setThreadNamePrefix("swapi-fanout-");
+        executor.setTaskDecorator(new RequestContextTaskDecorator());
+        // When saturated the request thread fetches the page itself instead of failing.
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+
+    @Bean(name = "swapiFanOutExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public SimpleAsyncTaskExecutor swapiVirtualFanOutExecutor() {
+        // Same ceiling as the platform pool; past it the submitting thread waits instead of queueing.
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("swapi-fanout-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(16);
+        executor.setTaskDecorator(new RequestContextTaskDecorator());
+        return executor;
+    }
+
+    @Bean
+    public SimpleAsyncTaskExecutor swapiBatchExecutor() {
+        // Batch lookups mostly wait on SWAPI, so each ID gets its own virtual thread.
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("swapi-batch-");
+        executor.setVirtualThreads(true);
+        executor.setTaskDecorator(new RequestContextTaskDecorator());
+        return executor;
+    }
+
+    @Bean
+    public SimpleAsyncTaskExecutor swapiHedgeExecutor() {
+        // Hedge timers only check the primary and start a non-blocking call, so they never pile up.
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("swapi-hedge-");
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+}
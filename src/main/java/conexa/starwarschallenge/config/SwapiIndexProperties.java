@@ -0,0 +1,14 @@
+package conexa.starwarschallenge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "swapi.index")
+public class SwapiIndexProperties {
+
+    private boolean enabled = true;
+    private Duration maxAge = Duration.ofHours(1);
+}
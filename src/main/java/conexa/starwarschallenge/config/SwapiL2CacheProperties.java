@@ -0,0 +1,17 @@
+package conexa.starwarschallenge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "swapi.l2")
+public class SwapiL2CacheProperties {
+
+    private boolean enabled = true;
+    private Duration maxAge = Duration.ofMinutes(30);
+    private int batchSize = 100;
+    private int queueCapacity = 1000;
+    private int purgeBatchSize = 500;
+}
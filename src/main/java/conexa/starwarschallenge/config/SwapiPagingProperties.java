@@ -0,0 +1,12 @@
+package conexa.starwarschallenge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "swapi.paging")
+public class SwapiPagingProperties {
+
+    private int upstreamPageSize = 10;
+    private int maxLimit = 100;
+}
@@ -0,0 +1,29 @@
+package conexa.starwarschallenge.config;
+
+import conexa.starwarschallenge.enums.SwapiResource;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "swapi.rate-limit")
+public class SwapiRateLimitProperties {
+
+    private boolean enabled = true;
+    private double permitsPerSecond = 10;
+    private int burst = 20;
+    private Duration maxWait = Duration.ofMillis(500);
+    private Map<SwapiResource, Budget> resources = new EnumMap<>(SwapiResource.class);
+
+    /** Budget of one resource. Values left unset fall back to the top-level ones. */
+    @Data
+    @NoArgsConstructor
+    public static class Budget {
+        private Double permitsPerSecond;
+        private Integer burst;
+    }
+}
@@ -0,0 +1,16 @@
+package conexa.starwarschallenge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "swapi.refresh")
+public class SwapiRefreshProperties {
+
+    private boolean enabled = false;
+    private Duration interval = Duration.ofMinutes(15);
+    private Duration leaseTtl = Duration.ofMinutes(5);
+    private Duration versionPollInterval = Duration.ofSeconds(30);
+}
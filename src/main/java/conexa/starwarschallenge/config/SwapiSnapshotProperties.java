@@ -0,0 +1,17 @@
+package conexa.starwarschallenge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "swapi.snapshot")
+public class SwapiSnapshotProperties {
+
+    private boolean enabled = false;
+    private Path path = Path.of("data", "swapi-snapshot.bin");
+    private Duration maxAge = Duration.ofHours(24);
+    private Duration saveInterval = Duration.ofHours(1);
+}
@@ -0,0 +1,17 @@
+package conexa.starwarschallenge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "swapi.warmup")
+public class SwapiWarmupProperties {
+
+    private boolean enabled = false;
+    private boolean includeDetails = true;
+    private int parallelism = 4;
+    private int maxAttempts = 5;
+    private Duration retryBackoff = Duration.ofSeconds(1);
+}
@@ -0,0 +1,16 @@
+package conexa.starwarschallenge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "diagnostics.pinning")
+public class ThreadPinningProperties {
+
+    private boolean enabled = true;
+    private Duration threshold = Duration.ofMillis(20);
+    private int stackDepth = 12;
+    private int maxSites = 50;
+}
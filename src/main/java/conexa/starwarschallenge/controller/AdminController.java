@@ -1,5 +1,6 @@
 package conexa.starwarschallenge.controller;
 
+import conexa.starwarschallenge.dto.SwapiUpstreamStatusDto;
 import conexa.starwarschallenge.dto.UpdateUserRoleRequest;
 import conexa.starwarschallenge.dto.UserRoleDto;
 import conexa.starwarschallenge.service.AdminService;
@@ -25,4 +26,15 @@ public class AdminController {
     public ResponseEntity<UserRoleDto> updateUserRole(@PathVariable Integer id, @RequestBody UpdateUserRoleRequest request) {
         return ResponseEntity.ok(adminService.updateUserRole(id, request));
     }
+
+    @PostMapping("/users/{id}/revoke-tokens")
+    public ResponseEntity<Void> revokeTokens(@PathVariable Integer id) {
+        adminService.revokeTokens(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/swapi/status")
+    public ResponseEntity<SwapiUpstreamStatusDto> getSwapiStatus() {
+        return ResponseEntity.ok(adminService.getSwapiStatus());
+    }
 }
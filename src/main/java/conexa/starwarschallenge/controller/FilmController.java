@@ -2,8 +2,12 @@ package conexa.starwarschallenge.controller;
 
 import conexa.starwarschallenge.dto.FilmDto;
 import conexa.starwarschallenge.dto.FilmRawItemDto;
+import conexa.starwarschallenge.dto.BatchRequestDto;
+import conexa.starwarschallenge.dto.BatchResponseDto;
 import conexa.starwarschallenge.dto.PagedResponseDto;
-import conexa.starwarschallenge.service.SwapiService;
+import conexa.starwarschallenge.service.FilmExpansionService;
+import conexa.starwarschallenge.service.SwapiAsyncService;
+import conexa.starwarschallenge.service.SwapiBatchService;
 import conexa.starwarschallenge.dto.SingleResponseDto;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -12,13 +16,19 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 
 @RestController
 @RequestMapping("/api/v1/films")
@@ -26,10 +36,16 @@ import org.springframework.web.bind.annotation.RestController;
 @SecurityRequirement(name = "bearerAuth")
 public class FilmController {
 
-    private final SwapiService swapiService;
+    private final SwapiAsyncService swapiAsyncService;
+    private final SwapiBatchService swapiBatchService;
+    private final FilmExpansionService filmExpansionService;
 
-    public FilmController(SwapiService swapiService) {
-        this.swapiService = swapiService;
+    public FilmController(SwapiAsyncService swapiAsyncService,
+                          SwapiBatchService swapiBatchService,
+                          FilmExpansionService filmExpansionService) {
+        this.swapiAsyncService = swapiAsyncService;
+        this.swapiBatchService = swapiBatchService;
+        this.filmExpansionService = filmExpansionService;
     }
 
     @Operation(summary = "Get a paginated list of films",
@@ -39,23 +55,40 @@ public class FilmController {
             @ApiResponse(responseCode = "401", description = "Unauthorized - JWT is missing or invalid", content = @Content)
     })
     @GetMapping
-    public PagedResponseDto<FilmRawItemDto> getFilms(
+    public CompletableFuture<PagedResponseDto<FilmRawItemDto>> getFilms(
             @Parameter(description = "Page number for pagination") @RequestParam(defaultValue = "1") int page,
             @Parameter(description = "Number of items per page") @RequestParam(defaultValue = "10") int limit,
             @Parameter(description = "Filter by film's title (case-insensitive)") @RequestParam(required = false) String name) {
-        return swapiService.findFilms(page, limit, name);
+        return swapiAsyncService.findFilms(page, limit, name);
     }
 
     @Operation(summary = "Get a single film by ID",
-            description = "Retrieves the details of a specific film by its unique ID.")
+            description = "Retrieves the details of a specific film by its unique ID. Related characters, starships and vehicles can be resolved in the same call with `expand`.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved film"),
+            @ApiResponse(responseCode = "400", description = "Unsupported relation in expand", content = @Content),
             @ApiResponse(responseCode = "401", description = "Unauthorized - JWT is missing or invalid", content = @Content),
             @ApiResponse(responseCode = "404", description = "Film not found with the given ID", content = @Content)
     })
     @GetMapping("/{id}")
-    public SingleResponseDto<FilmDto> getFilmById(
-            @Parameter(description = "ID of the film to retrieve") @PathVariable String id) {
-        return swapiService.findFilmById(id);
+    public CompletableFuture<SingleResponseDto<FilmDto>> getFilmById(
+            @Parameter(description = "ID of the film to retrieve") @PathVariable String id,
+            @Parameter(description = "Relations to resolve, e.g. characters,starships,vehicles") @RequestParam(required = false) List<String> expand) {
+        if (expand == null || expand.isEmpty()) {
+            return swapiAsyncService.findFilmById(id);
+        }
+        return filmExpansionService.findFilmById(id, expand);
+    }
+
+    @Operation(summary = "Get several films by ID",
+            description = "Retrieves up to the configured maximum of films in one call. Each ID reports its own status, so missing IDs do not fail the whole batch.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed; see the status of each result"),
+            @ApiResponse(responseCode = "400", description = "No IDs given or too many IDs", content = @Content),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - JWT is missing or invalid", content = @Content)
+    })
+    @PostMapping("/batch")
+    public BatchResponseDto<FilmDto> getFilmsByIds(@Valid @RequestBody BatchRequestDto request) {
+        return swapiBatchService.findFilmsByIds(request.getIds());
     }
-}
\ No newline at end of file
+}
@@ -1,9 +1,15 @@
 package conexa.starwarschallenge.controller;
 
+import conexa.starwarschallenge.dto.BatchRequestDto;
+import conexa.starwarschallenge.dto.BatchResponseDto;
 import conexa.starwarschallenge.dto.PagedResponseDto;
 import conexa.starwarschallenge.dto.StarshipDto;
 import conexa.starwarschallenge.dto.StarshipRawItemDto;
-import conexa.starwarschallenge.service.SwapiService;
+import conexa.starwarschallenge.enums.SwapiResource;
+import conexa.starwarschallenge.service.SwapiAsyncService;
+import conexa.starwarschallenge.service.SwapiBatchService;
+import conexa.starwarschallenge.service.store.EntityQuery;
+import conexa.starwarschallenge.service.store.SwapiEntityIndex;
 import conexa.starwarschallenge.dto.SingleResponseDto;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -12,13 +18,19 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 
 @RestController
 @RequestMapping("/api/v1/starships")
@@ -26,10 +38,12 @@ import org.springframework.web.bind.annotation.RestController;
 @SecurityRequirement(name = "bearerAuth")
 public class StarshipController {
 
-    private final SwapiService swapiService;
+    private final SwapiAsyncService swapiAsyncService;
+    private final SwapiBatchService swapiBatchService;
 
-    public StarshipController(SwapiService swapiService) {
-        this.swapiService = swapiService;
+    public StarshipController(SwapiAsyncService swapiAsyncService, SwapiBatchService swapiBatchService) {
+        this.swapiAsyncService = swapiAsyncService;
+        this.swapiBatchService = swapiBatchService;
     }
 
     @Operation(summary = "Get a paginated list of starships",
@@ -39,10 +53,13 @@ public class StarshipController {
             @ApiResponse(responseCode = "401", description = "Unauthorized - JWT is missing or invalid", content = @Content)
     })
     @GetMapping
-    public PagedResponseDto<StarshipRawItemDto> getStarships(
-            @Parameter(description = "Number of items per page") @RequestParam(defaultValue = "1") int limit,
-            @Parameter(description = "Filter by starship's name (case-insensitive)") @RequestParam(required = false) String name) {
-        return swapiService.findStarships(1, limit, name);
+    public CompletableFuture<PagedResponseDto<StarshipRawItemDto>> getStarships(
+            @Parameter(description = "Page number for pagination") @RequestParam(defaultValue = "1") int page,
+            @Parameter(description = "Number of items per page") @RequestParam(defaultValue = "10") int limit,
+            @Parameter(description = "Filter by starship's name (case-insensitive)") @RequestParam(required = false) String name,
+            @Parameter(description = "Numeric range filter as field:operator:value, e.g. hyperdrive_rating:lt:1.0. Fields: cost_in_credits, length, max_atmosphering_speed, crew, passengers, cargo_capacity, hyperdrive_rating, mglt. Operators: lt, lte, gt, gte, eq. Repeat to combine filters.") @RequestParam(required = false) List<String> filter,
+            @Parameter(description = "Numeric field to sort by, one of the filter fields, prefixed with - for descending order, e.g. -cost_in_credits") @RequestParam(required = false) String sort) {
+        return swapiAsyncService.findStarships(page, limit, name, EntityQuery.parse(filter, sort, SwapiEntityIndex.fields(SwapiResource.STARSHIPS)));
     }
 
     @Operation(summary = "Get a single starship by ID",
@@ -53,8 +70,20 @@ public class StarshipController {
             @ApiResponse(responseCode = "404", description = "Starship not found with the given ID", content = @Content)
     })
     @GetMapping("/{id}")
-    public SingleResponseDto<StarshipDto> getStarshipById(
+    public CompletableFuture<SingleResponseDto<StarshipDto>> getStarshipById(
             @Parameter(description = "ID of the starship to retrieve") @PathVariable String id) {
-        return swapiService.findStarshipById(id);
+        return swapiAsyncService.findStarshipById(id);
+    }
+
+    @Operation(summary = "Get several starships by ID",
+            description = "Retrieves up to the configured maximum of starships in one call. Each ID reports its own status, so missing IDs do not fail the whole batch.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed; see the status of each result"),
+            @ApiResponse(responseCode = "400", description = "No IDs given or too many IDs", content = @Content),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - JWT is missing or invalid", content = @Content)
+    })
+    @PostMapping("/batch")
+    public BatchResponseDto<StarshipDto> getStarshipsByIds(@Valid @RequestBody BatchRequestDto request) {
+        return swapiBatchService.findStarshipsByIds(request.getIds());
     }
 }
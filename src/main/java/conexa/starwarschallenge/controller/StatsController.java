@@ -0,0 +1,50 @@
+package conexa.starwarschallenge.controller;
+
+import conexa.starwarschallenge.dto.ResourceStatsDto;
+import conexa.starwarschallenge.enums.SwapiResource;
+import conexa.starwarschallenge.exception.InvalidQueryException;
+import conexa.starwarschallenge.service.SwapiAsyncService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+
+
+@RestController
+@RequestMapping("/api/v1/stats")
+@Tag(name = "Statistics", description = "Endpoints for aggregates over Star Wars people, starships and vehicles")
+@SecurityRequirement(name = "bearerAuth")
+public class StatsController {
+
+    private final SwapiAsyncService swapiAsyncService;
+
+    public StatsController(SwapiAsyncService swapiAsyncService) {
+        this.swapiAsyncService = swapiAsyncService;
+    }
+
+    @Operation(summary = "Get aggregates of a resource",
+            description = "Returns counts by gender, starship class or vehicle class and the min, max, average and percentiles of each numeric field. The aggregates are kept up to date as the local copy of the resource is refreshed.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved statistics"),
+            @ApiResponse(responseCode = "400", description = "Statistics are not available for the resource", content = @Content),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - JWT is missing or invalid", content = @Content)
+    })
+    @GetMapping("/{resource}")
+    public CompletableFuture<ResourceStatsDto> getStats(
+            @Parameter(description = "Resource to aggregate: people, starships or vehicles") @PathVariable String resource) {
+        return swapiAsyncService.findStats(Arrays.stream(SwapiResource.values())
+                .filter(candidate -> candidate.getResourceName().equalsIgnoreCase(resource))
+                .findFirst()
+                .orElseThrow(() -> new InvalidQueryException("Unknown resource '" + resource + "'. Supported resources: people, starships, vehicles.")));
+    }
+}
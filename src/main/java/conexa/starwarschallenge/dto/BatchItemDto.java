@@ -0,0 +1,25 @@
+package conexa.starwarschallenge.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemDto<T> {
+    private String id;
+    private int status;
+    private T result;
+    private String error;
+
+    public static <T> BatchItemDto<T> success(String id, T result) {
+        return new BatchItemDto<>(id, 200, result, null);
+    }
+
+    public static <T> BatchItemDto<T> failure(String id, int status, String error) {
+        return new BatchItemDto<>(id, status, null, error);
+    }
+}
@@ -0,0 +1,16 @@
+package conexa.starwarschallenge.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchResponseDto<T> {
+    private List<BatchItemDto<T>> results;
+    private int succeeded;
+    private int failed;
+}
@@ -1,6 +1,7 @@
 package conexa.starwarschallenge.dto;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -16,4 +17,6 @@ public class FilmDto {
     private String _id;
     private String uid;
     private String __v;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private FilmExpansionDto expanded;
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package conexa.starwarschallenge.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class FilmExpansionDto {
+    private List<BatchItemDto<PersonDto>> characters;
+    private List<BatchItemDto<StarshipDto>> starships;
+    private List<BatchItemDto<VehicleDto>> vehicles;
+}
@@ -0,0 +1,20 @@
+package conexa.starwarschallenge.dto;
+
+import java.util.Map;
+
+public record ResourceStatsDto(
+        String resource,
+        int count,
+        Map<String, Map<String, Long>> counts,
+        Map<String, FieldStats> fields
+) {
+    public record FieldStats(
+            long count,
+            Double min,
+            Double max,
+            Double avg,
+            Double p50,
+            Double p90,
+            Double p99
+    ) {}
+}
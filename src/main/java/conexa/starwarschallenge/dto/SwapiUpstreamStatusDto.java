@@ -0,0 +1,15 @@
+package conexa.starwarschallenge.dto;
+
+import java.util.List;
+
+public record SwapiUpstreamStatusDto(
+        List<CircuitStatus> circuits,
+        int concurrencyLimit,
+        int inFlight
+) {
+    public record CircuitStatus(
+            String resource,
+            String state,
+            double failureRate
+    ) {}
+}
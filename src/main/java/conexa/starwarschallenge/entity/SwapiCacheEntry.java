@@ -0,0 +1,58 @@
+package conexa.starwarschallenge.entity;
+
+import conexa.starwarschallenge.enums.SwapiResource;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "swapi_cache_entries", indexes = @Index(name = "idx_swapi_cache_entries_fetched_at", columnList = "fetched_at"))
+public class SwapiCacheEntry implements Persistable<String> {
+    @Id
+    @Column(name = "cache_key", length = 255)
+    private String cacheKey;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private SwapiResource resource;
+    @Lob
+    @Column(nullable = false, length = 16_777_215)
+    private byte[] payload;
+    @Column(name = "fetched_at", nullable = false)
+    private Instant fetchedAt;
+
+    // Keys are assigned by us, so Spring Data cannot tell new rows apart without help.
+    @Transient
+    private boolean newEntry = true;
+
+    public SwapiCacheEntry(String cacheKey, SwapiResource resource, byte[] payload, Instant fetchedAt) {
+        this.cacheKey = cacheKey;
+        this.resource = resource;
+        this.payload = payload;
+        this.fetchedAt = fetchedAt;
+    }
+
+    @Override
+    public String getId() {
+        return cacheKey;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntry;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newEntry = false;
+    }
+}
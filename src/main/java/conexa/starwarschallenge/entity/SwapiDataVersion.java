@@ -0,0 +1,25 @@
+package conexa.starwarschallenge.entity;
+
+import conexa.starwarschallenge.enums.SwapiResource;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "swapi_data_versions")
+public class SwapiDataVersion {
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 32)
+    private SwapiResource resource;
+    @Column(nullable = false)
+    private long version;
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
@@ -0,0 +1,25 @@
+package conexa.starwarschallenge.entity;
+
+import conexa.starwarschallenge.enums.SwapiResource;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "swapi_edit_stamps")
+public class SwapiEditStamp {
+    @Id
+    @Column(name = "entity_key", length = 64)
+    private String entityKey;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private SwapiResource resource;
+    @Column(nullable = false, length = 64)
+    private String uid;
+    @Column(length = 64)
+    private String edited;
+}
@@ -0,0 +1,23 @@
+package conexa.starwarschallenge.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "swapi_leases")
+public class SwapiLease {
+    @Id
+    @Column(length = 64)
+    private String name;
+    @Column(nullable = false)
+    private String owner;
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
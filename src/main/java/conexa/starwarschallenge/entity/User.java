@@ -27,6 +27,8 @@ public class User implements UserDetails {
     private String password;
     @Enumerated(EnumType.STRING)
     private Role role;
+    @Column(name = "token_version", nullable = false)
+    private long tokenVersion;
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
@@ -0,0 +1,11 @@
+package conexa.starwarschallenge.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class SwapiUnavailableException extends RuntimeException {
+    public SwapiUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package conexa.starwarschallenge.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class UnsupportedExpandException extends RuntimeException {
+
+    public UnsupportedExpandException(String relation, String supported) {
+        super("Cannot expand '" + relation + "'. Supported relations: " + supported + ".");
+    }
+}
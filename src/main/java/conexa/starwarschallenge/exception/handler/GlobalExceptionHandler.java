@@ -2,16 +2,22 @@ package conexa.starwarschallenge.exception.handler;
 
 import conexa.starwarschallenge.dto.ErrorDto;
 import conexa.starwarschallenge.dto.ValidationErrorDto;
+import conexa.starwarschallenge.exception.BatchTooLargeException;
 import conexa.starwarschallenge.exception.DuplicateUserException;
 import conexa.starwarschallenge.exception.FilmNotFoundException;
+import conexa.starwarschallenge.exception.PasswordHashingBusyException;
 import conexa.starwarschallenge.exception.PersonNotFoundException;
 import conexa.starwarschallenge.exception.StarshipNotFoundException;
+import conexa.starwarschallenge.exception.SwapiUnavailableException;
 import conexa.starwarschallenge.exception.VehicleNotFoundException;
 import conexa.starwarschallenge.exception.TooManyRequestsException;
+import conexa.starwarschallenge.exception.InvalidQueryException;
+import conexa.starwarschallenge.exception.UnsupportedExpandException;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.SignatureException;
 import io.jsonwebtoken.UnsupportedJwtException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -48,6 +54,32 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.TOO_MANY_REQUESTS);
     }
 
+    // --- 503 Service Unavailable (SWAPI circuit open or concurrency limit reached) ---
+    @ExceptionHandler(SwapiUnavailableException.class)
+    public ResponseEntity<ErrorDto> handleSwapiUnavailableException(SwapiUnavailableException ex) {
+        ErrorDto error = new ErrorDto(
+                ex.getMessage(),
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                Instant.now()
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(error);
+    }
+
+    // --- 503 Service Unavailable (password hashing queue full) ---
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<ErrorDto> handlePasswordHashingBusyException(PasswordHashingBusyException ex) {
+        ErrorDto error = new ErrorDto(
+                ex.getMessage(),
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                Instant.now()
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())))
+                .body(error);
+    }
+
     // --- 404 Not Found (Domain Specific) ---
     @ExceptionHandler(FilmNotFoundException.class)
     public ResponseEntity<ErrorDto> handleFilmNotFoundException(FilmNotFoundException ex) {
@@ -122,6 +154,16 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler({BatchTooLargeException.class, UnsupportedExpandException.class, InvalidQueryException.class})
+    public ResponseEntity<ErrorDto> handleBadRequestExceptions(RuntimeException ex) {
+        ErrorDto error = new ErrorDto(
+                ex.getMessage(),
+                HttpStatus.BAD_REQUEST.value(),
+                Instant.now()
+        );
+        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+    }
+
     // --- 500 Internal Server Error (Generic Fallback) ---
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorDto> handleGenericException(Exception ex) {
@@ -0,0 +1,18 @@
+package conexa.starwarschallenge.repository;
+
+import conexa.starwarschallenge.entity.SwapiCacheEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface SwapiCacheEntryRepository extends JpaRepository<SwapiCacheEntry, String> {
+
+    @Query("select e.cacheKey from SwapiCacheEntry e where e.fetchedAt < :cutoff")
+    List<String> findKeysFetchedBefore(@Param("cutoff") Instant cutoff, Pageable pageable);
+}
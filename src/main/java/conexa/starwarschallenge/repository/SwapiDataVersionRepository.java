@@ -0,0 +1,19 @@
+package conexa.starwarschallenge.repository;
+
+import conexa.starwarschallenge.entity.SwapiDataVersion;
+import conexa.starwarschallenge.enums.SwapiResource;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+@Repository
+public interface SwapiDataVersionRepository extends JpaRepository<SwapiDataVersion, SwapiResource> {
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update SwapiDataVersion v set v.version = v.version + 1, v.updatedAt = :now where v.resource = :resource")
+    int increment(@Param("resource") SwapiResource resource, @Param("now") Instant now);
+}
@@ -0,0 +1,14 @@
+package conexa.starwarschallenge.repository;
+
+import conexa.starwarschallenge.entity.SwapiEditStamp;
+import conexa.starwarschallenge.enums.SwapiResource;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SwapiEditStampRepository extends JpaRepository<SwapiEditStamp, String> {
+
+    List<SwapiEditStamp> findByResource(SwapiResource resource);
+}
@@ -0,0 +1,22 @@
+package conexa.starwarschallenge.repository;
+
+import conexa.starwarschallenge.entity.SwapiLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+@Repository
+public interface SwapiLeaseRepository extends JpaRepository<SwapiLease, String> {
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update SwapiLease l set l.owner = :owner, l.expiresAt = :expiresAt " +
+            "where l.name = :name and (l.owner = :owner or l.expiresAt < :now)")
+    int claim(@Param("name") String name,
+              @Param("owner") String owner,
+              @Param("now") Instant now,
+              @Param("expiresAt") Instant expiresAt);
+}
@@ -4,10 +4,18 @@ import conexa.starwarschallenge.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Integer> {
     Optional<User> findByUsername(String username);
     boolean existsByUsername(String username);
+    List<TokenVersionView> findByTokenVersionGreaterThan(long tokenVersion);
+    Optional<TokenVersionView> findTokenVersionByUsername(String username);
+
+    interface TokenVersionView {
+        String getUsername();
+        long getTokenVersion();
+    }
 }
@@ -0,0 +1,55 @@
+package conexa.starwarschallenge.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import conexa.starwarschallenge.config.UserCacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+
+/**
+ * Size- and time-bounded cache in front of the database-backed {@link UserDetailsService}. Unknown
+ * usernames are not cached. Whoever changes a user's role, password or token version must call
+ * {@link #evict(String)}. Other nodes evict the user when {@link TokenVersions} sees the version
+ * move, and entries never outlive {@code maxTtl}, so anything else is picked up within that time.
+ */
+public class CachingUserDetailsService implements UserDetailsService {
+
+    private final UserDetailsService delegate;
+    private final UserCacheProperties properties;
+    private final Cache<String, UserDetails> cache;
+
+    public CachingUserDetailsService(UserDetailsService delegate, UserCacheProperties properties, Duration maxTtl, MeterRegistry meterRegistry) {
+        this(delegate, properties, maxTtl, meterRegistry, Ticker.systemTicker());
+    }
+
+    CachingUserDetailsService(UserDetailsService delegate, UserCacheProperties properties, Duration maxTtl, MeterRegistry meterRegistry, Ticker ticker) {
+        this.delegate = delegate;
+        this.properties = properties;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfterWrite(properties.getTtl().compareTo(maxTtl) > 0 ? maxTtl : properties.getTtl())
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "security.users", Tags.empty());
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        if (!properties.isEnabled()) {
+            return delegate.loadUserByUsername(username);
+        }
+        return cache.get(username, delegate::loadUserByUsername);
+    }
+
+    public void evict(String username) {
+        cache.invalidate(username);
+    }
+}
@@ -1,5 +1,8 @@
 package conexa.starwarschallenge.security;
 
+import conexa.starwarschallenge.config.JwtStatelessProperties;
+import conexa.starwarschallenge.entity.Role;
+import conexa.starwarschallenge.entity.User;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -14,13 +17,17 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
+    private final VerifiedTokenCache verifiedTokens;
     private final UserDetailsService userDetailsService;
+    private final TokenVersions tokenVersions;
+    private final JwtStatelessProperties statelessProperties;
 
     @Override
     protected void doFilterInternal(
@@ -29,20 +36,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             FilterChain filterChain
     ) throws ServletException, IOException {
         final String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
-        final String jwt;
-        final String username;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        jwt = authHeader.substring(7);
-        username = jwtService.extractUsername(jwt);
+        // The signature is checked once per token lifetime; everything below reads the result.
+        Optional<VerifiedToken> token = verifiedTokens.get(authHeader.substring(7), jwtService::verify);
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+        if (token.isPresent() && token.get().subject() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            UserDetails userDetails = principalOf(token.get());
+            if (userDetails != null) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
@@ -53,4 +58,38 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Builds the principal from the token's role and checks its version against the local copy, so
+     * no user is loaded. Tokens without these claims, or any token before the versions were first
+     * read, are checked against the user in the database instead; their version still goes through
+     * {@link TokenVersions}. Returns null for a rejected token.
+     */
+    private UserDetails principalOf(VerifiedToken token) {
+        Long version = token.tokenVersion();
+        Role role = roleOf(token);
+        if (statelessProperties.isEnabled() && role != null && version != null && tokenVersions.isSynced()) {
+            if (!tokenVersions.isCurrent(token.subject(), version)) {
+                return null;
+            }
+            return User.builder().username(token.subject()).role(role).tokenVersion(version).build();
+        }
+        UserDetails userDetails = this.userDetailsService.loadUserByUsername(token.subject());
+        if (!token.isFor(userDetails.getUsername())) {
+            return null;
+        }
+        // The loaded user may come from a cache that predates a bump, so its version is not used.
+        if (version != null && !tokenVersions.isCurrent(token.subject(), version)) {
+            return null;
+        }
+        return userDetails;
+    }
+
+    private static Role roleOf(VerifiedToken token) {
+        try {
+            return token.role() == null ? null : Role.valueOf(token.role());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
 }
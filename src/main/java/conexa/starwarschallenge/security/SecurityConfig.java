@@ -1,5 +1,6 @@
 package conexa.starwarschallenge.security;
 
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -24,6 +25,8 @@ public class SecurityConfig {
         http
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
+                        // Async endpoints resume on an ASYNC dispatch of a request that was already authorized.
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers(HttpMethod.OPTIONS).permitAll()
                         .requestMatchers("/api/v1/auth/**",
                                 "/swagger-ui.html",
@@ -31,7 +34,7 @@ public class SecurityConfig {
                                 "/v3/api-docs/**",
                                 "/webjars/**").permitAll()
                         .requestMatchers("/api/v1/admin/**").hasAuthority("ADMIN")
-                        .requestMatchers("/api/v1/films/**", "/api/v1/people/**", "/api/v1/starships/**", "/api/v1/vehicles/**").hasAnyAuthority("USER", "ADMIN")
+                        .requestMatchers("/api/v1/films/**", "/api/v1/people/**", "/api/v1/starships/**", "/api/v1/vehicles/**", "/api/v1/stats/**").hasAnyAuthority("USER", "ADMIN")
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
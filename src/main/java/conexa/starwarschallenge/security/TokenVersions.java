@@ -0,0 +1,77 @@
+package conexa.starwarschallenge.security;
+
+import conexa.starwarschallenge.repository.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local copy of the users' token versions, so a token's {@code ver} claim can be checked without a
+ * database round trip. Only users whose version was ever bumped are kept; everyone else is at 0.
+ * The copy is re-read periodically, and bumps made on this node are applied at once.
+ */
+@Slf4j
+@Component
+public class TokenVersions {
+
+    private final UserRepository userRepository;
+    private final CachingUserDetailsService userDetailsService;
+    private final Map<String, Long> versions = new ConcurrentHashMap<>();
+    private volatile boolean synced;
+
+    public TokenVersions(UserRepository userRepository, CachingUserDetailsService userDetailsService, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.userDetailsService = userDetailsService;
+        Gauge.builder("jwt.token-versions.size", versions, Map::size)
+                .description("Users with a bumped token version held for stateless token checks")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Re-reads the versions. A user whose version moved was changed on another node, so their
+     * cached details are evicted too and the next lookup, a signin included, sees the change.
+     */
+    @Scheduled(fixedDelayString = "${jwt.stateless.version-sync-interval:PT30S}")
+    public void sync() {
+        try {
+            userRepository.findByTokenVersionGreaterThan(0).forEach(user -> {
+                if (user.getTokenVersion() > versions.getOrDefault(user.getUsername(), 0L)) {
+                    versions.merge(user.getUsername(), user.getTokenVersion(), Math::max);
+                    userDetailsService.evict(user.getUsername());
+                }
+            });
+            synced = true;
+        } catch (DataAccessException ex) {
+            log.debug("Could not read token versions: {}", ex.getMessage());
+        }
+    }
+
+    /** Whether the versions have been read at least once; until then tokens cannot be checked locally. */
+    public boolean isSynced() {
+        return synced;
+    }
+
+    /**
+     * A token is current unless its user's version moved past it. A version ahead of the local copy
+     * comes from a bump on another node and is accepted. Before the first sync the local copy is
+     * incomplete, so the user's version is read from the database instead.
+     */
+    public boolean isCurrent(String username, long tokenVersion) {
+        if (!synced) {
+            return tokenVersion >= userRepository.findTokenVersionByUsername(username)
+                    .map(UserRepository.TokenVersionView::getTokenVersion)
+                    .orElse(0L);
+        }
+        return tokenVersion >= versions.getOrDefault(username, 0L);
+    }
+
+    public void bumped(String username, long tokenVersion) {
+        versions.merge(username, tokenVersion, Math::max);
+    }
+}
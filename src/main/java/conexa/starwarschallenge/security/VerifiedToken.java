@@ -0,0 +1,33 @@
+package conexa.starwarschallenge.security;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Claims of a JWT whose signature and expiry have been checked. Built once per request by
+ * {@link JwtService#verify(String)}, so the filter and anything after it read claims without
+ * parsing the token again.
+ */
+public record VerifiedToken(String subject, Instant issuedAt, Instant expiresAt, Map<String, Object> claims) {
+
+    public static final String ROLE_CLAIM = "role";
+    public static final String VERSION_CLAIM = "ver";
+
+    public VerifiedToken {
+        claims = Map.copyOf(claims);
+    }
+
+    public boolean isFor(String username) {
+        return subject != null && subject.equals(username);
+    }
+
+    /** The role the token was issued for, or null for tokens issued without one. */
+    public String role() {
+        return claims.get(ROLE_CLAIM) instanceof String role ? role : null;
+    }
+
+    /** The user's token version when the token was issued, or null for tokens issued without one. */
+    public Long tokenVersion() {
+        return claims.get(VERSION_CLAIM) instanceof Number version ? version.longValue() : null;
+    }
+}
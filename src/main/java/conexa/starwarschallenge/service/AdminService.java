@@ -1,5 +1,6 @@
 package conexa.starwarschallenge.service;
 
+import conexa.starwarschallenge.dto.SwapiUpstreamStatusDto;
 import conexa.starwarschallenge.dto.UpdateUserRoleRequest;
 import conexa.starwarschallenge.dto.UserRoleDto;
 
@@ -8,4 +9,6 @@ import java.util.List;
 public interface AdminService {
     List<UserRoleDto> getUsers();
     UserRoleDto updateUserRole(Integer userId, UpdateUserRoleRequest request);
+    void revokeTokens(Integer userId);
+    SwapiUpstreamStatusDto getSwapiStatus();
 }
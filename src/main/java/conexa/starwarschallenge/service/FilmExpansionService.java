@@ -0,0 +1,105 @@
+package conexa.starwarschallenge.service;
+
+import conexa.starwarschallenge.config.SwapiBatchProperties;
+import conexa.starwarschallenge.dto.*;
+import conexa.starwarschallenge.exception.UnsupportedExpandException;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class FilmExpansionService {
+
+    private static final String CHARACTERS = "characters";
+    private static final String STARSHIPS = "starships";
+    private static final String VEHICLES = "vehicles";
+    private static final List<String> SUPPORTED = List.of(CHARACTERS, STARSHIPS, VEHICLES);
+
+    private final SwapiService swapiService;
+    private final SwapiAsyncService swapiAsyncService;
+    private final SwapiBatchService swapiBatchService;
+    private final SwapiBatchProperties properties;
+
+    public FilmExpansionService(SwapiService swapiService,
+                                SwapiAsyncService swapiAsyncService,
+                                SwapiBatchService swapiBatchService,
+                                SwapiBatchProperties properties) {
+        this.swapiService = swapiService;
+        this.swapiAsyncService = swapiAsyncService;
+        this.swapiBatchService = swapiBatchService;
+        this.properties = properties;
+    }
+
+    public CompletableFuture<SingleResponseDto<FilmDto>> findFilmById(String id, Collection<String> expand) {
+        Set<String> relations = parseRelations(expand);
+        return swapiAsyncService.findFilmById(id).thenCompose(response -> expand(response, relations));
+    }
+
+    private CompletableFuture<SingleResponseDto<FilmDto>> expand(SingleResponseDto<FilmDto> response, Set<String> relations) {
+        FilmDto film = response.getResult();
+        if (relations.isEmpty() || film == null || film.getProperties() == null) {
+            return CompletableFuture.completedFuture(response);
+        }
+
+        // One permit pool per request, shared by every expanded relation.
+        Semaphore permits = new Semaphore(properties.getExpandParallelism());
+        FilmPropertiesDto filmProperties = film.getProperties();
+        CompletableFuture<List<BatchItemDto<PersonDto>>> characters =
+                expand(relations, CHARACTERS, filmProperties.getCharacters(), swapiService::findPersonById, permits);
+        CompletableFuture<List<BatchItemDto<StarshipDto>>> starships =
+                expand(relations, STARSHIPS, filmProperties.getStarships(), swapiService::findStarshipById, permits);
+        CompletableFuture<List<BatchItemDto<VehicleDto>>> vehicles =
+                expand(relations, VEHICLES, filmProperties.getVehicles(), swapiService::findVehicleById, permits);
+
+        // The cached film is shared, so the expansion goes on a copy.
+        return CompletableFuture.allOf(characters, starships, vehicles).thenApply(ignored -> {
+            FilmDto expanded = new FilmDto(filmProperties, film.getDescription(), film.get_id(), film.getUid(), film.get__v(),
+                    new FilmExpansionDto(characters.join(), starships.join(), vehicles.join()));
+            return new SingleResponseDto<>(response.getMessage(), expanded);
+        });
+    }
+
+    private <T> CompletableFuture<List<BatchItemDto<T>>> expand(Set<String> relations,
+                                                                String relation,
+                                                                List<String> urls,
+                                                                Function<String, SingleResponseDto<T>> lookup,
+                                                                Semaphore permits) {
+        if (!relations.contains(relation)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (urls == null || urls.isEmpty()) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+        List<String> ids = urls.stream().map(FilmExpansionService::idOf).distinct().toList();
+        return swapiBatchService.fetchAll(ids, lookup, permits);
+    }
+
+    private static Set<String> parseRelations(Collection<String> expand) {
+        if (expand == null) {
+            return Set.of();
+        }
+        Set<String> relations = expand.stream()
+                .filter(StringUtils::hasText)
+                .map(relation -> relation.trim().toLowerCase(Locale.ROOT))
+                .collect(Collectors.toSet());
+        for (String relation : relations) {
+            if (!SUPPORTED.contains(relation)) {
+                throw new UnsupportedExpandException(relation, String.join(", ", SUPPORTED));
+            }
+        }
+        return relations;
+    }
+
+    static String idOf(String url) {
+        String trimmed = url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+        return trimmed.substring(trimmed.lastIndexOf('/') + 1);
+    }
+}
@@ -0,0 +1,137 @@
+package conexa.starwarschallenge.service;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import conexa.starwarschallenge.config.SwapiHttpClientProperties;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.Header;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Non-blocking SWAPI client on the pooled HttpClient5 async client. Failures are reported with the
+ * same exception types as {@code RestTemplate}, so the error handling around both clients stays the
+ * same. The async client has no content decompression of its own, so gzip is negotiated and decoded
+ * here, following {@code swapi.http.compression} like the classic client does.
+ */
+@Component
+public class SwapiAsyncClient {
+
+    private final CloseableHttpAsyncClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final SwapiHttpClientProperties properties;
+
+    public SwapiAsyncClient(CloseableHttpAsyncClient swapiAsyncHttpClient, ObjectMapper objectMapper, SwapiHttpClientProperties properties) {
+        this.httpClient = swapiAsyncHttpClient;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+    }
+
+    public <R> CompletableFuture<R> get(URI uri, Type responseType) {
+        SimpleRequestBuilder builder = SimpleRequestBuilder.get(uri)
+                .setHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);
+        if (properties.isCompression()) {
+            builder.setHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        }
+        SimpleHttpRequest request = builder.build();
+        JavaType type = objectMapper.getTypeFactory().constructType(responseType);
+        CompletableFuture<SimpleHttpResponse> exchange = new CompletableFuture<>();
+        Future<SimpleHttpResponse> call = httpClient.execute(request, new FutureCallback<>() {
+            @Override
+            public void completed(SimpleHttpResponse response) {
+                exchange.complete(response);
+            }
+
+            @Override
+            public void failed(Exception ex) {
+                exchange.completeExceptionally(ex);
+            }
+
+            @Override
+            public void cancelled() {
+                exchange.cancel(false);
+            }
+        });
+        CompletableFuture<R> result = exchange
+                .handle((response, error) -> {
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                        throw new CompletionException(cause instanceof IOException io
+                                ? new ResourceAccessException("I/O error on GET request for \"" + uri + "\": " + Objects.toString(io.getMessage(), io.getClass().getSimpleName()), io)
+                                : new ResourceAccessException("GET request for \"" + uri + "\" failed: " + cause.getMessage()));
+                    }
+                    return read(uri, response, type);
+                });
+        // Cancelling the result, e.g. a losing hedged attempt, aborts the exchange and frees its connection.
+        result.whenComplete((response, error) -> {
+            if (result.isCancelled()) {
+                call.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    private <R> R read(URI uri, SimpleHttpResponse response, JavaType type) {
+        HttpStatusCode status = HttpStatusCode.valueOf(response.getCode());
+        byte[] body = decode(uri, response);
+        if (status.is2xxSuccessful()) {
+            if (body == null || body.length == 0) {
+                return null;
+            }
+            try {
+                return objectMapper.readValue(body, type);
+            } catch (IOException ex) {
+                throw new RestClientException("Error while extracting response for \"" + uri + "\"", ex);
+            }
+        }
+
+        HttpStatus resolved = HttpStatus.resolve(status.value());
+        String statusText = resolved == null ? "" : resolved.getReasonPhrase();
+        HttpHeaders headers = new HttpHeaders();
+        for (Header header : response.getHeaders()) {
+            headers.add(header.getName(), header.getValue());
+        }
+        if (status.is4xxClientError()) {
+            throw HttpClientErrorException.create(status, statusText, headers, body, StandardCharsets.UTF_8);
+        }
+        if (status.is5xxServerError()) {
+            throw HttpServerErrorException.create(status, statusText, headers, body, StandardCharsets.UTF_8);
+        }
+        throw new RestClientException("Unexpected status " + status.value() + " for \"" + uri + "\"");
+    }
+
+    private static byte[] decode(URI uri, SimpleHttpResponse response) {
+        byte[] body = response.getBodyBytes();
+        Header encoding = response.getFirstHeader(HttpHeaders.CONTENT_ENCODING);
+        if (body == null || body.length == 0 || encoding == null || !"gzip".equalsIgnoreCase(encoding.getValue().trim())) {
+            return body;
+        }
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return in.readAllBytes();
+        } catch (IOException ex) {
+            throw new RestClientException("Could not decompress the response for \"" + uri + "\"", ex);
+        }
+    }
+}
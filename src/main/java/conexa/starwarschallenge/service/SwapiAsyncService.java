@@ -0,0 +1,489 @@
+package conexa.starwarschallenge.service;
+
+import conexa.starwarschallenge.config.SwapiPagingProperties;
+import conexa.starwarschallenge.dto.*;
+import conexa.starwarschallenge.enums.SwapiResource;
+import conexa.starwarschallenge.exception.*;
+import conexa.starwarschallenge.service.cache.AgedValue;
+import conexa.starwarschallenge.service.cache.SingleFlight;
+import conexa.starwarschallenge.service.cache.SwapiCache;
+import conexa.starwarschallenge.service.cache.SwapiCacheKey;
+import conexa.starwarschallenge.service.cache.SwapiL2Cache;
+import conexa.starwarschallenge.service.resilience.SwapiHedger;
+import conexa.starwarschallenge.service.resilience.SwapiRateLimiter;
+import conexa.starwarschallenge.service.resilience.SwapiUpstreamGuard;
+import conexa.starwarschallenge.service.store.EntityQuery;
+import conexa.starwarschallenge.service.store.SwapiEntityIndex;
+import conexa.starwarschallenge.service.store.SwapiNameIndex;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Non-blocking variant of {@link SwapiService} for the request path. It goes through the same
+ * caches, single-flight, rate limiter and upstream guard, but no thread waits on SWAPI: rate
+ * limit delays are scheduled and responses complete the returned futures.
+ */
+@Service
+public class SwapiAsyncService {
+
+    @Value("${swapi.base-url}")
+    private String swapiBaseUrl;
+
+    private final SwapiAsyncClient client;
+    private final SwapiCache swapiCache;
+    private final SwapiL2Cache l2Cache;
+    private final SingleFlight singleFlight;
+    private final SwapiRateLimiter rateLimiter;
+    private final SwapiUpstreamGuard upstreamGuard;
+    private final SwapiHedger hedger;
+    private final SwapiPagingProperties pagingProperties;
+    private final SwapiNameIndex nameIndex;
+    private final SwapiEntityIndex entityIndex;
+    private final Executor blockingExecutor;
+
+    public SwapiAsyncService(SwapiAsyncClient client,
+                             SwapiCache swapiCache,
+                             SwapiL2Cache l2Cache,
+                             SingleFlight singleFlight,
+                             SwapiRateLimiter rateLimiter,
+                             SwapiUpstreamGuard upstreamGuard,
+                             SwapiHedger hedger,
+                             SwapiPagingProperties pagingProperties,
+                             SwapiNameIndex nameIndex,
+                             SwapiEntityIndex entityIndex,
+                             @Qualifier("swapiBatchExecutor") Executor blockingExecutor) {
+        this.client = client;
+        this.swapiCache = swapiCache;
+        this.l2Cache = l2Cache;
+        this.singleFlight = singleFlight;
+        this.rateLimiter = rateLimiter;
+        this.upstreamGuard = upstreamGuard;
+        this.hedger = hedger;
+        this.pagingProperties = pagingProperties;
+        this.nameIndex = nameIndex;
+        this.entityIndex = entityIndex;
+        this.blockingExecutor = blockingExecutor;
+    }
+
+    public CompletableFuture<PagedResponseDto<FilmRawItemDto>> findFilms(int page, int limit, String name) {
+        return findResources(
+                SwapiResource.FILMS,
+                page,
+                limit,
+                name,
+                new ParameterizedTypeReference<PagedResponseDto<FilmRawItemDto>>() {},
+                new ParameterizedTypeReference<SearchResponseDto<FilmRawItemDto>>() {},
+                FilmRawItemDto::getName
+        );
+    }
+
+    public CompletableFuture<PagedResponseDto<PersonRawItemDto>> findPeople(int page, int limit, String name) {
+        return findResources(
+                SwapiResource.PEOPLE,
+                page,
+                limit,
+                name,
+                new ParameterizedTypeReference<PagedResponseDto<PersonRawItemDto>>() {},
+                new ParameterizedTypeReference<SearchResponseDto<PersonRawItemDto>>() {},
+                PersonRawItemDto::getName
+        );
+    }
+
+    /**
+     * Lists people matching {@code query}'s numeric range filters, in its sort order, from the
+     * local entity index. Falls back to {@link #findPeople(int, int, String)} for an empty query.
+     */
+    public CompletableFuture<PagedResponseDto<PersonRawItemDto>> findPeople(int page, int limit, String name, EntityQuery query) {
+        if (query.isEmpty()) {
+            return findPeople(page, limit, name);
+        }
+        return findFiltered(SwapiResource.PEOPLE, page, limit, name, query, PersonRawItemDto::getName);
+    }
+
+    public CompletableFuture<PagedResponseDto<StarshipRawItemDto>> findStarships(int page, int limit, String name) {
+        return findResources(
+                SwapiResource.STARSHIPS,
+                page,
+                limit,
+                name,
+                new ParameterizedTypeReference<PagedResponseDto<StarshipRawItemDto>>() {},
+                new ParameterizedTypeReference<SearchResponseDto<StarshipRawItemDto>>() {},
+                StarshipRawItemDto::getName
+        );
+    }
+
+    public CompletableFuture<PagedResponseDto<StarshipRawItemDto>> findStarships(int page, int limit, String name, EntityQuery query) {
+        if (query.isEmpty()) {
+            return findStarships(page, limit, name);
+        }
+        return findFiltered(SwapiResource.STARSHIPS, page, limit, name, query, StarshipRawItemDto::getName);
+    }
+
+    public CompletableFuture<PagedResponseDto<VehicleRawItemDto>> findVehicles(int page, int limit, String name) {
+        return findResources(
+                SwapiResource.VEHICLES,
+                page,
+                limit,
+                name,
+                new ParameterizedTypeReference<PagedResponseDto<VehicleRawItemDto>>() {},
+                new ParameterizedTypeReference<SearchResponseDto<VehicleRawItemDto>>() {},
+                VehicleRawItemDto::getName
+        );
+    }
+
+    public CompletableFuture<PagedResponseDto<VehicleRawItemDto>> findVehicles(int page, int limit, String name, EntityQuery query) {
+        if (query.isEmpty()) {
+            return findVehicles(page, limit, name);
+        }
+        return findFiltered(SwapiResource.VEHICLES, page, limit, name, query, VehicleRawItemDto::getName);
+    }
+
+    /**
+     * Aggregates over every entity of {@code resource}, answered from the statistics the entity
+     * index keeps up to date as it is rebuilt.
+     */
+    public CompletableFuture<ResourceStatsDto> findStats(SwapiResource resource) {
+        // The corpus is only loaded by the index's own background executor, never on the request path.
+        return entityIndex.statistics(resource, () -> loadEntities(resource).join());
+    }
+
+    public CompletableFuture<SingleResponseDto<FilmDto>> findFilmById(String id) {
+        return findResourceById(SwapiResource.FILMS, id, new ParameterizedTypeReference<SingleResponseDto<FilmDto>>() {}, FilmNotFoundException::new);
+    }
+
+    public CompletableFuture<SingleResponseDto<PersonDto>> findPersonById(String id) {
+        return findResourceById(SwapiResource.PEOPLE, id, new ParameterizedTypeReference<SingleResponseDto<PersonDto>>() {}, PersonNotFoundException::new);
+    }
+
+    public CompletableFuture<SingleResponseDto<StarshipDto>> findStarshipById(String id) {
+        return findResourceById(SwapiResource.STARSHIPS, id, new ParameterizedTypeReference<SingleResponseDto<StarshipDto>>() {}, StarshipNotFoundException::new);
+    }
+
+    public CompletableFuture<SingleResponseDto<VehicleDto>> findVehicleById(String id) {
+        return findResourceById(SwapiResource.VEHICLES, id, new ParameterizedTypeReference<SingleResponseDto<VehicleDto>>() {}, VehicleNotFoundException::new);
+    }
+
+    private <T> CompletableFuture<PagedResponseDto<T>> findResources(
+            SwapiResource resource,
+            int page,
+            int limit,
+            String name,
+            ParameterizedTypeReference<PagedResponseDto<T>> pagedResponseType,
+            ParameterizedTypeReference<SearchResponseDto<T>> searchResponseType,
+            Function<T, String> nameOf) {
+
+        // Captured here, on the request thread: pages fetched in later callbacks mark stale data on it.
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        int pageSize = SwapiPaging.pageSize(limit, pagingProperties.getMaxLimit());
+
+        if (StringUtils.hasText(name)) {
+            long offset = SwapiPaging.offset(page, pageSize);
+            // The corpus is only crawled by the index's own background executor, never on the request path.
+            List<T> local = nameIndex.search(resource, name, () -> crawl(resource, pagedResponseType, null).join(), nameOf).orElse(null);
+            if (local != null) {
+                return CompletableFuture.completedFuture(SwapiPaging.window(local, offset, pageSize));
+            }
+            return findSearch(resource, name, pagedResponseType, searchResponseType, request)
+                    .thenApply(matches -> SwapiPaging.window(matches, offset, pageSize));
+        }
+        return findWindow(resource, page, pageSize, pagedResponseType, request);
+    }
+
+    private <T> CompletableFuture<PagedResponseDto<T>> findFiltered(
+            SwapiResource resource,
+            int page,
+            int limit,
+            String name,
+            EntityQuery query,
+            Function<T, String> nameOf) {
+
+        int pageSize = SwapiPaging.pageSize(limit, pagingProperties.getMaxLimit());
+        long offset = SwapiPaging.offset(page, pageSize);
+        // The corpus is only loaded by the index's own background executor, never on the request path.
+        return entityIndex.<T>query(resource, query, () -> loadEntities(resource).join())
+                .thenApply(items -> SwapiPaging.window(SwapiPaging.withNameContaining(items, name, nameOf), offset, pageSize));
+    }
+
+    private CompletableFuture<List<?>> loadEntities(SwapiResource resource) {
+        return switch (resource) {
+            case PEOPLE -> loadEntities(resource,
+                    new ParameterizedTypeReference<PagedResponseDto<PersonRawItemDto>>() {},
+                    new ParameterizedTypeReference<PagedResponseDto<PersonDto>>() {},
+                    PersonRawItemDto::getUid,
+                    PersonDto::getUid);
+            case STARSHIPS -> loadEntities(resource,
+                    new ParameterizedTypeReference<PagedResponseDto<StarshipRawItemDto>>() {},
+                    new ParameterizedTypeReference<PagedResponseDto<StarshipDto>>() {},
+                    StarshipRawItemDto::getUid,
+                    StarshipDto::getUid);
+            case VEHICLES -> loadEntities(resource,
+                    new ParameterizedTypeReference<PagedResponseDto<VehicleRawItemDto>>() {},
+                    new ParameterizedTypeReference<PagedResponseDto<VehicleDto>>() {},
+                    VehicleRawItemDto::getUid,
+                    VehicleDto::getUid);
+            default -> throw new InvalidQueryException("Entities of " + resource.getResourceName() + " are not indexed locally.");
+        };
+    }
+
+    /**
+     * Collects every entity of {@code resource} for the entity index, in the compact form the cache
+     * keeps them in. When all of them are cached no upstream call is made; otherwise the expanded
+     * list pages are read through the caches and their entities cached on the way.
+     */
+    private <I, D> CompletableFuture<List<?>> loadEntities(
+            SwapiResource resource,
+            ParameterizedTypeReference<PagedResponseDto<I>> pagedResponseType,
+            ParameterizedTypeReference<PagedResponseDto<D>> expandedPageType,
+            Function<I, String> uidOf,
+            Function<D, String> entityUidOf) {
+
+        return crawl(resource, pagedResponseType, null).thenCompose(items -> {
+            List<Object> entities = new ArrayList<>(items.size());
+            for (I item : items) {
+                Object cached = swapiCache.peekCompact(SwapiCacheKey.byId(resource, uidOf.apply(item)));
+                // Entries the codec could not compact have no properties to index.
+                if (cached == null || cached instanceof SingleResponseDto<?>) {
+                    return fetchEntities(resource, expandedPageType, entityUidOf);
+                }
+                entities.add(cached);
+            }
+            return CompletableFuture.completedFuture(entities);
+        });
+    }
+
+    private <D> CompletableFuture<List<?>> fetchEntities(
+            SwapiResource resource,
+            ParameterizedTypeReference<PagedResponseDto<D>> expandedPageType,
+            Function<D, String> uidOf) {
+
+        return findExpandedPage(resource, 1, expandedPageType).thenCompose(first -> {
+            List<CompletableFuture<PagedResponseDto<D>>> futures = IntStream.rangeClosed(2, first.getTotalPages())
+                    .mapToObj(n -> findExpandedPage(resource, n, expandedPageType))
+                    .toList();
+            return allOf(futures).thenApply(pages -> {
+                List<D> entities = SwapiPaging.concat(first, pages);
+                entities.forEach(entity -> swapiCache.put(SwapiCacheKey.byId(resource, uidOf.apply(entity)), new SingleResponseDto<>("ok", entity)));
+                return entities;
+            });
+        });
+    }
+
+    private <D> CompletableFuture<PagedResponseDto<D>> findExpandedPage(
+            SwapiResource resource,
+            int page,
+            ParameterizedTypeReference<PagedResponseDto<D>> expandedPageType) {
+
+        SwapiCacheKey key = SwapiCacheKey.expandedPage(resource, page);
+        return cached(key, expandedPageType.getType(), () -> fetchExpandedPage(resource, page, expandedPageType), null);
+    }
+
+    private <D> CompletableFuture<PagedResponseDto<D>> fetchExpandedPage(
+            SwapiResource resource,
+            int page,
+            ParameterizedTypeReference<PagedResponseDto<D>> expandedPageType) {
+
+        URI uri = SwapiUpstream.expandedPage(swapiBaseUrl, resource, page, pagingProperties.getUpstreamPageSize());
+        return this.<PagedResponseDto<D>>callUpstream(resource, uri, expandedPageType)
+                .thenApply(SwapiPaging::listPage)
+                .exceptionally(error -> {
+                    Throwable cause = unwrap(error);
+                    if (cause instanceof HttpClientErrorException.NotFound) {
+                        // Pages past the end of the collection are simply empty.
+                        return SwapiPaging.emptyPage("ok");
+                    }
+                    throw failure(translateClientError(resource, cause));
+                });
+    }
+
+    private <T> CompletableFuture<PagedResponseDto<T>> findWindow(
+            SwapiResource resource,
+            int page,
+            int pageSize,
+            ParameterizedTypeReference<PagedResponseDto<T>> pagedResponseType,
+            RequestAttributes request) {
+
+        SwapiPaging.UpstreamRange range = SwapiPaging.UpstreamRange.of(page, pageSize, pagingProperties.getUpstreamPageSize());
+
+        List<CompletableFuture<PagedResponseDto<T>>> futures = IntStream.rangeClosed(range.firstPage(), range.lastPage())
+                .mapToObj(n -> findPage(resource, n, pagedResponseType, request))
+                .toList();
+        return allOf(futures).thenCompose(pages -> {
+            PagedResponseDto<T> window = SwapiPaging.merge(pages, range.skip(), pageSize);
+            if (SwapiPaging.isPastTheEnd(window, range)) {
+                return findPage(resource, 1, pagedResponseType, request)
+                        .thenApply(first -> SwapiPaging.withTotals(window, first, pageSize));
+            }
+            return CompletableFuture.completedFuture(window);
+        });
+    }
+
+    private <T> CompletableFuture<List<T>> crawl(SwapiResource resource,
+                                                 ParameterizedTypeReference<PagedResponseDto<T>> pagedResponseType,
+                                                 RequestAttributes request) {
+        return findPage(resource, 1, pagedResponseType, request).thenCompose(first -> {
+            List<CompletableFuture<PagedResponseDto<T>>> futures = IntStream.rangeClosed(2, first.getTotalPages())
+                    .mapToObj(n -> findPage(resource, n, pagedResponseType, request))
+                    .toList();
+            return allOf(futures).thenApply(pages -> SwapiPaging.concat(first, pages));
+        });
+    }
+
+    private <T> CompletableFuture<PagedResponseDto<T>> findPage(
+            SwapiResource resource,
+            int page,
+            ParameterizedTypeReference<PagedResponseDto<T>> pagedResponseType,
+            RequestAttributes request) {
+
+        SwapiCacheKey key = SwapiCacheKey.page(resource, page);
+        return cached(key, pagedResponseType.getType(), () -> fetchPage(resource, page, pagedResponseType), request);
+    }
+
+    private <T> CompletableFuture<PagedResponseDto<T>> findSearch(
+            SwapiResource resource,
+            String name,
+            ParameterizedTypeReference<PagedResponseDto<T>> pagedResponseType,
+            ParameterizedTypeReference<SearchResponseDto<T>> searchResponseType,
+            RequestAttributes request) {
+
+        SwapiCacheKey key = SwapiCacheKey.search(resource, name);
+        return cached(key, pagedResponseType.getType(), () -> fetchSearch(resource, name, searchResponseType), request);
+    }
+
+    /**
+     * Non-blocking counterpart of the L1, L2 and single-flight lookup in {@link SwapiService}. Stale
+     * values are marked on {@code request}, which is null for lookups made outside of one.
+     */
+    private <V> CompletableFuture<V> cached(SwapiCacheKey key, Type type, Supplier<CompletableFuture<V>> fetch, RequestAttributes request) {
+        return swapiCache.getAsync(key,
+                () -> singleFlight.executeAsync(key, () -> l2Cache.getAsync(key, type, fetch, blockingExecutor)),
+                () -> singleFlight.executeAsync(key, () -> l2Cache.loadAsync(key, fetch).thenApply(AgedValue::fresh)),
+                request);
+    }
+
+    private <T> CompletableFuture<PagedResponseDto<T>> fetchPage(
+            SwapiResource resource,
+            int page,
+            ParameterizedTypeReference<PagedResponseDto<T>> pagedResponseType) {
+
+        URI uri = SwapiUpstream.page(swapiBaseUrl, resource, page, pagingProperties.getUpstreamPageSize());
+        return this.<PagedResponseDto<T>>callUpstream(resource, uri, pagedResponseType)
+                .thenApply(SwapiPaging::listPage)
+                .exceptionally(error -> {
+                    Throwable cause = unwrap(error);
+                    if (cause instanceof HttpClientErrorException.NotFound) {
+                        // Pages past the end of the collection are simply empty.
+                        return SwapiPaging.emptyPage("ok");
+                    }
+                    throw failure(translateClientError(resource, cause));
+                });
+    }
+
+    private <T> CompletableFuture<PagedResponseDto<T>> fetchSearch(
+            SwapiResource resource,
+            String name,
+            ParameterizedTypeReference<SearchResponseDto<T>> searchResponseType) {
+
+        URI uri = SwapiUpstream.search(swapiBaseUrl, resource, name);
+        return this.<SearchResponseDto<T>>callUpstream(resource, uri, searchResponseType)
+                .thenApply(SwapiPaging::searchPage)
+                .exceptionally(error -> {
+                    throw failure(translateClientError(resource, unwrap(error)));
+                });
+    }
+
+    private <T> CompletableFuture<SingleResponseDto<T>> findResourceById(
+            SwapiResource resource,
+            String id,
+            ParameterizedTypeReference<SingleResponseDto<T>> responseType,
+            Function<String, RuntimeException> notFoundExceptionSupplier) {
+
+        SwapiCacheKey key = SwapiCacheKey.byId(resource, id);
+        return cached(key, responseType.getType(), () -> fetchResourceById(resource, id, responseType, notFoundExceptionSupplier),
+                RequestContextHolder.getRequestAttributes());
+    }
+
+    private <T> CompletableFuture<SingleResponseDto<T>> fetchResourceById(
+            SwapiResource resource,
+            String id,
+            ParameterizedTypeReference<SingleResponseDto<T>> responseType,
+            Function<String, RuntimeException> notFoundExceptionSupplier) {
+
+        URI uri = SwapiUpstream.byId(swapiBaseUrl, resource, id);
+        return this.<SingleResponseDto<T>>callUpstream(resource, uri, responseType)
+                .thenApply(SwapiUpstream::single)
+                .exceptionally(error -> {
+                    Throwable cause = unwrap(error);
+                    if (cause instanceof HttpClientErrorException.NotFound) {
+                        throw failure(notFoundExceptionSupplier.apply(id));
+                    }
+                    if (SwapiUpstream.isTooManyRequests(cause)) {
+                        throw failure(SwapiUpstream.tooManyRequests(resource, id));
+                    }
+                    throw failure(cause);
+                });
+    }
+
+    /**
+     * Takes the rate permit before entering the guard, like {@link SwapiService} does. A permit that
+     * is not available yet schedules the call rather than sleeping on it, and the guard only sees
+     * the call once it is due. A call the guard turns away gives its permit back.
+     */
+    private <R> CompletableFuture<R> callUpstream(SwapiResource resource, URI uri, ParameterizedTypeReference<?> responseType) {
+        long waitNanos;
+        try {
+            waitNanos = rateLimiter.reserve(resource);
+        } catch (TooManyRequestsException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+        if (waitNanos == 0) {
+            return guarded(resource, uri, responseType);
+        }
+        Executor delayed = CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS);
+        return CompletableFuture.runAsync(() -> {}, delayed)
+                .thenCompose(ignored -> guarded(resource, uri, responseType));
+    }
+
+    private <R> CompletableFuture<R> guarded(SwapiResource resource, URI uri, ParameterizedTypeReference<?> responseType) {
+        return upstreamGuard.<R>executeAsync(resource, () -> hedger.callAsync(resource, () -> client.get(uri, responseType.getType())))
+                .whenComplete((value, error) -> {
+                    if (error != null && unwrap(error) instanceof SwapiUnavailableException) {
+                        rateLimiter.release(resource);
+                    }
+                });
+    }
+
+    private static Throwable translateClientError(SwapiResource resource, Throwable error) {
+        return SwapiUpstream.isTooManyRequests(error) ? SwapiUpstream.tooManyRequests(resource) : error;
+    }
+
+    private static <R> CompletableFuture<List<R>> allOf(List<CompletableFuture<R>> futures) {
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> futures.stream().map(CompletableFuture::join).toList());
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private static CompletionException failure(Throwable cause) {
+        return cause instanceof CompletionException completion ? completion : new CompletionException(cause);
+    }
+}
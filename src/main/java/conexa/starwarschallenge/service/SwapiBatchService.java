@@ -0,0 +1,107 @@
+package conexa.starwarschallenge.service;
+
+import conexa.starwarschallenge.config.SwapiBatchProperties;
+import conexa.starwarschallenge.dto.*;
+import conexa.starwarschallenge.exception.BatchTooLargeException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+@Slf4j
+@Service
+public class SwapiBatchService {
+
+    private final SwapiService swapiService;
+    private final SwapiBatchProperties properties;
+    private final Executor batchExecutor;
+
+    public SwapiBatchService(SwapiService swapiService,
+                             SwapiBatchProperties properties,
+                             @Qualifier("swapiBatchExecutor") Executor batchExecutor) {
+        this.swapiService = swapiService;
+        this.properties = properties;
+        this.batchExecutor = batchExecutor;
+    }
+
+    public BatchResponseDto<FilmDto> findFilmsByIds(List<String> ids) {
+        return findByIds(ids, swapiService::findFilmById);
+    }
+
+    public BatchResponseDto<PersonDto> findPeopleByIds(List<String> ids) {
+        return findByIds(ids, swapiService::findPersonById);
+    }
+
+    public BatchResponseDto<StarshipDto> findStarshipsByIds(List<String> ids) {
+        return findByIds(ids, swapiService::findStarshipById);
+    }
+
+    public BatchResponseDto<VehicleDto> findVehiclesByIds(List<String> ids) {
+        return findByIds(ids, swapiService::findVehicleById);
+    }
+
+    private <T> BatchResponseDto<T> findByIds(List<String> ids, Function<String, SingleResponseDto<T>> lookup) {
+        List<String> distinctIds = ids.stream()
+                .filter(StringUtils::hasText)
+                .map(String::trim)
+                .distinct()
+                .toList();
+        if (distinctIds.size() > properties.getMaxSize()) {
+            throw new BatchTooLargeException(distinctIds.size(), properties.getMaxSize());
+        }
+
+        // Caps the upstream calls of this batch; the shared limiters still apply to each of them.
+        Semaphore permits = new Semaphore(properties.getParallelism());
+        List<BatchItemDto<T>> results = fetchAll(distinctIds, lookup, permits).join();
+        int succeeded = (int) results.stream().filter(item -> item.getStatus() == HttpStatus.OK.value()).count();
+        return new BatchResponseDto<>(results, succeeded, results.size() - succeeded);
+    }
+
+    /**
+     * Looks up every ID on the batch executor, never running more lookups at once than
+     * {@code permits} allows. Lookup failures are reported per ID instead of failing the result.
+     */
+    public <T> CompletableFuture<List<BatchItemDto<T>>> fetchAll(List<String> ids,
+                                                                 Function<String, SingleResponseDto<T>> lookup,
+                                                                 Semaphore permits) {
+        List<CompletableFuture<BatchItemDto<T>>> futures = ids.stream()
+                .map(id -> CompletableFuture.supplyAsync(() -> fetch(id, lookup, permits), batchExecutor))
+                .toList();
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                .thenApply(done -> futures.stream().map(CompletableFuture::join).toList());
+    }
+
+    private <T> BatchItemDto<T> fetch(String id, Function<String, SingleResponseDto<T>> lookup, Semaphore permits) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return BatchItemDto.failure(id, HttpStatus.SERVICE_UNAVAILABLE.value(), "Batch lookup was interrupted.");
+        }
+        try {
+            return BatchItemDto.success(id, lookup.apply(id).getResult());
+        } catch (RuntimeException ex) {
+            return failure(id, ex);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private static <T> BatchItemDto<T> failure(String id, RuntimeException ex) {
+        ResponseStatus status = AnnotatedElementUtils.findMergedAnnotation(ex.getClass(), ResponseStatus.class);
+        if (status == null) {
+            log.warn("Batch lookup of ID {} failed", id, ex);
+            return BatchItemDto.failure(id, HttpStatus.INTERNAL_SERVER_ERROR.value(), "An unexpected error occurred");
+        }
+        return BatchItemDto.failure(id, status.code().value(), ex.getMessage());
+    }
+}
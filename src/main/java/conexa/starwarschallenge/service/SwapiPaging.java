@@ -0,0 +1,142 @@
+package conexa.starwarschallenge.service;
+
+import conexa.starwarschallenge.dto.PagedResponseDto;
+import conexa.starwarschallenge.dto.SearchResponseDto;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Page math, filtering and response assembly shared by {@link SwapiService} and
+ * {@link SwapiAsyncService}. Nothing here fetches anything; the services only differ in how the
+ * upstream pages are obtained.
+ */
+final class SwapiPaging {
+
+    private SwapiPaging() {
+    }
+
+    static int pageSize(int limit, int maxLimit) {
+        return Math.max(1, Math.min(limit, maxLimit));
+    }
+
+    static long offset(int page, int pageSize) {
+        return (long) (Math.max(1, page) - 1) * pageSize;
+    }
+
+    /**
+     * Upstream pages covering one page of the API and how many of their items come before it. The
+     * arithmetic is done in long and the page numbers clamped, so a huge page number asks for the
+     * last page SWAPI could ever have instead of wrapping around to a negative one.
+     */
+    record UpstreamRange(int firstPage, int lastPage, long skip) {
+
+        static UpstreamRange of(int page, int pageSize, int upstreamPageSize) {
+            long offset = offset(page, pageSize);
+            long first = offset / upstreamPageSize + 1;
+            long last = (offset + pageSize - 1) / upstreamPageSize + 1;
+            int firstPage = (int) Math.min(first, Integer.MAX_VALUE);
+            int lastPage = (int) Math.min(last, Integer.MAX_VALUE);
+            return new UpstreamRange(firstPage, lastPage, offset - (long) (firstPage - 1) * upstreamPageSize);
+        }
+    }
+
+    /** Items of the first page followed by those of the remaining pages of a crawl. */
+    static <T> List<T> concat(PagedResponseDto<T> first, List<PagedResponseDto<T>> rest) {
+        List<T> items = new ArrayList<>(first.getResults() == null ? List.of() : first.getResults());
+        for (PagedResponseDto<T> upstreamPage : rest) {
+            if (upstreamPage.getResults() != null) {
+                items.addAll(upstreamPage.getResults());
+            }
+        }
+        return items;
+    }
+
+    /** Items whose name contains {@code name}, ignoring case; all of them when no name is given. */
+    static <T> List<T> withNameContaining(List<T> items, String name, Function<T, String> nameOf) {
+        if (!StringUtils.hasText(name)) {
+            return items;
+        }
+        String needle = name.trim().toLowerCase(Locale.ROOT);
+        return items.stream()
+                .filter(item -> nameOf.apply(item) != null && nameOf.apply(item).toLowerCase(Locale.ROOT).contains(needle))
+                .toList();
+    }
+
+    static <T> PagedResponseDto<T> merge(List<PagedResponseDto<T>> pages, long skip, int pageSize) {
+        List<T> items = new ArrayList<>();
+        int totalRecords = 0;
+        for (PagedResponseDto<T> upstreamPage : pages) {
+            if (upstreamPage.getResults() != null) {
+                items.addAll(upstreamPage.getResults());
+            }
+            totalRecords = Math.max(totalRecords, upstreamPage.getTotalRecords());
+        }
+        return window(pages.get(0).getMessage(), items, skip, pageSize, totalRecords);
+    }
+
+    /**
+     * Whether a window lies entirely past the end of the collection. Its pages are the empty ones
+     * standing in for SWAPI's 404s, so they carry no totals.
+     */
+    static boolean isPastTheEnd(PagedResponseDto<?> window, UpstreamRange range) {
+        return window.getTotalRecords() == 0 && range.firstPage() > 1;
+    }
+
+    /** {@code window} with the totals of the collection, as reported on any of its real pages. */
+    static <T> PagedResponseDto<T> withTotals(PagedResponseDto<T> window, PagedResponseDto<?> realPage, int pageSize) {
+        int totalRecords = realPage.getTotalRecords();
+        return PagedResponseDto.<T>builder()
+                .message(window.getMessage())
+                .results(window.getResults())
+                .totalRecords(totalRecords)
+                .totalPages((totalRecords + pageSize - 1) / pageSize)
+                .build();
+    }
+
+    /** One page of items that were all matched locally. */
+    static <T> PagedResponseDto<T> window(List<T> matches, long skip, int pageSize) {
+        return window("ok", matches, skip, pageSize, matches.size());
+    }
+
+    /** One page of the results of a SWAPI search, which are never paginated upstream. */
+    static <T> PagedResponseDto<T> window(PagedResponseDto<T> matches, long skip, int pageSize) {
+        return window(matches.getMessage(), matches.getResults(), skip, pageSize, matches.getResults().size());
+    }
+
+    static <T> PagedResponseDto<T> window(String message, List<T> items, long skip, int pageSize, int totalRecords) {
+        List<T> results = skip >= items.size()
+                ? Collections.emptyList()
+                : items.subList((int) skip, (int) Math.min(items.size(), skip + pageSize));
+        return PagedResponseDto.<T>builder()
+                .message(message)
+                .results(new ArrayList<>(results))
+                .totalRecords(totalRecords)
+                .totalPages((totalRecords + pageSize - 1) / pageSize)
+                .build();
+    }
+
+    static <T> PagedResponseDto<T> listPage(PagedResponseDto<T> body) {
+        return body == null ? emptyPage("No paginated data received from SWAPI.") : body;
+    }
+
+    static <T> PagedResponseDto<T> searchPage(SearchResponseDto<T> body) {
+        if (body == null || body.getResults() == null) {
+            return emptyPage("No search data received from SWAPI.");
+        }
+        return PagedResponseDto.<T>builder()
+                .message(body.getMessage())
+                .results(body.getResults())
+                .totalRecords(body.getResults().size())
+                .totalPages(1)
+                .build();
+    }
+
+    static <T> PagedResponseDto<T> emptyPage(String message) {
+        return new PagedResponseDto<>(Collections.emptyList(), message, 0, 0);
+    }
+}
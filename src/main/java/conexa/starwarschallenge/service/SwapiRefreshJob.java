@@ -0,0 +1,114 @@
+package conexa.starwarschallenge.service;
+
+import conexa.starwarschallenge.config.SwapiRefreshProperties;
+import conexa.starwarschallenge.enums.SwapiResource;
+import conexa.starwarschallenge.service.cache.SwapiCache;
+import conexa.starwarschallenge.service.cache.SwapiL2Cache;
+import conexa.starwarschallenge.service.store.LeaderLease;
+import conexa.starwarschallenge.service.store.SwapiDataVersions;
+import conexa.starwarschallenge.service.store.SwapiEditStamps;
+import conexa.starwarschallenge.service.store.SwapiEntityIndex;
+import conexa.starwarschallenge.service.store.SwapiNameIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Keeps the SWAPI data fresh across the cluster. Only the node holding the refresh lease talks to
+ * SWAPI; it writes changes to the shared L2 cache and publishes a new data version, which the other
+ * nodes pick up by dropping their local copies of that resource.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "swapi.refresh", name = "enabled", havingValue = "true")
+public class SwapiRefreshJob {
+
+    static final String LEASE_NAME = "swapi-refresh";
+
+    private final SwapiService swapiService;
+    private final SwapiCache swapiCache;
+    private final SwapiL2Cache l2Cache;
+    private final SwapiNameIndex nameIndex;
+    private final SwapiEntityIndex entityIndex;
+    private final LeaderLease leaderLease;
+    private final SwapiDataVersions dataVersions;
+    private final SwapiEditStamps editStamps;
+    private final SwapiRefreshProperties properties;
+    private final Map<SwapiResource, Long> knownVersions = new EnumMap<>(SwapiResource.class);
+
+    public SwapiRefreshJob(SwapiService swapiService,
+                           SwapiCache swapiCache,
+                           SwapiL2Cache l2Cache,
+                           SwapiNameIndex nameIndex,
+                           SwapiEntityIndex entityIndex,
+                           LeaderLease leaderLease,
+                           SwapiDataVersions dataVersions,
+                           SwapiEditStamps editStamps,
+                           SwapiRefreshProperties properties) {
+        this.swapiService = swapiService;
+        this.swapiCache = swapiCache;
+        this.l2Cache = l2Cache;
+        this.nameIndex = nameIndex;
+        this.entityIndex = entityIndex;
+        this.leaderLease = leaderLease;
+        this.dataVersions = dataVersions;
+        this.editStamps = editStamps;
+        this.properties = properties;
+    }
+
+    @Scheduled(fixedDelayString = "${swapi.refresh.interval:PT15M}", initialDelayString = "${swapi.refresh.interval:PT15M}")
+    public void refresh() {
+        for (SwapiResource resource : SwapiResource.values()) {
+            // Renewing the lease before every resource keeps a long run from outliving it.
+            if (!leaderLease.tryAcquire(LEASE_NAME, properties.getLeaseTtl())) {
+                return;
+            }
+            try {
+                Map<String, String> edited = editStamps.load(resource);
+                int changed = swapiService.refresh(resource, edited);
+                if (changed > 0) {
+                    // Followers read the L2 as soon as they see the new version, so it must be written first.
+                    l2Cache.flush();
+                    // Rebuilt in the background from the data just stored, so no request pays for it.
+                    entityIndex.expire(resource);
+                    long version = dataVersions.publish(resource);
+                    synchronized (knownVersions) {
+                        knownVersions.put(resource, version);
+                    }
+                    // Saved last: if anything before failed, the next run sees the same changes again.
+                    editStamps.save(resource, edited);
+                    log.info("Refreshed {} changed {}, published version {}", resource.getResourceName(), changed, version);
+                }
+            } catch (RuntimeException ex) {
+                log.warn("Refresh of {} failed: {}", resource.getResourceName(), ex.getMessage());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${swapi.refresh.version-poll-interval:PT30S}")
+    public void pollVersions() {
+        Map<SwapiResource, Long> published;
+        try {
+            published = dataVersions.current();
+        } catch (DataAccessException ex) {
+            log.debug("Could not read SWAPI data versions: {}", ex.getMessage());
+            return;
+        }
+        synchronized (knownVersions) {
+            published.forEach((resource, version) -> {
+                Long known = knownVersions.put(resource, version);
+                if (known != null && known < version) {
+                    log.info("SWAPI {} moved to version {}, dropping local copies", resource.getResourceName(), version);
+                    swapiCache.invalidate(resource);
+                    nameIndex.invalidate(resource);
+                    entityIndex.expire(resource);
+                }
+            });
+        }
+    }
+}
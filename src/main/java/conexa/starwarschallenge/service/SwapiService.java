@@ -1,23 +1,43 @@
 package conexa.starwarschallenge.service;
 
+import conexa.starwarschallenge.config.SwapiPagingProperties;
 import conexa.starwarschallenge.dto.*;
 import conexa.starwarschallenge.enums.SwapiResource;
 import conexa.starwarschallenge.exception.*;
+import conexa.starwarschallenge.service.cache.AgedValue;
+import conexa.starwarschallenge.service.cache.SingleFlight;
+import conexa.starwarschallenge.service.cache.SwapiCache;
+import conexa.starwarschallenge.service.cache.SwapiCacheKey;
+import conexa.starwarschallenge.service.cache.SwapiL2Cache;
+import conexa.starwarschallenge.service.resilience.SwapiHedger;
+import conexa.starwarschallenge.service.resilience.SwapiRateLimiter;
+import conexa.starwarschallenge.service.resilience.SwapiUpstreamGuard;
+import conexa.starwarschallenge.service.store.SwapiNameIndex;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpMethod;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
-import org.springframework.web.util.UriComponentsBuilder;
 
 import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.net.URI;
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,9 +47,36 @@ public class SwapiService {
     private String swapiBaseUrl;
 
     private final RestTemplate restTemplate;
+    private final SwapiCache swapiCache;
+    private final SwapiL2Cache l2Cache;
+    private final SingleFlight singleFlight;
+    private final SwapiRateLimiter rateLimiter;
+    private final SwapiUpstreamGuard upstreamGuard;
+    private final SwapiHedger hedger;
+    private final SwapiPagingProperties pagingProperties;
+    private final SwapiNameIndex nameIndex;
+    private final Executor fanOutExecutor;
 
-    public SwapiService(RestTemplate restTemplate) {
+    public SwapiService(RestTemplate restTemplate,
+                        SwapiCache swapiCache,
+                        SwapiL2Cache l2Cache,
+                        SingleFlight singleFlight,
+                        SwapiRateLimiter rateLimiter,
+                        SwapiUpstreamGuard upstreamGuard,
+                        SwapiHedger hedger,
+                        SwapiPagingProperties pagingProperties,
+                        SwapiNameIndex nameIndex,
+                        @Qualifier("swapiFanOutExecutor") Executor fanOutExecutor) {
         this.restTemplate = restTemplate;
+        this.swapiCache = swapiCache;
+        this.l2Cache = l2Cache;
+        this.singleFlight = singleFlight;
+        this.rateLimiter = rateLimiter;
+        this.upstreamGuard = upstreamGuard;
+        this.hedger = hedger;
+        this.pagingProperties = pagingProperties;
+        this.nameIndex = nameIndex;
+        this.fanOutExecutor = fanOutExecutor;
     }
 
     public PagedResponseDto<FilmRawItemDto> findFilms(int page, int limit, String name) {
@@ -39,7 +86,8 @@ public class SwapiService {
                 limit,
                 name,
                 new ParameterizedTypeReference<PagedResponseDto<FilmRawItemDto>>() {},
-                new ParameterizedTypeReference<SearchResponseDto<FilmRawItemDto>>() {}
+                new ParameterizedTypeReference<SearchResponseDto<FilmRawItemDto>>() {},
+                FilmRawItemDto::getName
         );
     }
 
@@ -50,7 +98,8 @@ public class SwapiService {
                 limit,
                 name,
                 new ParameterizedTypeReference<PagedResponseDto<PersonRawItemDto>>() {},
-                new ParameterizedTypeReference<SearchResponseDto<PersonRawItemDto>>() {}
+                new ParameterizedTypeReference<SearchResponseDto<PersonRawItemDto>>() {},
+                PersonRawItemDto::getName
         );
     }
 
@@ -61,7 +110,8 @@ public class SwapiService {
                 limit,
                 name,
                 new ParameterizedTypeReference<PagedResponseDto<StarshipRawItemDto>>() {},
-                new ParameterizedTypeReference<SearchResponseDto<StarshipRawItemDto>>() {}
+                new ParameterizedTypeReference<SearchResponseDto<StarshipRawItemDto>>() {},
+                StarshipRawItemDto::getName
         );
     }
 
@@ -72,70 +122,255 @@ public class SwapiService {
                 limit,
                 name,
                 new ParameterizedTypeReference<PagedResponseDto<VehicleRawItemDto>>() {},
-                new ParameterizedTypeReference<SearchResponseDto<VehicleRawItemDto>>() {}
+                new ParameterizedTypeReference<SearchResponseDto<VehicleRawItemDto>>() {},
+                VehicleRawItemDto::getName
         );
     }
 
+    /**
+     * Fetches every list page of {@code resource}, rebuilds its name index from the result and
+     * returns the UIDs found, so callers can go on to load the individual entities.
+     */
+    public List<String> crawlAndIndex(SwapiResource resource) {
+        return switch (resource) {
+            case FILMS -> crawlAndIndex(resource, new ParameterizedTypeReference<PagedResponseDto<FilmRawItemDto>>() {},
+                    FilmRawItemDto::getName, FilmRawItemDto::getUid);
+            case PEOPLE -> crawlAndIndex(resource, new ParameterizedTypeReference<PagedResponseDto<PersonRawItemDto>>() {},
+                    PersonRawItemDto::getName, PersonRawItemDto::getUid);
+            case STARSHIPS -> crawlAndIndex(resource, new ParameterizedTypeReference<PagedResponseDto<StarshipRawItemDto>>() {},
+                    StarshipRawItemDto::getName, StarshipRawItemDto::getUid);
+            case VEHICLES -> crawlAndIndex(resource, new ParameterizedTypeReference<PagedResponseDto<VehicleRawItemDto>>() {},
+                    VehicleRawItemDto::getName, VehicleRawItemDto::getUid);
+        };
+    }
+
+    private <T> List<String> crawlAndIndex(
+            SwapiResource resource,
+            ParameterizedTypeReference<PagedResponseDto<T>> pagedResponseType,
+            Function<T, String> nameOf,
+            Function<T, String> uidOf) {
+
+        List<T> items = crawl(resource, pagedResponseType);
+        nameIndex.rebuild(resource, items, nameOf);
+        return items.stream().map(uidOf).toList();
+    }
+
+    /**
+     * Re-reads {@code resource} from SWAPI using expanded list pages, which carry each entity's
+     * {@code edited} timestamp, and re-caches every entity. {@code edited} holds the timestamps by
+     * uid as of the previous refresh and is brought up to date; an entity counts as changed only
+     * when its timestamp moved, or when it was added or removed. When anything changed the list
+     * pages are reloaded and the name index rebuilt. Returns the number of changes.
+     */
+    public int refresh(SwapiResource resource, Map<String, String> edited) {
+        return switch (resource) {
+            case FILMS -> refresh(resource,
+                    new ParameterizedTypeReference<PagedResponseDto<FilmDto>>() {},
+                    new ParameterizedTypeReference<PagedResponseDto<FilmRawItemDto>>() {},
+                    FilmDto::getUid, film -> film.getProperties() == null ? null : film.getProperties().getEdited(),
+                    FilmRawItemDto::getName, edited);
+            case PEOPLE -> refresh(resource,
+                    new ParameterizedTypeReference<PagedResponseDto<PersonDto>>() {},
+                    new ParameterizedTypeReference<PagedResponseDto<PersonRawItemDto>>() {},
+                    PersonDto::getUid, person -> person.getProperties() == null ? null : person.getProperties().getEdited(),
+                    PersonRawItemDto::getName, edited);
+            case STARSHIPS -> refresh(resource,
+                    new ParameterizedTypeReference<PagedResponseDto<StarshipDto>>() {},
+                    new ParameterizedTypeReference<PagedResponseDto<StarshipRawItemDto>>() {},
+                    StarshipDto::getUid, starship -> starship.getProperties() == null ? null : starship.getProperties().getEdited(),
+                    StarshipRawItemDto::getName, edited);
+            case VEHICLES -> refresh(resource,
+                    new ParameterizedTypeReference<PagedResponseDto<VehicleDto>>() {},
+                    new ParameterizedTypeReference<PagedResponseDto<VehicleRawItemDto>>() {},
+                    VehicleDto::getUid, vehicle -> vehicle.getProperties() == null ? null : vehicle.getProperties().getEdited(),
+                    VehicleRawItemDto::getName, edited);
+        };
+    }
+
+    private <D, T> int refresh(
+            SwapiResource resource,
+            ParameterizedTypeReference<PagedResponseDto<D>> expandedPageType,
+            ParameterizedTypeReference<PagedResponseDto<T>> pagedResponseType,
+            Function<D, String> uidOf,
+            Function<D, String> editedOf,
+            Function<T, String> nameOf,
+            Map<String, String> edited) {
+
+        int changed = 0;
+        int totalPages = 1;
+        Set<String> seen = new HashSet<>();
+        for (int page = 1; page <= totalPages; page++) {
+            PagedResponseDto<D> expandedPage = fetchPage(resource, page, true, expandedPageType);
+            totalPages = expandedPage.getTotalPages();
+            SwapiCacheKey pageKey = SwapiCacheKey.expandedPage(resource, page);
+            swapiCache.put(pageKey, expandedPage);
+            l2Cache.put(pageKey, expandedPage);
+            for (D entity : expandedPage.getResults() == null ? List.<D>of() : expandedPage.getResults()) {
+                String uid = uidOf.apply(entity);
+                String editedNow = editedOf.apply(entity);
+                seen.add(uid);
+                boolean known = edited.containsKey(uid);
+                String previous = edited.put(uid, editedNow);
+                if (!known || !Objects.equals(previous, editedNow)) {
+                    changed++;
+                }
+                // Unchanged entities are re-cached too: they were just fetched, which keeps the L2 warm.
+                SwapiCacheKey key = SwapiCacheKey.byId(resource, uid);
+                SingleResponseDto<D> fresh = new SingleResponseDto<>("ok", entity);
+                swapiCache.put(key, fresh);
+                l2Cache.put(key, fresh);
+            }
+        }
+        int before = edited.size();
+        edited.keySet().retainAll(seen);
+        changed += before - edited.size();
+
+        if (changed > 0) {
+            List<T> items = new ArrayList<>();
+            for (int page = 1; page <= totalPages; page++) {
+                PagedResponseDto<T> listPage = fetchPage(resource, page, false, pagedResponseType);
+                SwapiCacheKey key = SwapiCacheKey.page(resource, page);
+                swapiCache.put(key, listPage);
+                l2Cache.put(key, listPage);
+                if (listPage.getResults() != null) {
+                    items.addAll(listPage.getResults());
+                }
+            }
+            swapiCache.invalidate(resource, SwapiCacheKey.Kind.SEARCH);
+            nameIndex.rebuild(resource, items, nameOf);
+        }
+        return changed;
+    }
+
     private <T> PagedResponseDto<T> findResources(
             SwapiResource resource,
             int page,
             int limit,
             String name,
             ParameterizedTypeReference<PagedResponseDto<T>> pagedResponseType,
-            ParameterizedTypeReference<SearchResponseDto<T>> searchResponseType) {
+            ParameterizedTypeReference<SearchResponseDto<T>> searchResponseType,
+            Function<T, String> nameOf) {
 
-        UriComponentsBuilder builder = UriComponentsBuilder.fromUriString(swapiBaseUrl).path(resource.getPath());
+        int pageSize = SwapiPaging.pageSize(limit, pagingProperties.getMaxLimit());
 
-        boolean isSearch = StringUtils.hasText(name);
+        if (StringUtils.hasText(name)) {
+            long offset = SwapiPaging.offset(page, pageSize);
+            List<T> local = nameIndex.search(resource, name, () -> crawl(resource, pagedResponseType), nameOf).orElse(null);
+            if (local != null) {
+                return SwapiPaging.window(local, offset, pageSize);
+            }
+            return SwapiPaging.window(findSearch(resource, name, pagedResponseType, searchResponseType), offset, pageSize);
+        }
+        return findWindow(resource, page, pageSize, pagedResponseType);
+    }
+
+    private <T> PagedResponseDto<T> findWindow(
+            SwapiResource resource,
+            int page,
+            int pageSize,
+            ParameterizedTypeReference<PagedResponseDto<T>> pagedResponseType) {
+
+        SwapiPaging.UpstreamRange range = SwapiPaging.UpstreamRange.of(page, pageSize, pagingProperties.getUpstreamPageSize());
 
-        if (isSearch) {
-            builder.queryParam("search", name);
+        List<PagedResponseDto<T>> pages;
+        if (range.firstPage() == range.lastPage()) {
+            pages = List.of(findPage(resource, range.firstPage(), pagedResponseType));
         } else {
-            builder.queryParam("page", page);
+            List<CompletableFuture<PagedResponseDto<T>>> futures = IntStream.rangeClosed(range.firstPage(), range.lastPage())
+                    .mapToObj(n -> CompletableFuture.supplyAsync(() -> findPage(resource, n, pagedResponseType), fanOutExecutor))
+                    .toList();
+            pages = futures.stream().map(SwapiService::join).toList();
+        }
+
+        PagedResponseDto<T> window = SwapiPaging.merge(pages, range.skip(), pageSize);
+        if (SwapiPaging.isPastTheEnd(window, range)) {
+            return SwapiPaging.withTotals(window, findPage(resource, 1, pagedResponseType), pageSize);
         }
-        URI uri = builder.build().toUri();
+        return window;
+    }
+
+    private <T> List<T> crawl(SwapiResource resource, ParameterizedTypeReference<PagedResponseDto<T>> pagedResponseType) {
+        PagedResponseDto<T> first = findPage(resource, 1, pagedResponseType);
+        List<CompletableFuture<PagedResponseDto<T>>> futures = IntStream.rangeClosed(2, first.getTotalPages())
+                .mapToObj(n -> CompletableFuture.supplyAsync(() -> findPage(resource, n, pagedResponseType), fanOutExecutor))
+                .toList();
+        return SwapiPaging.concat(first, futures.stream().map(SwapiService::join).toList());
+    }
+
+    private <T> PagedResponseDto<T> findPage(
+            SwapiResource resource,
+            int page,
+            ParameterizedTypeReference<PagedResponseDto<T>> pagedResponseType) {
+
+        SwapiCacheKey key = SwapiCacheKey.page(resource, page);
+        return cached(key, pagedResponseType.getType(), () -> fetchPage(resource, page, false, pagedResponseType));
+    }
+
+    private <T> PagedResponseDto<T> findSearch(
+            SwapiResource resource,
+            String name,
+            ParameterizedTypeReference<PagedResponseDto<T>> pagedResponseType,
+            ParameterizedTypeReference<SearchResponseDto<T>> searchResponseType) {
+
+        SwapiCacheKey key = SwapiCacheKey.search(resource, name);
+        return cached(key, pagedResponseType.getType(), () -> fetchSearch(resource, name, searchResponseType));
+    }
+
+    /**
+     * Looks {@code key} up in the L1, then the L2, then SWAPI, with one upstream call per key at a
+     * time. A value found in the L2 keeps its age there, and revalidating it goes straight upstream.
+     */
+    private <V> V cached(SwapiCacheKey key, Type type, Supplier<V> fetch) {
+        return swapiCache.get(key,
+                () -> singleFlight.execute(key, () -> l2Cache.get(key, type, fetch)),
+                () -> singleFlight.execute(key, () -> AgedValue.fresh(l2Cache.load(key, fetch))));
+    }
+
+    private <T> PagedResponseDto<T> fetchPage(
+            SwapiResource resource,
+            int page,
+            boolean expanded,
+            ParameterizedTypeReference<PagedResponseDto<T>> pagedResponseType) {
+
+        URI uri = expanded
+                ? SwapiUpstream.expandedPage(swapiBaseUrl, resource, page, pagingProperties.getUpstreamPageSize())
+                : SwapiUpstream.page(swapiBaseUrl, resource, page, pagingProperties.getUpstreamPageSize());
 
         try {
-            if (isSearch) {
-                ResponseEntity<SearchResponseDto<T>> response = restTemplate.exchange(
-                        uri,
-                        HttpMethod.GET,
-                        null,
-                        searchResponseType
-                );
-
-                SearchResponseDto<T> body = response.getBody();
-                if (body == null || body.getResults() == null) {
-                    return new PagedResponseDto<>(Collections.emptyList(), "No search data received from SWAPI.", 0, 0);
-                }
+            ResponseEntity<PagedResponseDto<T>> response = callUpstream(resource, () -> restTemplate.exchange(
+                    uri,
+                    HttpMethod.GET,
+                    null,
+                    pagedResponseType
+            ));
 
-                return PagedResponseDto.<T>builder()
-                        .message(body.getMessage())
-                        .results(body.getResults())
-                        .totalRecords(body.getResults().size())
-                        .totalPages(1)
-                        .build();
-
-            } else {
-                ResponseEntity<PagedResponseDto<T>> response = restTemplate.exchange(
-                        uri,
-                        HttpMethod.GET,
-                        null,
-                        pagedResponseType
-                );
-
-                PagedResponseDto<T> body = response.getBody();
-                if (body == null) {
-                    return new PagedResponseDto<>(Collections.emptyList(), "No paginated data received from SWAPI.", 0, 0);
-                }
-                return body;
-            }
+            return SwapiPaging.listPage(response.getBody());
+        } catch (HttpClientErrorException.NotFound ex) {
+            // Pages past the end of the collection are simply empty.
+            return SwapiPaging.emptyPage("ok");
+        } catch (HttpClientErrorException ex) {
+            throw SwapiUpstream.isTooManyRequests(ex) ? SwapiUpstream.tooManyRequests(resource) : ex;
+        }
+    }
+
+    private <T> PagedResponseDto<T> fetchSearch(
+            SwapiResource resource,
+            String name,
+            ParameterizedTypeReference<SearchResponseDto<T>> searchResponseType) {
+
+        URI uri = SwapiUpstream.search(swapiBaseUrl, resource, name);
+
+        try {
+            ResponseEntity<SearchResponseDto<T>> response = callUpstream(resource, () -> restTemplate.exchange(
+                    uri,
+                    HttpMethod.GET,
+                    null,
+                    searchResponseType
+            ));
 
+            return SwapiPaging.searchPage(response.getBody());
         } catch (HttpClientErrorException ex) {
-            if (ex.getStatusCode() == HttpStatus.TOO_MANY_REQUESTS) {
-                throw new TooManyRequestsException("Too Many Requests to SWAPI for " + resource.getResourceName() + ". Please try again later.");
-            }
-            throw ex;
+            throw SwapiUpstream.isTooManyRequests(ex) ? SwapiUpstream.tooManyRequests(resource) : ex;
         }
     }
 
@@ -161,30 +396,60 @@ public class SwapiService {
             ParameterizedTypeReference<SingleResponseDto<T>> responseType,
             java.util.function.Function<String, RuntimeException> notFoundExceptionSupplier) {
 
-        String uri = UriComponentsBuilder.fromUriString(swapiBaseUrl)
-                .path(resource.getPath() + "/{id}")
-                .buildAndExpand(id)
-                .toUriString();
+        SwapiCacheKey key = SwapiCacheKey.byId(resource, id);
+        return cached(key, responseType.getType(), () -> fetchResourceById(resource, id, responseType, notFoundExceptionSupplier));
+    }
+
+    private <T> SingleResponseDto<T> fetchResourceById(
+            SwapiResource resource,
+            String id,
+            ParameterizedTypeReference<SingleResponseDto<T>> responseType,
+            java.util.function.Function<String, RuntimeException> notFoundExceptionSupplier) {
+
+        String uri = SwapiUpstream.byId(swapiBaseUrl, resource, id).toString();
 
         try {
-            ResponseEntity<SingleResponseDto<T>> response = restTemplate.exchange(
+            ResponseEntity<SingleResponseDto<T>> response = callUpstream(resource, () -> restTemplate.exchange(
                     uri,
                     HttpMethod.GET,
                     null,
                     responseType
-            );
+            ));
 
-            if (response.getBody() == null) {
-                return new SingleResponseDto<>(null, "No data received from SWAPI.", false);
-            }
-            return response.getBody();
+            return SwapiUpstream.single(response.getBody());
         } catch (HttpClientErrorException.NotFound ex) {
             throw notFoundExceptionSupplier.apply(id);
         } catch (HttpClientErrorException ex) {
-            if (ex.getStatusCode() == HttpStatus.TOO_MANY_REQUESTS) {
-                throw new TooManyRequestsException("Too Many Requests to SWAPI for " + resource.getResourceName() + " ID " + id + ". Please try again later.");
+            if (SwapiUpstream.isTooManyRequests(ex)) {
+                throw SwapiUpstream.tooManyRequests(resource, id);
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Waits for the rate permit before entering the guard, so waiting on our own budget neither
+     * holds a concurrency slot nor counts as SWAPI latency. A call the guard turns away gives its
+     * permit back.
+     */
+    private <R> ResponseEntity<R> callUpstream(SwapiResource resource, Supplier<ResponseEntity<R>> call) {
+        rateLimiter.acquire(resource);
+        try {
+            return upstreamGuard.execute(resource, () -> hedger.call(resource, call));
+        } catch (SwapiUnavailableException ex) {
+            rateLimiter.release(resource);
+            throw ex;
+        }
+    }
+
+    private static <R> R join(CompletableFuture<R> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
             }
             throw ex;
         }
     }
-}
\ No newline at end of file
+}
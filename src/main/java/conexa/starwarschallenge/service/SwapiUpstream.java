@@ -0,0 +1,72 @@
+package conexa.starwarschallenge.service;
+
+import conexa.starwarschallenge.dto.SingleResponseDto;
+import conexa.starwarschallenge.enums.SwapiResource;
+import conexa.starwarschallenge.exception.TooManyRequestsException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+
+/**
+ * How SWAPI is addressed and how its errors map to this API's, for both {@link SwapiService} and
+ * {@link SwapiAsyncService}.
+ */
+final class SwapiUpstream {
+
+    private SwapiUpstream() {
+    }
+
+    /**
+     * A list page. The page size is always sent, because the paging math assumes
+     * {@code swapi.paging.upstream-page-size} rather than whatever SWAPI defaults to.
+     */
+    static URI page(String baseUrl, SwapiResource resource, int page, int limit) {
+        return UriComponentsBuilder.fromUriString(baseUrl)
+                .path(resource.getPath())
+                .queryParam("page", page)
+                .queryParam("limit", limit)
+                .build().toUri();
+    }
+
+    /** A list page of full entities, which unlike the plain one carry their edited timestamps. */
+    static URI expandedPage(String baseUrl, SwapiResource resource, int page, int limit) {
+        return UriComponentsBuilder.fromUriString(baseUrl)
+                .path(resource.getPath())
+                .queryParam("page", page)
+                .queryParam("limit", limit)
+                .queryParam("expanded", true)
+                .build().toUri();
+    }
+
+    static URI search(String baseUrl, SwapiResource resource, String name) {
+        return UriComponentsBuilder.fromUriString(baseUrl)
+                .path(resource.getPath())
+                .queryParam("search", name)
+                .build().toUri();
+    }
+
+    static URI byId(String baseUrl, SwapiResource resource, String id) {
+        return UriComponentsBuilder.fromUriString(baseUrl)
+                .path(resource.getPath() + "/{id}")
+                .buildAndExpand(id)
+                .toUri();
+    }
+
+    static <T> SingleResponseDto<T> single(SingleResponseDto<T> body) {
+        return body == null ? new SingleResponseDto<>(null, "No data received from SWAPI.", false) : body;
+    }
+
+    static boolean isTooManyRequests(Throwable error) {
+        return error instanceof HttpClientErrorException clientError && clientError.getStatusCode() == HttpStatus.TOO_MANY_REQUESTS;
+    }
+
+    static TooManyRequestsException tooManyRequests(SwapiResource resource) {
+        return new TooManyRequestsException("Too Many Requests to SWAPI for " + resource.getResourceName() + ". Please try again later.");
+    }
+
+    static TooManyRequestsException tooManyRequests(SwapiResource resource, String id) {
+        return new TooManyRequestsException("Too Many Requests to SWAPI for " + resource.getResourceName() + " ID " + id + ". Please try again later.");
+    }
+}
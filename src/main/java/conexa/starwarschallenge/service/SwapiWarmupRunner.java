@@ -0,0 +1,137 @@
+package conexa.starwarschallenge.service;
+
+import conexa.starwarschallenge.config.SwapiSnapshotProperties;
+import conexa.starwarschallenge.config.SwapiWarmupProperties;
+import conexa.starwarschallenge.dto.BatchItemDto;
+import conexa.starwarschallenge.dto.SingleResponseDto;
+import conexa.starwarschallenge.enums.SwapiResource;
+import conexa.starwarschallenge.exception.TooManyRequestsException;
+import conexa.starwarschallenge.service.store.SwapiSnapshotStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Crawls every SWAPI resource while the application starts. Runners complete before the
+ * application is marked ready, so traffic only arrives once the cache and name indexes are warm.
+ * With snapshots enabled, a recent snapshot replaces the crawl and a fresh crawl writes a new one.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "swapi.warmup", name = "enabled", havingValue = "true")
+public class SwapiWarmupRunner implements ApplicationRunner {
+
+    private final SwapiService swapiService;
+    private final SwapiBatchService swapiBatchService;
+    private final SwapiWarmupProperties properties;
+    private final SwapiSnapshotStore snapshotStore;
+    private final SwapiSnapshotProperties snapshotProperties;
+
+    public SwapiWarmupRunner(SwapiService swapiService,
+                             SwapiBatchService swapiBatchService,
+                             SwapiWarmupProperties properties,
+                             SwapiSnapshotStore snapshotStore,
+                             SwapiSnapshotProperties snapshotProperties) {
+        this.swapiService = swapiService;
+        this.swapiBatchService = swapiBatchService;
+        this.properties = properties;
+        this.snapshotStore = snapshotStore;
+        this.snapshotProperties = snapshotProperties;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long started = System.nanoTime();
+        if (snapshotProperties.isEnabled() && restoreSnapshot()) {
+            log.info("SWAPI data restored from snapshot in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            return;
+        }
+
+        boolean complete = true;
+        for (SwapiResource resource : SwapiResource.values()) {
+            try {
+                warmUp(resource);
+            } catch (RuntimeException ex) {
+                // A partial warm-up still helps; whatever is missing is loaded on demand.
+                log.warn("Warm-up of {} failed: {}", resource.getResourceName(), ex.getMessage());
+                complete = false;
+            }
+        }
+        log.info("SWAPI warm-up finished in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+
+        if (snapshotProperties.isEnabled() && complete) {
+            try {
+                snapshotStore.save();
+            } catch (RuntimeException ex) {
+                log.warn("Could not save SWAPI snapshot: {}", ex.getMessage());
+            }
+        }
+    }
+
+    private boolean restoreSnapshot() {
+        Optional<Instant> crawledAt = snapshotStore.load();
+        if (crawledAt.isEmpty()) {
+            return false;
+        }
+        // The list pages are cached now, so indexing them does not reach SWAPI.
+        for (SwapiResource resource : SwapiResource.values()) {
+            swapiService.crawlAndIndex(resource);
+        }
+        log.info("Loaded SWAPI snapshot crawled at {}", crawledAt.get());
+        return true;
+    }
+
+    void warmUp(SwapiResource resource) {
+        List<String> ids = withRetry(() -> swapiService.crawlAndIndex(resource));
+        int failed = 0;
+        if (properties.isIncludeDetails()) {
+            failed = switch (resource) {
+                case FILMS -> warmDetails(ids, swapiService::findFilmById);
+                case PEOPLE -> warmDetails(ids, swapiService::findPersonById);
+                case STARSHIPS -> warmDetails(ids, swapiService::findStarshipById);
+                case VEHICLES -> warmDetails(ids, swapiService::findVehicleById);
+            };
+        }
+        log.info("Warmed up {} {} ({} details failed)", ids.size(), resource.getResourceName(), failed);
+    }
+
+    private <T> int warmDetails(List<String> ids, Function<String, SingleResponseDto<T>> lookup) {
+        Semaphore permits = new Semaphore(properties.getParallelism());
+        List<BatchItemDto<T>> results = swapiBatchService.fetchAll(ids, id -> withRetry(() -> lookup.apply(id)), permits).join();
+        return (int) results.stream().filter(item -> item.getStatus() != HttpStatus.OK.value()).count();
+    }
+
+    // The outbound limiter rejects callers that would wait too long; the crawler backs off and retries instead.
+    private <R> R withRetry(Supplier<R> call) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return call.get();
+            } catch (TooManyRequestsException ex) {
+                if (attempt >= properties.getMaxAttempts()) {
+                    throw ex;
+                }
+                sleep(properties.getRetryBackoff().toMillis() * attempt);
+            }
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during SWAPI warm-up", e);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package conexa.starwarschallenge.service.cache;
+
+import java.time.Duration;
+
+/**
+ * A value together with how long ago it was fetched from SWAPI, so a copy found in a slower
+ * cache tier keeps its age when it is promoted to a faster one.
+ */
+public record AgedValue<V>(V value, Duration age) {
+
+    public static <V> AgedValue<V> fresh(V value) {
+        return new AgedValue<>(value, Duration.ZERO);
+    }
+}
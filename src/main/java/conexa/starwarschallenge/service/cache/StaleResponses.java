@@ -0,0 +1,48 @@
+package conexa.starwarschallenge.service.cache;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+
+public final class StaleResponses {
+
+    public static final String STALE_HEADER = "X-Swapi-Stale";
+    private static final String AGE_ATTRIBUTE = StaleResponses.class.getName() + ".AGE";
+
+    private StaleResponses() {
+    }
+
+    public static void markStale(Duration age) {
+        markStale(RequestContextHolder.getRequestAttributes(), age);
+    }
+
+    /**
+     * For callbacks that complete on another thread: the attributes captured on the request thread
+     * still reach the response, which is written after the async dispatch. By then the request
+     * thread has finished with its attributes, so servlet requests are written to directly.
+     */
+    public static void markStale(RequestAttributes attributes, Duration age) {
+        if (attributes instanceof ServletRequestAttributes servlet) {
+            HttpServletRequest request = servlet.getRequest();
+            synchronized (request) {
+                Duration current = (Duration) request.getAttribute(AGE_ATTRIBUTE);
+                if (current == null || age.compareTo(current) > 0) {
+                    request.setAttribute(AGE_ATTRIBUTE, age);
+                }
+            }
+        } else if (attributes != null) {
+            Duration current = (Duration) attributes.getAttribute(AGE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (current == null || age.compareTo(current) > 0) {
+                attributes.setAttribute(AGE_ATTRIBUTE, age, RequestAttributes.SCOPE_REQUEST);
+            }
+        }
+    }
+
+    public static Duration staleAge() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes == null ? null : (Duration) attributes.getAttribute(AGE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+    }
+}
@@ -0,0 +1,387 @@
+package conexa.starwarschallenge.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import conexa.starwarschallenge.config.SwapiCacheProperties;
+import conexa.starwarschallenge.enums.SwapiResource;
+import conexa.starwarschallenge.exception.SwapiUnavailableException;
+import conexa.starwarschallenge.exception.TooManyRequestsException;
+import conexa.starwarschallenge.service.store.SwapiEntityCodec;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+@Slf4j
+@Component
+public class SwapiCache {
+
+    private final SwapiCacheProperties properties;
+    private final Executor refreshExecutor;
+    private final Ticker ticker;
+    private final SwapiEntityCodec codec;
+    private final Map<SwapiResource, Cache<SwapiCacheKey, CacheEntry>> caches = new EnumMap<>(SwapiResource.class);
+    private final Set<SwapiCacheKey> refreshing = ConcurrentHashMap.newKeySet();
+    private final Counter staleOnRevalidate;
+    private final Counter staleOnError;
+
+    @Autowired
+    public SwapiCache(SwapiCacheProperties properties,
+                      MeterRegistry meterRegistry,
+                      @Qualifier("swapiRefreshExecutor") Executor refreshExecutor,
+                      SwapiEntityCodec codec) {
+        this(properties, meterRegistry, refreshExecutor, Ticker.systemTicker(), codec);
+    }
+
+    public SwapiCache(SwapiCacheProperties properties, MeterRegistry meterRegistry, Executor refreshExecutor) {
+        this(properties, meterRegistry, refreshExecutor, Ticker.systemTicker());
+    }
+
+    public SwapiCache(SwapiCacheProperties properties, MeterRegistry meterRegistry, Executor refreshExecutor, Ticker ticker) {
+        this(properties, meterRegistry, refreshExecutor, ticker, new SwapiEntityCodec());
+    }
+
+    public SwapiCache(SwapiCacheProperties properties,
+                      MeterRegistry meterRegistry,
+                      Executor refreshExecutor,
+                      Ticker ticker,
+                      SwapiEntityCodec codec) {
+        this.properties = properties;
+        this.refreshExecutor = refreshExecutor;
+        this.ticker = ticker;
+        this.codec = codec;
+        for (SwapiResource resource : SwapiResource.values()) {
+            Cache<SwapiCacheKey, CacheEntry> cache = Caffeine.newBuilder()
+                    .maximumSize(properties.maxSizeFor(resource))
+                    .expireAfter(hardTtl(properties.hardTtlFor(resource)))
+                    .ticker(ticker)
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "swapi." + resource.getResourceName(),
+                    Tags.of("resource", resource.getResourceName()));
+            caches.put(resource, cache);
+        }
+        this.staleOnRevalidate = meterRegistry.counter("swapi.cache.stale.served", "reason", "revalidate");
+        this.staleOnError = meterRegistry.counter("swapi.cache.stale.served", "reason", "error");
+        Gauge.builder("swapi.cache.dictionary.size", codec, SwapiEntityCodec::dictionarySize)
+                .description("Distinct strings shared by the compact people, starship and vehicle entries")
+                .register(meterRegistry);
+    }
+
+    public <V> V get(SwapiCacheKey key, Supplier<V> loader) {
+        Supplier<AgedValue<V>> fresh = () -> AgedValue.fresh(loader.get());
+        return get(key, fresh, fresh);
+    }
+
+    /**
+     * Like {@link #get(SwapiCacheKey, Supplier)}, for a {@code lookup} that may find the value in a
+     * slower cache tier. The entry keeps the age it had there, so it turns stale when the original
+     * fetch would have. Stale entries are reloaded through {@code revalidate}, which must skip that
+     * tier, since it holds the same stale value.
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V get(SwapiCacheKey key, Supplier<AgedValue<V>> lookup, Supplier<AgedValue<V>> revalidate) {
+        if (!properties.isEnabled()) {
+            return lookup.get().value();
+        }
+        Cache<SwapiCacheKey, CacheEntry> cache = caches.get(key.resource());
+        CacheEntry entry = cache.getIfPresent(key);
+        if (entry == null) {
+            AgedValue<V> loaded = lookup.get();
+            entry = store(cache, key, loaded);
+            if (entry == null || loaded.age().compareTo(properties.softTtlFor(key.resource())) < 0) {
+                return loaded.value();
+            }
+        }
+
+        Duration age = Duration.ofNanos(ticker.read() - entry.storedAt());
+        if (age.compareTo(properties.softTtlFor(key.resource())) < 0) {
+            return (V) value(entry);
+        }
+
+        if (properties.isStaleWhileRevalidate()) {
+            refreshInBackground(cache, key, revalidate);
+            staleOnRevalidate.increment();
+            StaleResponses.markStale(age);
+            return (V) value(entry);
+        }
+
+        try {
+            return load(cache, key, revalidate);
+        } catch (RuntimeException ex) {
+            if (!isUpstreamFailure(ex)) {
+                throw ex;
+            }
+            log.warn("Serving stale {} after upstream failure: {}", key, ex.getMessage());
+            staleOnError.increment();
+            StaleResponses.markStale(age);
+            return (V) value(entry);
+        }
+    }
+
+    /**
+     * Non-blocking counterpart of {@link #get}, with the same soft and hard TTL semantics. Stale
+     * values are still served when the loader's future fails with an upstream error.
+     */
+    public <V> CompletableFuture<V> getAsync(SwapiCacheKey key, Supplier<CompletableFuture<V>> loader) {
+        Supplier<CompletableFuture<AgedValue<V>>> fresh = () -> loader.get().thenApply(AgedValue::fresh);
+        return getAsync(key, fresh, fresh);
+    }
+
+    /** Non-blocking counterpart of {@link #get(SwapiCacheKey, Supplier, Supplier)}. */
+    public <V> CompletableFuture<V> getAsync(SwapiCacheKey key,
+                                             Supplier<CompletableFuture<AgedValue<V>>> lookup,
+                                             Supplier<CompletableFuture<AgedValue<V>>> revalidate) {
+        return getAsync(key, lookup, revalidate, RequestContextHolder.getRequestAttributes());
+    }
+
+    /**
+     * Like {@link #getAsync(SwapiCacheKey, Supplier, Supplier)}, marking stale values on the given
+     * request. Callers continuing a request in a future callback pass the attributes they captured
+     * on the request thread, since the callback's thread has none.
+     */
+    public <V> CompletableFuture<V> getAsync(SwapiCacheKey key,
+                                             Supplier<CompletableFuture<AgedValue<V>>> lookup,
+                                             Supplier<CompletableFuture<AgedValue<V>>> revalidate,
+                                             RequestAttributes attributes) {
+        if (!properties.isEnabled()) {
+            return lookup.get().thenApply(AgedValue::value);
+        }
+        Cache<SwapiCacheKey, CacheEntry> cache = caches.get(key.resource());
+        CacheEntry entry = cache.getIfPresent(key);
+        if (entry == null) {
+            return lookup.get().thenCompose(loaded -> {
+                CacheEntry stored = store(cache, key, loaded);
+                if (stored == null || loaded.age().compareTo(properties.softTtlFor(key.resource())) < 0) {
+                    return CompletableFuture.completedFuture(loaded.value());
+                }
+                return serveAsync(cache, key, stored, revalidate, attributes);
+            });
+        }
+        return serveAsync(cache, key, entry, revalidate, attributes);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <V> CompletableFuture<V> serveAsync(Cache<SwapiCacheKey, CacheEntry> cache,
+                                                SwapiCacheKey key,
+                                                CacheEntry entry,
+                                                Supplier<CompletableFuture<AgedValue<V>>> revalidate,
+                                                RequestAttributes attributes) {
+        Duration age = Duration.ofNanos(ticker.read() - entry.storedAt());
+        if (age.compareTo(properties.softTtlFor(key.resource())) < 0) {
+            return CompletableFuture.completedFuture((V) value(entry));
+        }
+
+        if (properties.isStaleWhileRevalidate()) {
+            refreshAsync(cache, key, revalidate);
+            staleOnRevalidate.increment();
+            StaleResponses.markStale(attributes, age);
+            return CompletableFuture.completedFuture((V) value(entry));
+        }
+
+        return loadAsync(cache, key, revalidate).exceptionally(error -> {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (!(cause instanceof RuntimeException ex) || !isUpstreamFailure(ex)) {
+                throw error instanceof CompletionException completion ? completion : new CompletionException(cause);
+            }
+            log.warn("Serving stale {} after upstream failure: {}", key, ex.getMessage());
+            staleOnError.increment();
+            StaleResponses.markStale(attributes, age);
+            return (V) value(entry);
+        });
+    }
+
+    /**
+     * Seeds the cache with a value that was loaded elsewhere, e.g. from a snapshot. The age keeps
+     * the soft TTL honest, so old snapshot entries are revalidated like any other stale entry.
+     */
+    public void preload(SwapiCacheKey key, Object value, Duration age) {
+        if (properties.isEnabled()) {
+            store(caches.get(key.resource()), key, new AgedValue<>(value, age));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public <V> V peek(SwapiCacheKey key) {
+        // Reads through the map view so background refresh checks do not count as hits or misses.
+        CacheEntry entry = caches.get(key.resource()).asMap().get(key);
+        return entry == null ? null : (V) value(entry);
+    }
+
+    /**
+     * Like {@link #peek}, but hands back people, starships and vehicles as the compact records of
+     * this cache's {@link SwapiEntityCodec}, which alone can decode them, instead of materializing
+     * DTOs. Other values are returned as stored.
+     */
+    public Object peekCompact(SwapiCacheKey key) {
+        CacheEntry entry = caches.get(key.resource()).asMap().get(key);
+        return entry == null ? null : codec.compact(entry.value());
+    }
+
+    public void put(SwapiCacheKey key, Object value) {
+        preload(key, value, Duration.ZERO);
+    }
+
+    public Map<SwapiCacheKey, Object> entries(SwapiResource resource) {
+        Map<SwapiCacheKey, Object> entries = new HashMap<>();
+        caches.get(resource).asMap().forEach((key, entry) -> entries.put(key, value(entry)));
+        return entries;
+    }
+
+    /** Age of the oldest entry of {@code resource}, or zero when it has none. */
+    public Duration oldestAge(SwapiResource resource) {
+        long now = ticker.read();
+        return caches.get(resource).asMap().values().stream()
+                .map(entry -> Duration.ofNanos(now - entry.storedAt()))
+                .max(Duration::compareTo)
+                .orElse(Duration.ZERO);
+    }
+
+    public void invalidate(SwapiResource resource) {
+        caches.get(resource).invalidateAll();
+    }
+
+    public void invalidate(SwapiResource resource, SwapiCacheKey.Kind kind) {
+        caches.get(resource).asMap().keySet().removeIf(key -> key.kind() == kind);
+    }
+
+    public void invalidateAll() {
+        caches.values().forEach(Cache::invalidateAll);
+    }
+
+    public void cleanUp() {
+        caches.values().forEach(Cache::cleanUp);
+    }
+
+    public CacheStats stats(SwapiResource resource) {
+        return caches.get(resource).stats();
+    }
+
+    private <V> V load(Cache<SwapiCacheKey, CacheEntry> cache, SwapiCacheKey key, Supplier<AgedValue<V>> loader) {
+        AgedValue<V> loaded = loader.get();
+        store(cache, key, loaded);
+        return loaded.value();
+    }
+
+    private <V> CompletableFuture<V> loadAsync(Cache<SwapiCacheKey, CacheEntry> cache,
+                                               SwapiCacheKey key,
+                                               Supplier<CompletableFuture<AgedValue<V>>> loader) {
+        return loader.get().thenApply(loaded -> {
+            store(cache, key, loaded);
+            return loaded.value();
+        });
+    }
+
+    /** Stores {@code loaded} as fetched {@code age} ago. Returns null when there is nothing worth keeping. */
+    private CacheEntry store(Cache<SwapiCacheKey, CacheEntry> cache, SwapiCacheKey key, AgedValue<?> loaded) {
+        if (loaded.value() == null || loaded.age().compareTo(properties.hardTtlFor(key.resource())) >= 0) {
+            return null;
+        }
+        CacheEntry entry = new CacheEntry(stored(loaded.value()), ticker.read() - loaded.age().toNanos());
+        cache.put(key, entry);
+        return entry;
+    }
+
+    private <V> void refreshAsync(Cache<SwapiCacheKey, CacheEntry> cache,
+                                  SwapiCacheKey key,
+                                  Supplier<CompletableFuture<AgedValue<V>>> loader) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        try {
+            loadAsync(cache, key, loader).whenComplete((value, error) -> {
+                if (error != null) {
+                    log.warn("Background refresh of {} failed: {}", key, error.getMessage());
+                }
+                refreshing.remove(key);
+            });
+        } catch (RuntimeException ex) {
+            refreshing.remove(key);
+            log.warn("Background refresh of {} failed: {}", key, ex.getMessage());
+        }
+    }
+
+    private <V> void refreshInBackground(Cache<SwapiCacheKey, CacheEntry> cache, SwapiCacheKey key, Supplier<AgedValue<V>> loader) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    load(cache, key, loader);
+                } catch (RuntimeException ex) {
+                    // The last known good entry stays in place until its hard TTL.
+                    log.warn("Background refresh of {} failed: {}", key, ex.getMessage());
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            // Refreshes are best effort: the stale value is still served when the executor is saturated.
+            refreshing.remove(key);
+        }
+    }
+
+    /** Entries expire a hard TTL after they were fetched, which is earlier than now for promoted values. */
+    private static Expiry<SwapiCacheKey, CacheEntry> hardTtl(Duration ttl) {
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(SwapiCacheKey key, CacheEntry entry, long currentTime) {
+                return Math.max(0, ttl.toNanos() - (currentTime - entry.storedAt()));
+            }
+
+            @Override
+            public long expireAfterUpdate(SwapiCacheKey key, CacheEntry entry, long currentTime, long currentDuration) {
+                return expireAfterCreate(key, entry, currentTime);
+            }
+
+            @Override
+            public long expireAfterRead(SwapiCacheKey key, CacheEntry entry, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        };
+    }
+
+    private Object stored(Object value) {
+        return properties.isCompactEntities() ? codec.compact(value) : value;
+    }
+
+    private Object value(CacheEntry entry) {
+        // Every read gets its own DTOs, so callers can no longer mutate what other requests see.
+        return codec.materialize(entry.value());
+    }
+
+    private static boolean isUpstreamFailure(RuntimeException ex) {
+        return ex instanceof TooManyRequestsException
+                || ex instanceof SwapiUnavailableException
+                || ex instanceof HttpServerErrorException
+                || ex instanceof ResourceAccessException;
+    }
+
+    private record CacheEntry(Object value, long storedAt) {
+    }
+}
@@ -0,0 +1,30 @@
+package conexa.starwarschallenge.service.cache;
+
+import conexa.starwarschallenge.enums.SwapiResource;
+
+public record SwapiCacheKey(SwapiResource resource, Kind kind, String value) {
+
+    public enum Kind {
+        ID,
+        PAGE,
+        EXPANDED_PAGE,
+        SEARCH
+    }
+
+    public static SwapiCacheKey byId(SwapiResource resource, String id) {
+        return new SwapiCacheKey(resource, Kind.ID, id);
+    }
+
+    public static SwapiCacheKey page(SwapiResource resource, int page) {
+        return new SwapiCacheKey(resource, Kind.PAGE, String.valueOf(page));
+    }
+
+    /** A list page of full entities, as read to build the entity index. */
+    public static SwapiCacheKey expandedPage(SwapiResource resource, int page) {
+        return new SwapiCacheKey(resource, Kind.EXPANDED_PAGE, String.valueOf(page));
+    }
+
+    public static SwapiCacheKey search(SwapiResource resource, String name) {
+        return new SwapiCacheKey(resource, Kind.SEARCH, name.trim().toLowerCase());
+    }
+}
@@ -0,0 +1,288 @@
+package conexa.starwarschallenge.service.cache;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import conexa.starwarschallenge.config.SwapiL2CacheProperties;
+import conexa.starwarschallenge.entity.SwapiCacheEntry;
+import conexa.starwarschallenge.repository.SwapiCacheEntryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Second-level cache shared by all replicas, stored in the application database. Reads happen
+ * inline on an L1 miss; writes are queued and flushed in batches so requests never wait on them.
+ */
+@Slf4j
+@Component
+public class SwapiL2Cache {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final SwapiL2CacheProperties properties;
+    private final SwapiCacheEntryRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final BlockingQueue<PendingWrite> pendingWrites;
+    private final ObjectMapper mapper = new ObjectMapper(new SmileFactory())
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter dropped;
+    private final Counter unserializable;
+    private final Counter failed;
+    private final Counter purged;
+
+    @Autowired
+    public SwapiL2Cache(SwapiL2CacheProperties properties,
+                        SwapiCacheEntryRepository repository,
+                        PlatformTransactionManager transactionManager,
+                        MeterRegistry meterRegistry) {
+        this(properties, repository, transactionManager, meterRegistry, Clock.systemUTC());
+    }
+
+    public SwapiL2Cache(SwapiL2CacheProperties properties,
+                        SwapiCacheEntryRepository repository,
+                        PlatformTransactionManager transactionManager,
+                        MeterRegistry meterRegistry,
+                        Clock clock) {
+        this.properties = properties;
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+        this.pendingWrites = new LinkedBlockingQueue<>(properties.getQueueCapacity());
+        this.hits = meterRegistry.counter("swapi.l2.requests", "result", "hit");
+        this.misses = meterRegistry.counter("swapi.l2.requests", "result", "miss");
+        this.dropped = meterRegistry.counter("swapi.l2.writes.dropped");
+        this.unserializable = meterRegistry.counter("swapi.l2.writes.failed", "reason", "serialization");
+        this.failed = meterRegistry.counter("swapi.l2.writes.failed", "reason", "database");
+        this.purged = meterRegistry.counter("swapi.l2.purged");
+    }
+
+    /**
+     * Returns the stored value of {@code key} with its age, or loads it, queues the write and
+     * returns it as fresh.
+     */
+    public <V> AgedValue<V> get(SwapiCacheKey key, Type type, Supplier<V> loader) {
+        String cacheKey = cacheKey(key);
+        if (!properties.isEnabled() || cacheKey.length() > MAX_KEY_LENGTH) {
+            return AgedValue.fresh(loader.get());
+        }
+        Optional<AgedValue<V>> cached = read(cacheKey, mapper.getTypeFactory().constructType(type));
+        if (cached.isPresent()) {
+            hits.increment();
+            return cached.get();
+        }
+        misses.increment();
+        return AgedValue.fresh(load(key, loader));
+    }
+
+    /**
+     * Non-blocking counterpart of {@link #get}. The database read is blocking JDBC, so it runs on
+     * {@code readExecutor} rather than on the thread that completes the caller's future.
+     */
+    public <V> CompletableFuture<AgedValue<V>> getAsync(SwapiCacheKey key, Type type, Supplier<CompletableFuture<V>> loader, Executor readExecutor) {
+        String cacheKey = cacheKey(key);
+        if (!properties.isEnabled() || cacheKey.length() > MAX_KEY_LENGTH) {
+            return loader.get().thenApply(AgedValue::fresh);
+        }
+        JavaType javaType = mapper.getTypeFactory().constructType(type);
+        return CompletableFuture.supplyAsync(() -> this.<V>read(cacheKey, javaType), readExecutor)
+                .thenCompose(cached -> {
+                    if (cached.isPresent()) {
+                        hits.increment();
+                        return CompletableFuture.completedFuture(cached.get());
+                    }
+                    misses.increment();
+                    return loadAsync(key, loader).thenApply(AgedValue::fresh);
+                });
+    }
+
+    /** Loads {@code key} without reading the stored value, e.g. to revalidate it, and queues the write. */
+    public <V> V load(SwapiCacheKey key, Supplier<V> loader) {
+        V value = loader.get();
+        put(key, value);
+        return value;
+    }
+
+    public <V> CompletableFuture<V> loadAsync(SwapiCacheKey key, Supplier<CompletableFuture<V>> loader) {
+        return loader.get().thenApply(value -> {
+            put(key, value);
+            return value;
+        });
+    }
+
+    public void put(SwapiCacheKey key, Object value) {
+        String cacheKey = cacheKey(key);
+        if (properties.isEnabled() && cacheKey.length() <= MAX_KEY_LENGTH) {
+            enqueue(key, cacheKey, value);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${swapi.l2.flush-interval:PT1S}")
+    public void flush() {
+        List<PendingWrite> drained = new ArrayList<>();
+        while (pendingWrites.drainTo(drained, properties.getBatchSize()) > 0) {
+            write(drained);
+            drained.clear();
+        }
+    }
+
+    /**
+     * Deletes entries older than the max age, which {@link #get} would ignore anyway. Search keys
+     * come from user input, so without this the table grows with every distinct search. Rows go in
+     * batches of their own transaction to keep locks short; replicas purging at once just find
+     * fewer rows.
+     */
+    @Scheduled(fixedDelayString = "${swapi.l2.purge-interval:PT10M}")
+    public void purge() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Instant cutoff = clock.instant().minus(properties.getMaxAge());
+        PageRequest batch = PageRequest.ofSize(properties.getPurgeBatchSize());
+        try {
+            List<String> expired;
+            do {
+                expired = repository.findKeysFetchedBefore(cutoff, batch);
+                if (!expired.isEmpty()) {
+                    List<String> keys = expired;
+                    transactionTemplate.executeWithoutResult(status -> repository.deleteAllByIdInBatch(keys));
+                    purged.increment(keys.size());
+                }
+            } while (expired.size() == batch.getPageSize());
+        } catch (DataAccessException ex) {
+            log.warn("Could not purge expired L2 cache entries: {}", ex.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void enqueue(SwapiCacheKey key, String cacheKey, Object value) {
+        if (value != null && !pendingWrites.offer(new PendingWrite(key, cacheKey, value, clock.instant()))) {
+            // The L2 is an optimisation; losing a write only costs another upstream fetch later.
+            dropped.increment();
+        }
+    }
+
+    int pendingWriteCount() {
+        return pendingWrites.size();
+    }
+
+    private <V> Optional<AgedValue<V>> read(String cacheKey, JavaType type) {
+        try {
+            Optional<SwapiCacheEntry> entry = repository.findById(cacheKey);
+            if (entry.isEmpty()) {
+                return Optional.empty();
+            }
+            Duration age = Duration.between(entry.get().getFetchedAt(), clock.instant());
+            if (age.compareTo(properties.getMaxAge()) > 0) {
+                return Optional.empty();
+            }
+            return Optional.of(new AgedValue<>(mapper.readValue(entry.get().getPayload(), type), age.isNegative() ? Duration.ZERO : age));
+        } catch (DataAccessException | IOException ex) {
+            log.warn("Could not read {} from the L2 cache: {}", cacheKey, ex.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Writes the batch in one transaction. If that fails, typically because another replica
+     * inserted one of the keys first, each entry is retried on its own so the rest of the batch is
+     * not lost and the conflicting insert becomes an update.
+     */
+    private void write(List<PendingWrite> writes) {
+        Map<String, PendingWrite> latest = new LinkedHashMap<>();
+        writes.forEach(write -> latest.put(write.cacheKey(), write));
+        List<SerializedWrite> serialized = new ArrayList<>();
+        for (PendingWrite write : latest.values()) {
+            serialize(write).ifPresent(payload -> serialized.add(new SerializedWrite(write, payload)));
+        }
+        if (!serialized.isEmpty() && !upsert(serialized) && serialized.size() > 1) {
+            serialized.forEach(write -> upsert(List.of(write)));
+        }
+    }
+
+    private boolean upsert(List<SerializedWrite> writes) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<String, SwapiCacheEntry> existing = repository.findAllById(writes.stream().map(write -> write.pending().cacheKey()).toList())
+                        .stream()
+                        .collect(Collectors.toMap(SwapiCacheEntry::getCacheKey, Function.identity()));
+                List<SwapiCacheEntry> inserts = new ArrayList<>();
+                for (SerializedWrite write : writes) {
+                    PendingWrite pending = write.pending();
+                    SwapiCacheEntry entry = existing.get(pending.cacheKey());
+                    if (entry == null) {
+                        inserts.add(new SwapiCacheEntry(pending.cacheKey(), pending.key().resource(), write.payload(), pending.fetchedAt()));
+                    } else {
+                        // Managed entity: the update is flushed with the inserts.
+                        entry.setPayload(write.payload());
+                        entry.setFetchedAt(pending.fetchedAt());
+                    }
+                }
+                repository.saveAllAndFlush(inserts);
+            });
+            return true;
+        } catch (DataAccessException | TransactionException ex) {
+            log.warn("Could not write {} entries to the L2 cache: {}", writes.size(), ex.getMessage());
+            if (writes.size() == 1) {
+                failed.increment();
+            }
+            return false;
+        }
+    }
+
+    private Optional<byte[]> serialize(PendingWrite write) {
+        try {
+            return Optional.of(mapper.writeValueAsBytes(write.value()));
+        } catch (IOException ex) {
+            // Only costs another upstream fetch later, like a dropped write.
+            log.warn("Could not serialize {} for the L2 cache: {}", write.cacheKey(), ex.getMessage());
+            unserializable.increment();
+            return Optional.empty();
+        }
+    }
+
+    private static String cacheKey(SwapiCacheKey key) {
+        return key.resource().getResourceName() + ":" + key.kind() + ":" + key.value();
+    }
+
+    private record PendingWrite(SwapiCacheKey key, String cacheKey, Object value, Instant fetchedAt) {
+    }
+
+    private record SerializedWrite(PendingWrite pending, byte[] payload) {
+    }
+}
@@ -1,9 +1,14 @@
 package conexa.starwarschallenge.service.impl;
 
+import conexa.starwarschallenge.dto.SwapiUpstreamStatusDto;
 import conexa.starwarschallenge.dto.UpdateUserRoleRequest;
 import conexa.starwarschallenge.dto.UserRoleDto;
+import conexa.starwarschallenge.entity.User;
 import conexa.starwarschallenge.repository.UserRepository;
+import conexa.starwarschallenge.security.CachingUserDetailsService;
+import conexa.starwarschallenge.security.TokenVersions;
 import conexa.starwarschallenge.service.AdminService;
+import conexa.starwarschallenge.service.resilience.SwapiUpstreamGuard;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -16,6 +21,9 @@ import java.util.stream.Collectors;
 public class AdminServiceImpl implements AdminService {
 
     private final UserRepository userRepository;
+    private final SwapiUpstreamGuard swapiUpstreamGuard;
+    private final TokenVersions tokenVersions;
+    private final CachingUserDetailsService userDetailsService;
 
     @Override
     public List<UserRoleDto> getUsers() {
@@ -26,10 +34,32 @@ public class AdminServiceImpl implements AdminService {
 
     @Override
     public UserRoleDto updateUserRole(Integer userId, UpdateUserRoleRequest request) {
-        var user = userRepository.findById(userId)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + userId));
+        var user = findUser(userId);
         user.setRole(request.getRole());
-        userRepository.save(user);
+        // Tokens carry the role, so the ones issued before the change must stop working.
+        bumpTokenVersion(user);
         return new UserRoleDto(user.getId(), user.getUsername(), user.getRole().name());
     }
+
+    @Override
+    public void revokeTokens(Integer userId) {
+        bumpTokenVersion(findUser(userId));
+    }
+
+    @Override
+    public SwapiUpstreamStatusDto getSwapiStatus() {
+        return swapiUpstreamGuard.status();
+    }
+
+    private User findUser(Integer userId) {
+        return userRepository.findById(userId)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + userId));
+    }
+
+    private void bumpTokenVersion(User user) {
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        userRepository.save(user);
+        tokenVersions.bumped(user.getUsername(), user.getTokenVersion());
+        userDetailsService.evict(user.getUsername());
+    }
 }
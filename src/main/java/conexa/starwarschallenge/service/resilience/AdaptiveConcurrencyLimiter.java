@@ -0,0 +1,58 @@
+package conexa.starwarschallenge.service.resilience;
+
+import conexa.starwarschallenge.config.SwapiConcurrencyProperties;
+
+/**
+ * AIMD limit on in-flight upstream calls: grows by one per window of fast successes and
+ * shrinks multiplicatively on slow responses or failures.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final SwapiConcurrencyProperties properties;
+    private double limit;
+    private int inFlight;
+
+    public AdaptiveConcurrencyLimiter(SwapiConcurrencyProperties properties) {
+        this.properties = properties;
+        this.limit = properties.getInitialLimit();
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    public synchronized void onSuccess(long latencyNanos) {
+        int observedInFlight = inFlight--;
+        if (latencyNanos > properties.getLatencyThreshold().toNanos()) {
+            decrease();
+        } else if (observedInFlight * 2 >= (int) limit) {
+            // Only grow when the current limit is actually being used.
+            limit = Math.min(properties.getMaxLimit(), limit + 1 / limit);
+        }
+    }
+
+    public synchronized void onFailure() {
+        inFlight--;
+        decrease();
+    }
+
+    public synchronized void onIgnored() {
+        inFlight--;
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    private void decrease() {
+        limit = Math.max(properties.getMinLimit(), limit * properties.getBackoffRatio());
+    }
+}
@@ -0,0 +1,43 @@
+package conexa.starwarschallenge.service.resilience;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size ring of the most recent latencies, in nanoseconds.
+ */
+public class LatencyWindow {
+
+    private final long[] samples;
+    private int next;
+    private int count;
+
+    public LatencyWindow(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Latency window needs room for at least one sample");
+        }
+        this.samples = new long[size];
+    }
+
+    public synchronized void record(long latencyNanos) {
+        samples[next] = latencyNanos;
+        next = (next + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+    }
+
+    /**
+     * Returns the given percentile (0..1) of the recorded latencies, or -1 while fewer than
+     * {@code minSamples} have been recorded.
+     */
+    public long percentile(double percentile, int minSamples) {
+        long[] sorted;
+        synchronized (this) {
+            if (count == 0 || count < minSamples) {
+                return -1;
+            }
+            sorted = Arrays.copyOf(samples, count);
+        }
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+}
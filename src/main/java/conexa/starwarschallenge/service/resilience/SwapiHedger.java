@@ -0,0 +1,178 @@
+package conexa.starwarschallenge.service.resilience;
+
+import conexa.starwarschallenge.config.SwapiHedgingProperties;
+import conexa.starwarschallenge.enums.SwapiResource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Sends a second, hedged SWAPI request when the first one has not answered within a percentile
+ * of recent latency. The first successful response wins and the other attempt is cancelled, which
+ * aborts its exchange on the async client. Blocking calls are never hedged: a RestTemplate read
+ * cannot be aborted, so the losing attempt would keep its connection until SWAPI answers.
+ * Hedges take a permit from the outbound rate budget without waiting, so they are skipped rather
+ * than delayed when the budget is spent. Latency is always tracked, so {@code swapi.upstream.latency}
+ * shows the tail with and without hedging.
+ */
+@Slf4j
+@Component
+public class SwapiHedger {
+
+    private final SwapiHedgingProperties properties;
+    private final SwapiRateLimiter rateLimiter;
+    private final Map<SwapiResource, LatencyWindow> windows = new EnumMap<>(SwapiResource.class);
+    private final Map<SwapiResource, Timer> latencies = new EnumMap<>(SwapiResource.class);
+    private final Map<SwapiResource, Counter> hedgesSent = new EnumMap<>(SwapiResource.class);
+    private final Map<SwapiResource, Counter> hedgesWon = new EnumMap<>(SwapiResource.class);
+    private final Map<SwapiResource, Counter> hedgesSkipped = new EnumMap<>(SwapiResource.class);
+    private final Executor hedgeExecutor;
+
+    public SwapiHedger(SwapiHedgingProperties properties,
+                       SwapiRateLimiter rateLimiter,
+                       MeterRegistry meterRegistry,
+                       @Qualifier("swapiHedgeExecutor") Executor hedgeExecutor) {
+        this.properties = properties;
+        this.rateLimiter = rateLimiter;
+        this.hedgeExecutor = hedgeExecutor;
+        for (SwapiResource resource : SwapiResource.values()) {
+            String name = resource.getResourceName();
+            LatencyWindow window = new LatencyWindow(properties.getSampleSize());
+            windows.put(resource, window);
+            latencies.put(resource, Timer.builder("swapi.upstream.latency")
+                    .description("Latency of SWAPI calls as seen by callers, including any hedged attempt")
+                    .tag("resource", name)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry));
+            hedgesSent.put(resource, Counter.builder("swapi.hedge.sent")
+                    .description("Hedged SWAPI requests sent after the primary exceeded the hedge delay")
+                    .tag("resource", name)
+                    .register(meterRegistry));
+            hedgesWon.put(resource, Counter.builder("swapi.hedge.won")
+                    .description("Hedged SWAPI requests that answered before the primary")
+                    .tag("resource", name)
+                    .register(meterRegistry));
+            hedgesSkipped.put(resource, Counter.builder("swapi.hedge.skipped")
+                    .description("Hedges not sent because the outbound rate budget was spent")
+                    .tag("resource", name)
+                    .register(meterRegistry));
+            Gauge.builder("swapi.hedge.delay", this, hedger -> hedger.hedgeDelayNanos(resource) / 1_000_000d)
+                    .description("Current hedge delay in milliseconds, -1 while too few samples are known")
+                    .tag("resource", name)
+                    .register(meterRegistry);
+        }
+    }
+
+    /** Runs a blocking call unhedged, only feeding its latency into the window of {@code resource}. */
+    public <R> R call(SwapiResource resource, Supplier<R> attempt) {
+        long start = System.nanoTime();
+        R result = attempt.get();
+        onSuccess(resource, start);
+        return result;
+    }
+
+    public <R> CompletableFuture<R> callAsync(SwapiResource resource, Supplier<CompletableFuture<R>> attempt) {
+        long start = System.nanoTime();
+        long delay = hedgeDelayNanos(resource);
+        CompletableFuture<R> primary = attempt.get();
+        if (delay < 0) {
+            return primary.whenComplete((value, error) -> {
+                if (error == null) {
+                    onSuccess(resource, start);
+                }
+            });
+        }
+
+        CompletableFuture<R> result = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<R>> hedge = new AtomicReference<>();
+        primary.whenComplete((value, error) -> {
+            if (error == null) {
+                if (result.complete(value)) {
+                    onSuccess(resource, start);
+                }
+            } else if (hedge.get() == null || hedge.get().isCompletedExceptionally()) {
+                result.completeExceptionally(error);
+            }
+        });
+
+        CompletableFuture<Void> timer = CompletableFuture.runAsync(() -> {
+            if (primary.isDone() || result.isDone()) {
+                return;
+            }
+            if (!rateLimiter.tryAcquire(resource)) {
+                hedgesSkipped.get(resource).increment();
+                return;
+            }
+            if (primary.isDone() || result.isDone()) {
+                // The primary answered while the permit was taken; it goes back unused.
+                rateLimiter.release(resource);
+                return;
+            }
+            hedgesSent.get(resource).increment();
+            CompletableFuture<R> second;
+            try {
+                second = attempt.get();
+            } catch (RuntimeException ex) {
+                log.debug("Could not send hedged request for {}: {}", resource.getResourceName(), ex.getMessage());
+                return;
+            }
+            hedge.set(second);
+            if (result.isDone()) {
+                second.cancel(true);
+                return;
+            }
+            second.whenComplete((value, error) -> {
+                if (error == null) {
+                    if (result.complete(value)) {
+                        hedgesWon.get(resource).increment();
+                        onSuccess(resource, start);
+                    }
+                } else if (primary.isCompletedExceptionally()) {
+                    result.completeExceptionally(error);
+                }
+            });
+        }, CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS, hedgeExecutor));
+
+        result.whenComplete((value, error) -> {
+            // Whichever attempt lost is no longer needed.
+            timer.cancel(false);
+            primary.cancel(true);
+            CompletableFuture<R> second = hedge.get();
+            if (second != null) {
+                second.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    long hedgeDelayNanos(SwapiResource resource) {
+        if (!properties.isEnabled()) {
+            return -1;
+        }
+        long percentile = windows.get(resource).percentile(properties.getPercentile(), properties.getMinSamples());
+        if (percentile < 0) {
+            return -1;
+        }
+        return Math.max(properties.getMinDelay().toNanos(), Math.min(properties.getMaxDelay().toNanos(), percentile));
+    }
+
+    private void onSuccess(SwapiResource resource, long start) {
+        // When a hedge wins this is the primary's elapsed time, a lower bound of its real latency,
+        // so winning hedges do not drag the percentile and with it the hedge delay down.
+        long latency = System.nanoTime() - start;
+        windows.get(resource).record(latency);
+        latencies.get(resource).record(latency, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,121 @@
+package conexa.starwarschallenge.service.resilience;
+
+import conexa.starwarschallenge.config.SwapiRateLimitProperties;
+import conexa.starwarschallenge.enums.SwapiResource;
+import conexa.starwarschallenge.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class SwapiRateLimiter {
+
+    private final boolean enabled;
+    private final long maxWaitNanos;
+    private final TokenBucket globalBucket;
+    private final Map<SwapiResource, TokenBucket> resourceBuckets = new EnumMap<>(SwapiResource.class);
+    private final Map<SwapiResource, Timer> waitTimers = new EnumMap<>(SwapiResource.class);
+    private final Map<SwapiResource, Counter> rejections = new EnumMap<>(SwapiResource.class);
+
+    public SwapiRateLimiter(SwapiRateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.maxWaitNanos = properties.getMaxWait().toNanos();
+        this.globalBucket = new TokenBucket(properties.getPermitsPerSecond(), properties.getBurst(), System::nanoTime);
+        properties.getResources().forEach((resource, budget) ->
+                resourceBuckets.put(resource, new TokenBucket(
+                        budget.getPermitsPerSecond() != null ? budget.getPermitsPerSecond() : properties.getPermitsPerSecond(),
+                        budget.getBurst() != null ? budget.getBurst() : properties.getBurst(),
+                        System::nanoTime)));
+
+        for (SwapiResource resource : SwapiResource.values()) {
+            waitTimers.put(resource, Timer.builder("swapi.ratelimit.wait")
+                    .description("Time spent waiting for an outbound SWAPI permit")
+                    .tag("resource", resource.getResourceName())
+                    .register(meterRegistry));
+            rejections.put(resource, Counter.builder("swapi.ratelimit.rejected")
+                    .description("Outbound SWAPI calls rejected because no permit was available in time")
+                    .tag("resource", resource.getResourceName())
+                    .register(meterRegistry));
+        }
+    }
+
+    public void acquire(SwapiResource resource) {
+        long waitNanos = reserve(resource);
+        if (waitNanos > 0) {
+            sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Takes a permit without waiting for it and returns how long the caller must delay its call,
+     * in nanoseconds. Lets non-blocking callers schedule the call instead of sleeping.
+     */
+    public long reserve(SwapiResource resource) {
+        if (!enabled) {
+            return 0;
+        }
+        long waitNanos = reserve(resource, maxWaitNanos);
+        if (waitNanos < 0) {
+            rejections.get(resource).increment();
+            throw new TooManyRequestsException("Outbound request budget to SWAPI for " + resource.getResourceName() + " is exhausted. Please try again later.");
+        }
+        waitTimers.get(resource).record(waitNanos, TimeUnit.NANOSECONDS);
+        return waitNanos;
+    }
+
+    public boolean tryAcquire(SwapiResource resource) {
+        if (!enabled) {
+            return true;
+        }
+        boolean acquired = reserve(resource, 0) == 0;
+        if (!acquired) {
+            rejections.get(resource).increment();
+        }
+        return acquired;
+    }
+
+    /** Gives back a permit that ended up unused, e.g. a hedge not sent or a call turned away by the guard. */
+    public void release(SwapiResource resource) {
+        if (!enabled) {
+            return;
+        }
+        TokenBucket resourceBucket = resourceBuckets.get(resource);
+        if (resourceBucket != null) {
+            resourceBucket.refund();
+        }
+        globalBucket.refund();
+    }
+
+    private long reserve(SwapiResource resource, long maxWait) {
+        TokenBucket resourceBucket = resourceBuckets.get(resource);
+        long resourceWait = 0;
+        if (resourceBucket != null) {
+            resourceWait = resourceBucket.reserve(maxWait);
+            if (resourceWait < 0) {
+                return -1;
+            }
+        }
+        long globalWait = globalBucket.reserve(maxWait);
+        if (globalWait < 0) {
+            if (resourceBucket != null) {
+                resourceBucket.refund();
+            }
+            return -1;
+        }
+        return Math.max(resourceWait, globalWait);
+    }
+
+    private static void sleep(long nanos) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TooManyRequestsException("Interrupted while waiting for an outbound SWAPI permit.");
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package conexa.starwarschallenge.service.resilience;
+
+import conexa.starwarschallenge.config.SwapiCircuitBreakerProperties;
+import conexa.starwarschallenge.config.SwapiConcurrencyProperties;
+import conexa.starwarschallenge.dto.SwapiUpstreamStatusDto;
+import conexa.starwarschallenge.enums.SwapiResource;
+import conexa.starwarschallenge.exception.SwapiUnavailableException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+@Component
+public class SwapiUpstreamGuard {
+
+    private final SwapiCircuitBreakerProperties breakerProperties;
+    private final SwapiConcurrencyProperties concurrencyProperties;
+    private final Map<SwapiResource, CircuitBreaker> breakers = new EnumMap<>(SwapiResource.class);
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    public SwapiUpstreamGuard(SwapiCircuitBreakerProperties breakerProperties,
+                              SwapiConcurrencyProperties concurrencyProperties,
+                              MeterRegistry meterRegistry) {
+        this.breakerProperties = breakerProperties;
+        this.concurrencyProperties = concurrencyProperties;
+        this.limiter = new AdaptiveConcurrencyLimiter(concurrencyProperties);
+        for (SwapiResource resource : SwapiResource.values()) {
+            CircuitBreaker breaker = new CircuitBreaker(breakerProperties, System::nanoTime);
+            breakers.put(resource, breaker);
+            Gauge.builder("swapi.circuitbreaker.state", breaker, b -> b.getState().ordinal())
+                    .description("0 = closed, 1 = open, 2 = half open")
+                    .tag("resource", resource.getResourceName())
+                    .register(meterRegistry);
+        }
+        Gauge.builder("swapi.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit).register(meterRegistry);
+        Gauge.builder("swapi.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight).register(meterRegistry);
+    }
+
+    public <R> R execute(SwapiResource resource, Supplier<R> call) {
+        CircuitBreaker breaker = acquire(resource);
+        long start = System.nanoTime();
+        try {
+            R result = call.get();
+            onSuccess(breaker, System.nanoTime() - start);
+            return result;
+        } catch (RuntimeException ex) {
+            onError(breaker, ex, start);
+            throw ex;
+        }
+    }
+
+    /**
+     * Same admission and accounting as {@link #execute}, but the outcome is recorded when the
+     * returned future completes, so the caller's thread is not held for the round trip.
+     */
+    public <R> CompletableFuture<R> executeAsync(SwapiResource resource, Supplier<CompletableFuture<R>> call) {
+        CircuitBreaker breaker;
+        try {
+            breaker = acquire(resource);
+        } catch (SwapiUnavailableException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+        long start = System.nanoTime();
+        CompletableFuture<R> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException ex) {
+            onError(breaker, ex, start);
+            return CompletableFuture.failedFuture(ex);
+        }
+        return result.whenComplete((value, error) -> {
+            if (error == null) {
+                onSuccess(breaker, System.nanoTime() - start);
+            } else {
+                onError(breaker, error instanceof CompletionException && error.getCause() != null ? error.getCause() : error, start);
+            }
+        });
+    }
+
+    private CircuitBreaker acquire(SwapiResource resource) {
+        CircuitBreaker breaker = breakers.get(resource);
+        if (breakerProperties.isEnabled() && !breaker.tryAcquirePermission()) {
+            throw new SwapiUnavailableException("SWAPI circuit for " + resource.getResourceName() + " is open. Please try again later.");
+        }
+        if (concurrencyProperties.isEnabled() && !limiter.tryAcquire()) {
+            if (breakerProperties.isEnabled()) {
+                breaker.onIgnored();
+            }
+            throw new SwapiUnavailableException("Too many concurrent requests to SWAPI. Please try again later.");
+        }
+        return breaker;
+    }
+
+    private void onError(CircuitBreaker breaker, Throwable ex, long start) {
+        if (isUpstreamFailure(ex)) {
+            onFailure(breaker);
+        } else if (ex instanceof HttpClientErrorException) {
+            onSuccess(breaker, System.nanoTime() - start);
+        } else {
+            onIgnored(breaker);
+        }
+    }
+
+    public SwapiUpstreamStatusDto status() {
+        List<SwapiUpstreamStatusDto.CircuitStatus> circuits = breakers.entrySet().stream()
+                .map(entry -> new SwapiUpstreamStatusDto.CircuitStatus(
+                        entry.getKey().getResourceName(),
+                        entry.getValue().getState().name(),
+                        entry.getValue().getFailureRate()))
+                .toList();
+        return new SwapiUpstreamStatusDto(circuits, limiter.getLimit(), limiter.getInFlight());
+    }
+
+    private void onSuccess(CircuitBreaker breaker, long latencyNanos) {
+        if (breakerProperties.isEnabled()) {
+            breaker.onSuccess();
+        }
+        if (concurrencyProperties.isEnabled()) {
+            limiter.onSuccess(latencyNanos);
+        }
+    }
+
+    private void onFailure(CircuitBreaker breaker) {
+        if (breakerProperties.isEnabled()) {
+            breaker.onFailure();
+        }
+        if (concurrencyProperties.isEnabled()) {
+            limiter.onFailure();
+        }
+    }
+
+    private void onIgnored(CircuitBreaker breaker) {
+        if (breakerProperties.isEnabled()) {
+            breaker.onIgnored();
+        }
+        if (concurrencyProperties.isEnabled()) {
+            limiter.onIgnored();
+        }
+    }
+
+    private static boolean isUpstreamFailure(Throwable ex) {
+        return ex instanceof HttpServerErrorException
+                || ex instanceof ResourceAccessException
+                || (ex instanceof HttpClientErrorException clientError
+                    && clientError.getStatusCode() == HttpStatus.TOO_MANY_REQUESTS);
+    }
+}
@@ -0,0 +1,25 @@
+package conexa.starwarschallenge.service.store;
+
+/**
+ * Cached form of a SWAPI person. {@code long} fields are {@link CompactValues} encodings and
+ * {@code int} fields are {@link StringDictionary} codes; only free text is kept as a string.
+ */
+public record CompactPerson(
+        int message,
+        int description,
+        String id,
+        long uid,
+        int version,
+        String name,
+        long height,
+        long mass,
+        int hairColor,
+        int skinColor,
+        int eyeColor,
+        int birthYear,
+        int gender,
+        int homeWorld,
+        long created,
+        long edited,
+        int url) {
+}
@@ -0,0 +1,28 @@
+package conexa.starwarschallenge.service.store;
+
+/**
+ * Cached form of a SWAPI starship, encoded like {@link CompactPerson}.
+ */
+public record CompactStarship(
+        int message,
+        int description,
+        String id,
+        long uid,
+        int version,
+        String name,
+        String model,
+        int manufacturer,
+        long costInCredits,
+        long length,
+        long maxAtmospheringSpeed,
+        long crew,
+        long passengers,
+        long cargoCapacity,
+        int consumables,
+        long hyperdriveRating,
+        long mglt,
+        int starshipClass,
+        long created,
+        long edited,
+        int url) {
+}
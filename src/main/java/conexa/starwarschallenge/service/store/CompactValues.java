@@ -0,0 +1,153 @@
+package conexa.starwarschallenge.service.store;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Encodes SWAPI's string-typed numbers and timestamps into a single {@code long}.
+ *
+ * <p>Non-negative values hold the parsed value together with enough formatting to reproduce the
+ * original text exactly. Negative values are sentinels for {@code null}, "unknown" and "n/a", or a
+ * {@link StringDictionary} code for text that is not a plain number, e.g. "30-165" or "1000km".
+ *
+ * <p>Numbers keep their unscaled digits in the high bits, followed by a thousands-separator flag
+ * and the number of decimals (0-3): {@code "1,358.5"} is {@code 13585 << 3 | 1 << 2 | 1}.
+ * Timestamps keep epoch microseconds followed by the number of fraction digits (0, 3 or 6).
+ */
+public final class CompactValues {
+
+    public static final long NULL = -1;
+    public static final long UNKNOWN = -2;
+    public static final long NOT_APPLICABLE = -3;
+    private static final long DICTIONARY_BASE = -16;
+
+    private static final Pattern NUMBER = Pattern.compile("(0|[1-9]\\d{0,2}(?:,\\d{3})+|[1-9]\\d*)(?:\\.(\\d{1,3}))?");
+    private static final long[] POWERS = {1, 10, 100, 1000};
+    private static final long MAX_UNSCALED = Long.MAX_VALUE >> 3;
+    private static final long MAX_EPOCH_MICROS = Long.MAX_VALUE >> 2;
+
+    private CompactValues() {
+    }
+
+    public static long encodeNumber(String raw, StringDictionary dictionary) {
+        long sentinel = sentinel(raw);
+        if (sentinel != 0) {
+            return sentinel;
+        }
+        Matcher matcher = NUMBER.matcher(raw);
+        if (matcher.matches() && matcher.group(1).length() + (matcher.group(2) == null ? 0 : 3) <= 18) {
+            boolean grouped = matcher.group(1).indexOf(',') >= 0;
+            String fraction = matcher.group(2) == null ? "" : matcher.group(2);
+            long unscaled = Long.parseLong(matcher.group(1).replace(",", "") + fraction);
+            if (unscaled <= MAX_UNSCALED) {
+                return unscaled << 3 | (grouped ? 1 << 2 : 0) | fraction.length();
+            }
+        }
+        return dictionaryValue(raw, dictionary);
+    }
+
+    public static String decodeNumber(long encoded, StringDictionary dictionary) {
+        if (encoded < 0) {
+            return decodeSentinel(encoded, dictionary);
+        }
+        long unscaled = encoded >>> 3;
+        int scale = (int) (encoded & 3);
+        long whole = unscaled / POWERS[scale];
+        String integer = (encoded & 4) != 0 ? String.format(Locale.ROOT, "%,d", whole) : Long.toString(whole);
+        if (scale == 0) {
+            return integer;
+        }
+        String fraction = Long.toString(unscaled % POWERS[scale]);
+        return integer + "." + "0".repeat(scale - fraction.length()) + fraction;
+    }
+
+    /**
+     * Returns the numeric value of an encoded number, or {@link Double#NaN} when SWAPI did not
+     * report a plain number.
+     */
+    public static double numericValue(long encoded) {
+        if (encoded < 0) {
+            return Double.NaN;
+        }
+        return (double) (encoded >>> 3) / POWERS[(int) (encoded & 3)];
+    }
+
+    public static boolean isNumber(long encoded) {
+        return encoded >= 0;
+    }
+
+    public static long encodeTimestamp(String raw, StringDictionary dictionary) {
+        long sentinel = sentinel(raw);
+        if (sentinel != 0) {
+            return sentinel;
+        }
+        try {
+            Instant instant = Instant.parse(raw);
+            long micros = Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000L), instant.getNano() / 1_000);
+            for (int digits = 0; digits <= 2; digits++) {
+                long encoded = micros << 2 | digits;
+                if (micros >= 0 && micros <= MAX_EPOCH_MICROS && raw.equals(decodeTimestamp(encoded, dictionary))) {
+                    return encoded;
+                }
+            }
+        } catch (DateTimeParseException | ArithmeticException ex) {
+            // Falls through to the dictionary, which keeps the text as-is.
+        }
+        return dictionaryValue(raw, dictionary);
+    }
+
+    public static String decodeTimestamp(long encoded, StringDictionary dictionary) {
+        if (encoded < 0) {
+            return decodeSentinel(encoded, dictionary);
+        }
+        long micros = encoded >>> 2;
+        int digits = (int) (encoded & 3) * 3;
+        LocalDateTime time = LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), 0, ZoneOffset.UTC);
+        StringBuilder text = new StringBuilder(27).append(time.toLocalDate()).append('T');
+        appendTwoDigits(text, time.getHour()).append(':');
+        appendTwoDigits(text, time.getMinute()).append(':');
+        appendTwoDigits(text, time.getSecond());
+        if (digits > 0) {
+            String fraction = String.format(Locale.ROOT, "%06d", Math.floorMod(micros, 1_000_000L));
+            text.append('.').append(fraction, 0, digits);
+        }
+        return text.append('Z').toString();
+    }
+
+    private static long sentinel(String raw) {
+        if (raw == null) {
+            return NULL;
+        }
+        return switch (raw) {
+            case "unknown" -> UNKNOWN;
+            case "n/a" -> NOT_APPLICABLE;
+            default -> 0;
+        };
+    }
+
+    private static String decodeSentinel(long encoded, StringDictionary dictionary) {
+        if (encoded == NULL) {
+            return null;
+        }
+        if (encoded == UNKNOWN) {
+            return "unknown";
+        }
+        if (encoded == NOT_APPLICABLE) {
+            return "n/a";
+        }
+        return dictionary.decode((int) (DICTIONARY_BASE - encoded));
+    }
+
+    private static long dictionaryValue(String raw, StringDictionary dictionary) {
+        return DICTIONARY_BASE - dictionary.encode(raw);
+    }
+
+    private static StringBuilder appendTwoDigits(StringBuilder text, int value) {
+        return text.append(value < 10 ? "0" : "").append(value);
+    }
+}
@@ -0,0 +1,26 @@
+package conexa.starwarschallenge.service.store;
+
+/**
+ * Cached form of a SWAPI vehicle, encoded like {@link CompactPerson}.
+ */
+public record CompactVehicle(
+        int message,
+        int description,
+        String id,
+        long uid,
+        int version,
+        String name,
+        String model,
+        int manufacturer,
+        long costInCredits,
+        long length,
+        long maxAtmospheringSpeed,
+        long crew,
+        long passengers,
+        long cargoCapacity,
+        int consumables,
+        int vehicleClass,
+        long created,
+        long edited,
+        int url) {
+}
@@ -0,0 +1,147 @@
+package conexa.starwarschallenge.service.store;
+
+import conexa.starwarschallenge.dto.ResourceStatsDto;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Running aggregates over the entities of one resource: counts per category value and, for each
+ * numeric field, the count, sum and a sorted multiset of values for min, max, average and
+ * percentiles. Entities are applied as upserts and removals keyed by uid, so a refresh only
+ * touches the entities that changed, and the summary is kept until the next change.
+ */
+public final class EntityAggregates {
+
+    private static final String UNKNOWN = "unknown";
+
+    private final String resource;
+    private final Map<String, Row> rows = new HashMap<>();
+    private final Map<String, Map<String, Long>> counts = new LinkedHashMap<>();
+    private final Map<String, Distribution> distributions = new LinkedHashMap<>();
+    private ResourceStatsDto summary;
+
+    /** Category values and parsed numbers of one entity. Numbers it does not have are left out. */
+    public record Row(Map<String, String> categories, Map<String, Double> numbers) {
+    }
+
+    public EntityAggregates(String resource, List<String> categoryFields, List<String> numericFields) {
+        this.resource = resource;
+        categoryFields.forEach(field -> counts.put(field, new TreeMap<>()));
+        numericFields.forEach(field -> distributions.put(field, new Distribution()));
+    }
+
+    /**
+     * Brings the aggregates in line with {@code latest}: entities that are gone are removed and the
+     * others upserted. Returns how many entities were added, changed or removed.
+     */
+    public synchronized int replaceAll(Map<String, Row> latest) {
+        int changed = 0;
+        for (String uid : List.copyOf(rows.keySet())) {
+            if (!latest.containsKey(uid) && remove(uid)) {
+                changed++;
+            }
+        }
+        for (Map.Entry<String, Row> entry : latest.entrySet()) {
+            if (upsert(entry.getKey(), entry.getValue())) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    public synchronized boolean upsert(String uid, Row row) {
+        Row previous = rows.put(uid, row);
+        if (row.equals(previous)) {
+            return false;
+        }
+        if (previous != null) {
+            apply(previous, -1);
+        }
+        apply(row, 1);
+        summary = null;
+        return true;
+    }
+
+    public synchronized boolean remove(String uid) {
+        Row previous = rows.remove(uid);
+        if (previous == null) {
+            return false;
+        }
+        apply(previous, -1);
+        summary = null;
+        return true;
+    }
+
+    public synchronized int size() {
+        return rows.size();
+    }
+
+    public synchronized ResourceStatsDto summary() {
+        if (summary == null) {
+            Map<String, Map<String, Long>> countsCopy = new LinkedHashMap<>();
+            counts.forEach((field, byValue) -> countsCopy.put(field, Collections.unmodifiableMap(new TreeMap<>(byValue))));
+            Map<String, ResourceStatsDto.FieldStats> fields = new LinkedHashMap<>();
+            distributions.forEach((field, distribution) -> fields.put(field, distribution.stats()));
+            summary = new ResourceStatsDto(resource, rows.size(),
+                    Collections.unmodifiableMap(countsCopy), Collections.unmodifiableMap(fields));
+        }
+        return summary;
+    }
+
+    private void apply(Row row, int sign) {
+        counts.forEach((field, byValue) -> {
+            String value = row.categories().get(field);
+            String key = value == null || value.isBlank() ? UNKNOWN : value.trim().toLowerCase(Locale.ROOT);
+            byValue.merge(key, (long) sign, (current, delta) -> current + delta == 0 ? null : current + delta);
+        });
+        distributions.forEach((field, distribution) -> {
+            Double value = row.numbers().get(field);
+            if (value != null) {
+                distribution.add(value, sign);
+            }
+        });
+    }
+
+    private static final class Distribution {
+
+        private final TreeMap<Double, Long> values = new TreeMap<>();
+        private long count;
+        private double sum;
+
+        void add(double value, int sign) {
+            values.merge(value, (long) sign, (current, delta) -> current + delta == 0 ? null : current + delta);
+            count += sign;
+            // Starting over from zero keeps rounding from removals out of the next average.
+            sum = count == 0 ? 0 : sum + sign * value;
+        }
+
+        ResourceStatsDto.FieldStats stats() {
+            if (count == 0) {
+                return new ResourceStatsDto.FieldStats(0, null, null, null, null, null, null);
+            }
+            double[] percentiles = percentiles(0.5, 0.9, 0.99);
+            return new ResourceStatsDto.FieldStats(count, values.firstKey(), values.lastKey(), sum / count,
+                    percentiles[0], percentiles[1], percentiles[2]);
+        }
+
+        /** Nearest-rank percentiles, found in one walk over the distinct values. */
+        private double[] percentiles(double... quantiles) {
+            double[] results = new double[quantiles.length];
+            int next = 0;
+            long seen = 0;
+            for (Map.Entry<Double, Long> entry : values.entrySet()) {
+                seen += entry.getValue();
+                while (next < quantiles.length && seen >= Math.max(1, (long) Math.ceil(quantiles[next] * count))) {
+                    results[next++] = entry.getKey();
+                }
+            }
+            return results;
+        }
+    }
+}
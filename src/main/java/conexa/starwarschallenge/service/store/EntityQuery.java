@@ -0,0 +1,87 @@
+package conexa.starwarschallenge.service.store;
+
+import conexa.starwarschallenge.exception.InvalidQueryException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Range filters and a sort key over numeric fields, parsed from list endpoint parameters such as
+ * {@code filter=hyperdrive_rating:lt:1.0&sort=-cost_in_credits}. A leading {@code -} sorts descending.
+ */
+public record EntityQuery(List<RangeFilter> filters, String sortField, boolean descending) {
+
+    public static final EntityQuery NONE = new EntityQuery(List.of(), null, false);
+
+    public enum Operator {
+        LT, LTE, GT, GTE, EQ
+    }
+
+    public record RangeFilter(String field, Operator operator, double value) {
+
+        public boolean test(double candidate) {
+            return switch (operator) {
+                case LT -> candidate < value;
+                case LTE -> candidate <= value;
+                case GT -> candidate > value;
+                case GTE -> candidate >= value;
+                case EQ -> candidate == value;
+            };
+        }
+    }
+
+    public static EntityQuery parse(List<String> filters, String sort) {
+        return parse(filters, sort, List.of());
+    }
+
+    /**
+     * Like {@link #parse(List, String)}, for a resource whose numeric {@code fields} are named in
+     * the error message of a malformed filter.
+     */
+    public static EntityQuery parse(List<String> filters, String sort, Collection<String> fields) {
+        List<RangeFilter> parsed = new ArrayList<>();
+        for (String filter : filters == null ? List.<String>of() : filters) {
+            parsed.add(parseFilter(filter, fields));
+        }
+        if (sort == null || sort.isBlank()) {
+            return parsed.isEmpty() ? NONE : new EntityQuery(List.copyOf(parsed), null, false);
+        }
+        String field = sort.trim();
+        boolean descending = field.startsWith("-");
+        return new EntityQuery(List.copyOf(parsed), descending ? field.substring(1) : field, descending);
+    }
+
+    public boolean isEmpty() {
+        return filters.isEmpty() && sortField == null;
+    }
+
+    private static RangeFilter parseFilter(String filter, Collection<String> fields) {
+        String[] parts = filter.trim().split(":");
+        if (parts.length != 3) {
+            String expected = "Invalid filter '" + filter + "'. Expected field:operator:value";
+            if (fields.isEmpty()) {
+                throw new InvalidQueryException(expected + ".");
+            }
+            throw new InvalidQueryException(expected + ", e.g. " + fields.iterator().next() + ":gt:100. Supported fields: "
+                    + String.join(", ", fields) + ".");
+        }
+        Operator operator;
+        try {
+            operator = Operator.valueOf(parts[1].toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidQueryException("Invalid filter operator '" + parts[1] + "'. Supported operators: lt, lte, gt, gte, eq.");
+        }
+        double value;
+        try {
+            value = Double.parseDouble(parts[2]);
+        } catch (NumberFormatException ex) {
+            value = Double.NaN;
+        }
+        if (Double.isNaN(value)) {
+            throw new InvalidQueryException("Invalid filter value '" + parts[2] + "'. Filters compare numbers.");
+        }
+        return new RangeFilter(parts[0], operator, value);
+    }
+}
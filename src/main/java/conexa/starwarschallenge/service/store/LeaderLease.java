@@ -0,0 +1,77 @@
+package conexa.starwarschallenge.service.store;
+
+import conexa.starwarschallenge.entity.SwapiLease;
+import conexa.starwarschallenge.repository.SwapiLeaseRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Cluster-wide lease kept in a database row. A node holds the lease until it expires and can
+ * renew it before then; any node may claim it once it has expired.
+ */
+@Slf4j
+@Component
+public class LeaderLease {
+
+    private final SwapiLeaseRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final String owner;
+
+    @Autowired
+    public LeaderLease(SwapiLeaseRepository repository, PlatformTransactionManager transactionManager) {
+        this(repository, transactionManager, Clock.systemUTC(), hostName() + "-" + UUID.randomUUID());
+    }
+
+    LeaderLease(SwapiLeaseRepository repository, PlatformTransactionManager transactionManager, Clock clock, String owner) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+        this.owner = owner;
+    }
+
+    public boolean tryAcquire(String name, Duration ttl) {
+        Instant now = clock.instant();
+        Instant expiresAt = now.plus(ttl);
+        try {
+            Boolean acquired = transactionTemplate.execute(status -> {
+                if (repository.claim(name, owner, now, expiresAt) == 1) {
+                    return true;
+                }
+                if (repository.existsById(name)) {
+                    return false;
+                }
+                repository.saveAndFlush(new SwapiLease(name, owner, expiresAt));
+                return true;
+            });
+            return Boolean.TRUE.equals(acquired);
+        } catch (DataAccessException ex) {
+            // Another node created the row first, or the database is unavailable: either way we do not lead.
+            log.debug("Could not acquire lease {}: {}", name, ex.getMessage());
+            return false;
+        }
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException ex) {
+            return "unknown";
+        }
+    }
+}
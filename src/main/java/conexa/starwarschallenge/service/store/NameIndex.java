@@ -0,0 +1,117 @@
+package conexa.starwarschallenge.service.store;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Immutable trigram index over the names of a resource collection. Substring queries are answered
+ * by intersecting the posting lists of the query's trigrams and verifying the surviving candidates.
+ */
+public final class NameIndex<T> {
+
+    private static final int GRAM = 3;
+
+    private final List<T> items;
+    private final String[] names;
+    private final Map<String, int[]> postings;
+
+    private NameIndex(List<T> items, String[] names, Map<String, int[]> postings) {
+        this.items = items;
+        this.names = names;
+        this.postings = postings;
+    }
+
+    public static <T> NameIndex<T> build(List<T> items, Function<T, String> nameOf) {
+        List<T> snapshot = List.copyOf(items);
+        String[] names = new String[snapshot.size()];
+        Map<String, List<Integer>> grams = new HashMap<>();
+        for (int i = 0; i < snapshot.size(); i++) {
+            String name = nameOf.apply(snapshot.get(i));
+            names[i] = name == null ? "" : normalize(name);
+            for (int start = 0; start + GRAM <= names[i].length(); start++) {
+                List<Integer> ids = grams.computeIfAbsent(names[i].substring(start, start + GRAM), g -> new ArrayList<>());
+                if (ids.isEmpty() || ids.get(ids.size() - 1) != i) {
+                    ids.add(i);
+                }
+            }
+        }
+
+        Map<String, int[]> postings = new HashMap<>(grams.size() * 2);
+        grams.forEach((gram, ids) -> postings.put(gram, ids.stream().mapToInt(Integer::intValue).toArray()));
+        return new NameIndex<>(snapshot, names, postings);
+    }
+
+    public List<T> search(String query) {
+        String needle = normalize(query);
+        if (needle.isEmpty()) {
+            return items;
+        }
+        if (needle.length() < GRAM) {
+            return scan(needle);
+        }
+
+        int[] candidates = null;
+        for (int start = 0; start + GRAM <= needle.length(); start++) {
+            int[] ids = postings.get(needle.substring(start, start + GRAM));
+            if (ids == null) {
+                return Collections.emptyList();
+            }
+            candidates = candidates == null ? ids : intersect(candidates, ids);
+            if (candidates.length == 0) {
+                return Collections.emptyList();
+            }
+        }
+
+        List<T> matches = new ArrayList<>(candidates.length);
+        for (int id : candidates) {
+            // Trigrams only prove that the pieces exist, not that they are contiguous.
+            if (names[id].contains(needle)) {
+                matches.add(items.get(id));
+            }
+        }
+        return matches;
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    private List<T> scan(String needle) {
+        List<T> matches = new ArrayList<>();
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].contains(needle)) {
+                matches.add(items.get(i));
+            }
+        }
+        return matches;
+    }
+
+    private static int[] intersect(int[] left, int[] right) {
+        int[] result = new int[Math.min(left.length, right.length)];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] == right[j]) {
+                result[size++] = left[i];
+                i++;
+                j++;
+            } else if (left[i] < right[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,169 @@
+package conexa.starwarschallenge.service.store;
+
+import conexa.starwarschallenge.exception.InvalidQueryException;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable set of sorted indexes over the numeric fields of a collection. Range filters are
+ * answered by binary search on the most selective field and checked against the others per row;
+ * sorting walks the sort field's index. Rows without a number for a field never match a filter
+ * on it and sort last.
+ */
+public final class RangeIndex<T> {
+
+    private final List<T> items;
+    private final Map<String, Column> columns;
+
+    private RangeIndex(List<T> items, Map<String, Column> columns) {
+        this.items = items;
+        this.columns = columns;
+    }
+
+    /**
+     * Builds the index from per-row values. Each array is aligned with {@code items} and uses
+     * {@link Double#NaN} where a row has no number.
+     */
+    public static <T> RangeIndex<T> build(List<T> items, Map<String, double[]> values) {
+        List<T> snapshot = List.copyOf(items);
+        Map<String, Column> columns = new HashMap<>();
+        values.forEach((field, byRow) -> {
+            if (byRow.length != snapshot.size()) {
+                throw new IllegalArgumentException("Field " + field + " has " + byRow.length + " values for " + snapshot.size() + " rows");
+            }
+            int[] rows = IntStream.range(0, byRow.length)
+                    .filter(row -> !Double.isNaN(byRow[row]))
+                    .boxed()
+                    .sorted((a, b) -> Double.compare(byRow[a], byRow[b]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            double[] sorted = new double[rows.length];
+            for (int i = 0; i < rows.length; i++) {
+                sorted[i] = byRow[rows[i]];
+            }
+            columns.put(field.toLowerCase(Locale.ROOT), new Column(byRow.clone(), sorted, rows));
+        });
+        return new RangeIndex<>(snapshot, columns);
+    }
+
+    public List<T> query(EntityQuery query) {
+        List<Column> filterColumns = query.filters().stream().map(filter -> column(filter.field())).toList();
+        Column sortColumn = query.sortField() == null ? null : column(query.sortField());
+
+        BitSet matches = new BitSet(items.size());
+        if (query.filters().isEmpty()) {
+            matches.set(0, items.size());
+        } else {
+            int driver = 0;
+            int[][] ranges = new int[filterColumns.size()][];
+            for (int i = 0; i < ranges.length; i++) {
+                ranges[i] = filterColumns.get(i).range(query.filters().get(i));
+                if (ranges[i][1] - ranges[i][0] < ranges[driver][1] - ranges[driver][0]) {
+                    driver = i;
+                }
+            }
+            Column driverColumn = filterColumns.get(driver);
+            for (int position = ranges[driver][0]; position < ranges[driver][1]; position++) {
+                int row = driverColumn.rows[position];
+                if (matchesAll(row, query.filters(), filterColumns, driver)) {
+                    matches.set(row);
+                }
+            }
+        }
+
+        List<T> results = new ArrayList<>(matches.cardinality());
+        if (sortColumn == null) {
+            matches.stream().forEach(row -> results.add(items.get(row)));
+            return results;
+        }
+        BitSet unsorted = (BitSet) matches.clone();
+        int length = sortColumn.rows.length;
+        for (int i = 0; i < length; i++) {
+            int row = sortColumn.rows[query.descending() ? length - 1 - i : i];
+            if (matches.get(row)) {
+                results.add(items.get(row));
+                unsorted.clear(row);
+            }
+        }
+        unsorted.stream().forEach(row -> results.add(items.get(row)));
+        return results;
+    }
+
+    public Set<String> fields() {
+        return new TreeSet<>(columns.keySet());
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    private Column column(String field) {
+        Column column = columns.get(field.toLowerCase(Locale.ROOT));
+        if (column == null) {
+            throw new InvalidQueryException("Cannot filter or sort by '" + field + "'. Supported fields: " + String.join(", ", fields()) + ".");
+        }
+        return column;
+    }
+
+    private static boolean matchesAll(int row, List<EntityQuery.RangeFilter> filters, List<Column> columns, int skip) {
+        for (int i = 0; i < filters.size(); i++) {
+            if (i != skip && !filters.get(i).test(columns.get(i).byRow[row])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private record Column(double[] byRow, double[] sorted, int[] rows) {
+
+        /** Positions {@code [from, to)} in {@link #rows} whose values pass the filter. */
+        int[] range(EntityQuery.RangeFilter filter) {
+            double value = filter.value();
+            return switch (filter.operator()) {
+                case LT -> new int[] {0, lowerBound(value)};
+                case LTE -> new int[] {0, upperBound(value)};
+                case GT -> new int[] {upperBound(value), sorted.length};
+                case GTE -> new int[] {lowerBound(value), sorted.length};
+                case EQ -> new int[] {lowerBound(value), upperBound(value)};
+            };
+        }
+
+        /** First position whose value is not less than {@code value}. */
+        private int lowerBound(double value) {
+            int low = 0;
+            int high = sorted.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (sorted[mid] < value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /** First position whose value is greater than {@code value}. */
+        private int upperBound(double value) {
+            int low = 0;
+            int high = sorted.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (sorted[mid] <= value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
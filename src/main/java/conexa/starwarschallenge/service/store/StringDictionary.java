@@ -0,0 +1,51 @@
+package conexa.starwarschallenge.service.store;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only dictionary that maps repeated strings (colours, classes, URLs) to dense int codes,
+ * so each distinct value is held once no matter how many entities use it. {@code null} is code -1.
+ * Codes are never reused; the dictionary only grows with the distinct values SWAPI has served.
+ */
+public final class StringDictionary {
+
+    public static final int NULL = -1;
+
+    private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[64];
+    private int size;
+
+    public int encode(String value) {
+        if (value == null) {
+            return NULL;
+        }
+        Integer code = codes.get(value);
+        return code != null ? code : add(value);
+    }
+
+    public String decode(int code) {
+        return code == NULL ? null : values[code];
+    }
+
+    public int size() {
+        return codes.size();
+    }
+
+    private synchronized int add(String value) {
+        Integer existing = codes.get(value);
+        if (existing != null) {
+            return existing;
+        }
+        String[] current = values;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, size * 2);
+        }
+        current[size] = value;
+        values = current;
+        // Published after the slot is written, so any reader holding the code can decode it.
+        codes.put(value, size);
+        return size++;
+    }
+}
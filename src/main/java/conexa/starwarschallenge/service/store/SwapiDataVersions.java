@@ -0,0 +1,53 @@
+package conexa.starwarschallenge.service.store;
+
+import conexa.starwarschallenge.entity.SwapiDataVersion;
+import conexa.starwarschallenge.enums.SwapiResource;
+import conexa.starwarschallenge.repository.SwapiDataVersionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Per-resource data versions shared through the database. The refresh leader bumps a version after
+ * changing the shared data; other nodes poll the versions to find out their local copies are old.
+ */
+@Component
+public class SwapiDataVersions {
+
+    private final SwapiDataVersionRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+
+    @Autowired
+    public SwapiDataVersions(SwapiDataVersionRepository repository, PlatformTransactionManager transactionManager) {
+        this(repository, transactionManager, Clock.systemUTC());
+    }
+
+    SwapiDataVersions(SwapiDataVersionRepository repository, PlatformTransactionManager transactionManager, Clock clock) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+    }
+
+    public long publish(SwapiResource resource) {
+        Long version = transactionTemplate.execute(status -> {
+            if (repository.increment(resource, clock.instant()) == 0) {
+                repository.save(new SwapiDataVersion(resource, 1, clock.instant()));
+                return 1L;
+            }
+            return repository.findById(resource).map(SwapiDataVersion::getVersion).orElse(1L);
+        });
+        return version == null ? 0 : version;
+    }
+
+    public Map<SwapiResource, Long> current() {
+        Map<SwapiResource, Long> versions = new EnumMap<>(SwapiResource.class);
+        repository.findAll().forEach(version -> versions.put(version.getResource(), version.getVersion()));
+        return versions;
+    }
+}
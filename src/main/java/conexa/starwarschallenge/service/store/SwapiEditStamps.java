@@ -0,0 +1,58 @@
+package conexa.starwarschallenge.service.store;
+
+import conexa.starwarschallenge.entity.SwapiEditStamp;
+import conexa.starwarschallenge.enums.SwapiResource;
+import conexa.starwarschallenge.repository.SwapiEditStampRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The {@code edited} timestamp of every SWAPI entity as of the last refresh, by uid. It lives in the
+ * database, so whichever node leads the next refresh compares SWAPI against the same baseline.
+ */
+@Component
+public class SwapiEditStamps {
+
+    private final SwapiEditStampRepository repository;
+    private final TransactionTemplate transactionTemplate;
+
+    public SwapiEditStamps(SwapiEditStampRepository repository, PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public Map<String, String> load(SwapiResource resource) {
+        Map<String, String> stamps = new HashMap<>();
+        repository.findByResource(resource).forEach(stamp -> stamps.put(stamp.getUid(), stamp.getEdited()));
+        return stamps;
+    }
+
+    /** Replaces the stored stamps of {@code resource} with {@code stamps}, writing only the rows that differ. */
+    public void save(SwapiResource resource, Map<String, String> stamps) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<SwapiEditStamp> inserts = new ArrayList<>();
+            Map<String, String> remaining = new HashMap<>(stamps);
+            for (SwapiEditStamp stamp : repository.findByResource(resource)) {
+                if (!remaining.containsKey(stamp.getUid())) {
+                    repository.delete(stamp);
+                    continue;
+                }
+                String edited = remaining.remove(stamp.getUid());
+                if (!Objects.equals(edited, stamp.getEdited())) {
+                    // Managed entity: the update is flushed on commit.
+                    stamp.setEdited(edited);
+                }
+            }
+            remaining.forEach((uid, edited) ->
+                    inserts.add(new SwapiEditStamp(resource.getResourceName() + ":" + uid, resource, uid, edited)));
+            repository.saveAll(inserts);
+        });
+    }
+}
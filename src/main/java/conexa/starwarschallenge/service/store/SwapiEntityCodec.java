@@ -0,0 +1,204 @@
+package conexa.starwarschallenge.service.store;
+
+import conexa.starwarschallenge.dto.PersonDto;
+import conexa.starwarschallenge.dto.PersonPropertiesDto;
+import conexa.starwarschallenge.dto.SingleResponseDto;
+import conexa.starwarschallenge.dto.StarshipDto;
+import conexa.starwarschallenge.dto.StarshipPropertiesDto;
+import conexa.starwarschallenge.dto.VehicleDto;
+import conexa.starwarschallenge.dto.VehiclePropertiesDto;
+import org.springframework.stereotype.Component;
+
+import static conexa.starwarschallenge.service.store.CompactValues.decodeNumber;
+import static conexa.starwarschallenge.service.store.CompactValues.decodeTimestamp;
+import static conexa.starwarschallenge.service.store.CompactValues.encodeNumber;
+import static conexa.starwarschallenge.service.store.CompactValues.encodeTimestamp;
+
+/**
+ * Converts cached SWAPI people, starships and vehicles between their DTOs and compact records.
+ * Numbers and timestamps become primitives, repeated strings share one {@link StringDictionary}
+ * and DTOs are materialized again on every read. Other values pass through unchanged.
+ */
+@Component
+public class SwapiEntityCodec {
+
+    private final StringDictionary dictionary = new StringDictionary();
+
+    public Object compact(Object value) {
+        if (!(value instanceof SingleResponseDto<?> response)) {
+            return value;
+        }
+        if (response.getResult() instanceof PersonDto person && person.getProperties() != null) {
+            return compactPerson(response.getMessage(), person);
+        }
+        if (response.getResult() instanceof StarshipDto starship && starship.getProperties() != null) {
+            return compactStarship(response.getMessage(), starship);
+        }
+        if (response.getResult() instanceof VehicleDto vehicle && vehicle.getProperties() != null) {
+            return compactVehicle(response.getMessage(), vehicle);
+        }
+        return value;
+    }
+
+    public Object materialize(Object stored) {
+        if (stored instanceof CompactPerson person) {
+            return new SingleResponseDto<>(text(person.message()), person(person));
+        }
+        if (stored instanceof CompactStarship starship) {
+            return new SingleResponseDto<>(text(starship.message()), starship(starship));
+        }
+        if (stored instanceof CompactVehicle vehicle) {
+            return new SingleResponseDto<>(text(vehicle.message()), vehicle(vehicle));
+        }
+        return stored;
+    }
+
+    public String text(int code) {
+        return dictionary.decode(code);
+    }
+
+    public String number(long encoded) {
+        return decodeNumber(encoded, dictionary);
+    }
+
+    public int dictionarySize() {
+        return dictionary.size();
+    }
+
+    private CompactPerson compactPerson(String message, PersonDto person) {
+        PersonPropertiesDto properties = person.getProperties();
+        return new CompactPerson(
+                code(message),
+                code(person.getDescription()),
+                person.get_id(),
+                encodeNumber(person.getUid(), dictionary),
+                code(person.get__v()),
+                properties.getName(),
+                encodeNumber(properties.getHeight(), dictionary),
+                encodeNumber(properties.getMass(), dictionary),
+                code(properties.getHairColor()),
+                code(properties.getSkinColor()),
+                code(properties.getEyeColor()),
+                code(properties.getBirthYear()),
+                code(properties.getGender()),
+                code(properties.getHomeWorld()),
+                encodeTimestamp(properties.getCreated(), dictionary),
+                encodeTimestamp(properties.getEdited(), dictionary),
+                code(properties.getUrl()));
+    }
+
+    private PersonDto person(CompactPerson person) {
+        PersonPropertiesDto properties = new PersonPropertiesDto(
+                person.name(),
+                number(person.height()),
+                number(person.mass()),
+                text(person.hairColor()),
+                text(person.skinColor()),
+                text(person.eyeColor()),
+                text(person.birthYear()),
+                text(person.gender()),
+                text(person.homeWorld()),
+                timestamp(person.created()),
+                timestamp(person.edited()),
+                text(person.url()));
+        return new PersonDto(properties, text(person.description()), person.id(), number(person.uid()), text(person.version()));
+    }
+
+    private CompactStarship compactStarship(String message, StarshipDto starship) {
+        StarshipPropertiesDto properties = starship.getProperties();
+        return new CompactStarship(
+                code(message),
+                code(starship.getDescription()),
+                starship.get_id(),
+                encodeNumber(starship.getUid(), dictionary),
+                code(starship.get__v()),
+                properties.getName(),
+                properties.getModel(),
+                code(properties.getManufacturer()),
+                encodeNumber(properties.getCostInCredits(), dictionary),
+                encodeNumber(properties.getLength(), dictionary),
+                encodeNumber(properties.getMaxAtmospheringSpeed(), dictionary),
+                encodeNumber(properties.getCrew(), dictionary),
+                encodeNumber(properties.getPassengers(), dictionary),
+                encodeNumber(properties.getCargoCapacity(), dictionary),
+                code(properties.getConsumables()),
+                encodeNumber(properties.getHyperdriveRating(), dictionary),
+                encodeNumber(properties.getMGLT(), dictionary),
+                code(properties.getStarshipClass()),
+                encodeTimestamp(properties.getCreated(), dictionary),
+                encodeTimestamp(properties.getEdited(), dictionary),
+                code(properties.getUrl()));
+    }
+
+    private StarshipDto starship(CompactStarship starship) {
+        StarshipPropertiesDto properties = new StarshipPropertiesDto(
+                starship.name(),
+                starship.model(),
+                text(starship.manufacturer()),
+                number(starship.costInCredits()),
+                number(starship.length()),
+                number(starship.maxAtmospheringSpeed()),
+                number(starship.crew()),
+                number(starship.passengers()),
+                number(starship.cargoCapacity()),
+                text(starship.consumables()),
+                number(starship.hyperdriveRating()),
+                number(starship.mglt()),
+                text(starship.starshipClass()),
+                timestamp(starship.created()),
+                timestamp(starship.edited()),
+                text(starship.url()));
+        return new StarshipDto(properties, text(starship.description()), starship.id(), number(starship.uid()), text(starship.version()));
+    }
+
+    private CompactVehicle compactVehicle(String message, VehicleDto vehicle) {
+        VehiclePropertiesDto properties = vehicle.getProperties();
+        return new CompactVehicle(
+                code(message),
+                code(vehicle.getDescription()),
+                vehicle.get_id(),
+                encodeNumber(vehicle.getUid(), dictionary),
+                code(vehicle.get__v()),
+                properties.getName(),
+                properties.getModel(),
+                code(properties.getManufacturer()),
+                encodeNumber(properties.getCostInCredits(), dictionary),
+                encodeNumber(properties.getLength(), dictionary),
+                encodeNumber(properties.getMaxAtmospheringSpeed(), dictionary),
+                encodeNumber(properties.getCrew(), dictionary),
+                encodeNumber(properties.getPassengers(), dictionary),
+                encodeNumber(properties.getCargoCapacity(), dictionary),
+                code(properties.getConsumables()),
+                code(properties.getVehicleClass()),
+                encodeTimestamp(properties.getCreated(), dictionary),
+                encodeTimestamp(properties.getEdited(), dictionary),
+                code(properties.getUrl()));
+    }
+
+    private VehicleDto vehicle(CompactVehicle vehicle) {
+        VehiclePropertiesDto properties = new VehiclePropertiesDto(
+                vehicle.name(),
+                vehicle.model(),
+                text(vehicle.manufacturer()),
+                number(vehicle.costInCredits()),
+                number(vehicle.length()),
+                number(vehicle.maxAtmospheringSpeed()),
+                number(vehicle.crew()),
+                number(vehicle.passengers()),
+                number(vehicle.cargoCapacity()),
+                text(vehicle.consumables()),
+                text(vehicle.vehicleClass()),
+                timestamp(vehicle.created()),
+                timestamp(vehicle.edited()),
+                text(vehicle.url()));
+        return new VehicleDto(properties, text(vehicle.description()), vehicle.id(), number(vehicle.uid()), text(vehicle.version()));
+    }
+
+    private int code(String value) {
+        return dictionary.encode(value);
+    }
+
+    private String timestamp(long encoded) {
+        return decodeTimestamp(encoded, dictionary);
+    }
+}
@@ -0,0 +1,367 @@
+package conexa.starwarschallenge.service.store;
+
+import conexa.starwarschallenge.config.SwapiIndexProperties;
+import conexa.starwarschallenge.dto.PersonRawItemDto;
+import conexa.starwarschallenge.dto.ResourceStatsDto;
+import conexa.starwarschallenge.dto.SingleResponseDto;
+import conexa.starwarschallenge.dto.StarshipRawItemDto;
+import conexa.starwarschallenge.dto.VehicleRawItemDto;
+import conexa.starwarschallenge.enums.SwapiResource;
+import conexa.starwarschallenge.exception.InvalidQueryException;
+import conexa.starwarschallenge.exception.SwapiUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Local, typed copy of people, starships and vehicles with a sorted index per numeric field, so
+ * range filters and sorting are answered without calling SWAPI. Entities are read in the compact
+ * form the cache keeps them in, whose numbers are already parsed; DTOs in the corpus are compacted
+ * with the same {@link SwapiEntityCodec}. The first query of a resource
+ * waits for the index to be built from {@code corpus}; later ones are served from memory. An index
+ * older than the configured max age, or one whose data changed, is rebuilt in the background from
+ * the last corpus it was given.
+ *
+ * <p>Each rebuild also updates the per-resource {@link EntityAggregates} behind the statistics
+ * endpoints with only the entities that were added, changed or removed since the previous one.
+ */
+@Slf4j
+@Component
+public class SwapiEntityIndex {
+
+    private static final Map<SwapiResource, Schema<?>> SCHEMAS = schemas();
+
+    private final SwapiIndexProperties properties;
+    private final SwapiEntityCodec codec;
+    private final Executor buildExecutor;
+    private final LongSupplier clock;
+    private final Map<SwapiResource, AtomicReference<Snapshot>> indexes = new EnumMap<>(SwapiResource.class);
+    private final Map<SwapiResource, CompletableFuture<Snapshot>> building = new ConcurrentHashMap<>();
+    private final Map<SwapiResource, Supplier<List<?>>> corpora = new ConcurrentHashMap<>();
+    private final Map<SwapiResource, Timer> queryTimers = new EnumMap<>(SwapiResource.class);
+    private final Map<SwapiResource, EntityAggregates> aggregates = new EnumMap<>(SwapiResource.class);
+    private final Map<SwapiResource, Counter> aggregateChanges = new EnumMap<>(SwapiResource.class);
+
+    @Autowired
+    public SwapiEntityIndex(SwapiIndexProperties properties,
+                            SwapiEntityCodec codec,
+                            MeterRegistry meterRegistry,
+                            @Qualifier("swapiRefreshExecutor") Executor buildExecutor) {
+        this(properties, codec, meterRegistry, buildExecutor, System::nanoTime);
+    }
+
+    SwapiEntityIndex(SwapiIndexProperties properties,
+                     SwapiEntityCodec codec,
+                     MeterRegistry meterRegistry,
+                     Executor buildExecutor,
+                     LongSupplier clock) {
+        this.properties = properties;
+        this.codec = codec;
+        this.buildExecutor = buildExecutor;
+        this.clock = clock;
+        for (SwapiResource resource : SCHEMAS.keySet()) {
+            AtomicReference<Snapshot> index = new AtomicReference<>();
+            indexes.put(resource, index);
+            Gauge.builder("swapi.entity-index.size", index, ref -> ref.get() == null ? 0 : ref.get().index().size())
+                    .tag("resource", resource.getResourceName())
+                    .register(meterRegistry);
+            queryTimers.put(resource, Timer.builder("swapi.entity-index.query")
+                    .description("Time to evaluate range filters and sorting against the local entity index")
+                    .tag("resource", resource.getResourceName())
+                    .register(meterRegistry));
+            aggregates.put(resource, newAggregates(resource));
+            aggregateChanges.put(resource, Counter.builder("swapi.entity-index.stats.changes")
+                    .description("Entities added, changed or removed in the statistics by index rebuilds")
+                    .tag("resource", resource.getResourceName())
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Returns the list items of {@code resource} that pass the query's filters, in the query's
+     * order. {@code corpus} supplies every entity of the resource when the index has to be built,
+     * as DTOs or as the compact records of {@link SwapiEntityCodec}.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<List<T>> query(SwapiResource resource, EntityQuery query, Supplier<List<?>> corpus) {
+        if (!SCHEMAS.containsKey(resource)) {
+            throw new InvalidQueryException("Filtering and sorting are not supported for " + resource.getResourceName() + ".");
+        }
+        validate(resource, query);
+        if (!properties.isEnabled()) {
+            // Without a kept index every query builds a throwaway one.
+            return CompletableFuture.supplyAsync(() -> evaluate(resource, build(resource, corpus.get()), query), buildExecutor);
+        }
+        corpora.put(resource, corpus);
+        Snapshot snapshot = indexes.get(resource).get();
+        if (snapshot == null) {
+            return buildInBackground(resource, corpus).thenApply(built -> evaluate(resource, (RangeIndex<T>) built.index(), query));
+        }
+        if (age(snapshot).compareTo(properties.getMaxAge()) >= 0) {
+            buildInBackground(resource, corpus);
+        }
+        try {
+            return CompletableFuture.completedFuture(evaluate(resource, (RangeIndex<T>) snapshot.index(), query));
+        } catch (RuntimeException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    /**
+     * Returns counts per category and numeric summaries of {@code resource}. They are kept up to
+     * date by index rebuilds, so answering only reads the aggregates; the first call waits for the
+     * index to be built from {@code corpus}.
+     */
+    public CompletableFuture<ResourceStatsDto> statistics(SwapiResource resource, Supplier<List<?>> corpus) {
+        if (!SCHEMAS.containsKey(resource)) {
+            throw new InvalidQueryException("Statistics are not available for " + resource.getResourceName() + ".");
+        }
+        if (!properties.isEnabled()) {
+            return CompletableFuture.supplyAsync(() -> {
+                EntityAggregates throwaway = newAggregates(resource);
+                throwaway.replaceAll(rows(resource, corpus.get()));
+                return throwaway.summary();
+            }, buildExecutor);
+        }
+        corpora.put(resource, corpus);
+        Snapshot snapshot = indexes.get(resource).get();
+        if (snapshot == null) {
+            return buildInBackground(resource, corpus).thenApply(built -> aggregates.get(resource).summary());
+        }
+        if (age(snapshot).compareTo(properties.getMaxAge()) >= 0) {
+            buildInBackground(resource, corpus);
+        }
+        return CompletableFuture.completedFuture(aggregates.get(resource).summary());
+    }
+
+    public void rebuild(SwapiResource resource, List<?> entities) {
+        if (SCHEMAS.containsKey(resource)) {
+            indexes.get(resource).set(new Snapshot(build(resource, entities), clock.getAsLong()));
+            int changed = aggregates.get(resource).replaceAll(rows(resource, entities));
+            aggregateChanges.get(resource).increment(changed);
+        }
+    }
+
+    /** Numeric fields {@code resource} can be filtered and sorted by, in schema order; none when it is not indexed. */
+    public static Set<String> fields(SwapiResource resource) {
+        Schema<?> schema = SCHEMAS.get(resource);
+        return schema == null ? Set.of() : schema.fields().keySet();
+    }
+
+    public boolean isBuilt(SwapiResource resource) {
+        AtomicReference<Snapshot> index = indexes.get(resource);
+        return index != null && index.get() != null;
+    }
+
+    /**
+     * Marks the index of {@code resource} as outdated and rebuilds it in the background right away,
+     * so the next query or statistics call does not have to load the whole resource. It keeps
+     * answering until the rebuild has finished; a rebuild already running may have read the old
+     * data, so another one follows it.
+     */
+    public void expire(SwapiResource resource) {
+        AtomicReference<Snapshot> index = indexes.get(resource);
+        if (index == null) {
+            return;
+        }
+        Snapshot expired = index.updateAndGet(snapshot -> snapshot == null
+                ? null
+                : new Snapshot(snapshot.index(), clock.getAsLong() - properties.getMaxAge().toNanos()));
+        Supplier<List<?>> corpus = corpora.get(resource);
+        if (expired == null || corpus == null || !properties.isEnabled()) {
+            return;
+        }
+        CompletableFuture<Snapshot> running = building.get(resource);
+        if (running == null) {
+            buildInBackground(resource, corpus);
+        } else {
+            running.whenComplete((built, error) -> buildInBackground(resource, corpus));
+        }
+    }
+
+    private static void validate(SwapiResource resource, EntityQuery query) {
+        Set<String> fields = SCHEMAS.get(resource).fields().keySet();
+        List<String> requested = new ArrayList<>(query.filters().stream().map(EntityQuery.RangeFilter::field).toList());
+        if (query.sortField() != null) {
+            requested.add(query.sortField());
+        }
+        for (String field : requested) {
+            if (!fields.contains(field.toLowerCase(Locale.ROOT))) {
+                throw new InvalidQueryException("Cannot filter or sort " + resource.getResourceName() + " by '" + field
+                        + "'. Supported fields: " + String.join(", ", fields) + ".");
+            }
+        }
+    }
+
+    private <T> List<T> evaluate(SwapiResource resource, RangeIndex<T> index, EntityQuery query) {
+        long start = System.nanoTime();
+        List<T> results = index.query(query);
+        queryTimers.get(resource).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return results;
+    }
+
+    private CompletableFuture<Snapshot> buildInBackground(SwapiResource resource, Supplier<List<?>> corpus) {
+        CompletableFuture<Snapshot> pending = new CompletableFuture<>();
+        CompletableFuture<Snapshot> running = building.putIfAbsent(resource, pending);
+        if (running != null) {
+            return running;
+        }
+        try {
+            // The build is unregistered before its future completes, so whoever waits on it can start the next one.
+            buildExecutor.execute(() -> {
+                try {
+                    rebuild(resource, corpus.get());
+                    building.remove(resource, pending);
+                    pending.complete(indexes.get(resource).get());
+                } catch (RuntimeException ex) {
+                    log.warn("Could not build the {} entity index: {}", resource.getResourceName(), ex.getMessage());
+                    building.remove(resource, pending);
+                    pending.completeExceptionally(ex);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            building.remove(resource, pending);
+            pending.completeExceptionally(new SwapiUnavailableException("The " + resource.getResourceName() + " index is being rebuilt. Please try again later."));
+        }
+        return pending;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <C, T> RangeIndex<T> build(SwapiResource resource, List<?> entities) {
+        Schema<C> schema = (Schema<C>) SCHEMAS.get(resource);
+        List<C> rows = compact(schema, entities);
+        List<T> items = new ArrayList<>(rows.size());
+        Map<String, double[]> columns = new LinkedHashMap<>();
+        schema.fields().keySet().forEach(field -> columns.put(field, new double[rows.size()]));
+        for (int row = 0; row < rows.size(); row++) {
+            C entity = rows.get(row);
+            items.add((T) schema.item().apply(entity, codec));
+            for (Map.Entry<String, ToLongFunction<C>> field : schema.fields().entrySet()) {
+                columns.get(field.getKey())[row] = CompactValues.numericValue(field.getValue().applyAsLong(entity));
+            }
+        }
+        return RangeIndex.build(items, columns);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <C> Map<String, EntityAggregates.Row> rows(SwapiResource resource, List<?> entities) {
+        Schema<C> schema = (Schema<C>) SCHEMAS.get(resource);
+        Map<String, EntityAggregates.Row> rows = new HashMap<>();
+        for (C entity : compact(schema, entities)) {
+            Map<String, String> categories = new HashMap<>();
+            schema.categories().forEach((field, value) -> categories.put(field, codec.text(value.applyAsInt(entity))));
+            Map<String, Double> numbers = new HashMap<>();
+            schema.fields().forEach((field, value) -> {
+                double number = CompactValues.numericValue(value.applyAsLong(entity));
+                if (!Double.isNaN(number)) {
+                    numbers.put(field, number);
+                }
+            });
+            rows.put(codec.number(schema.uid().applyAsLong(entity)), new EntityAggregates.Row(categories, numbers));
+        }
+        return rows;
+    }
+
+    /** The entities as compact records; those without properties have none and are left out. */
+    private <C> List<C> compact(Schema<C> schema, List<?> entities) {
+        return entities.stream()
+                .map(entity -> schema.type().isInstance(entity) ? entity : codec.compact(new SingleResponseDto<>("ok", entity)))
+                .filter(schema.type()::isInstance)
+                .map(schema.type()::cast)
+                .toList();
+    }
+
+    private static EntityAggregates newAggregates(SwapiResource resource) {
+        Schema<?> schema = SCHEMAS.get(resource);
+        return new EntityAggregates(resource.getResourceName(),
+                List.copyOf(schema.categories().keySet()), List.copyOf(schema.fields().keySet()));
+    }
+
+    private Duration age(Snapshot snapshot) {
+        return Duration.ofNanos(clock.getAsLong() - snapshot.builtAt());
+    }
+
+    private static Map<SwapiResource, Schema<?>> schemas() {
+        Map<SwapiResource, Schema<?>> schemas = new EnumMap<>(SwapiResource.class);
+
+        Map<String, ToLongFunction<CompactPerson>> people = new LinkedHashMap<>();
+        people.put("height", CompactPerson::height);
+        people.put("mass", CompactPerson::mass);
+        schemas.put(SwapiResource.PEOPLE, new Schema<>(CompactPerson.class, CompactPerson::uid, (person, codec) -> {
+            PersonRawItemDto item = new PersonRawItemDto();
+            item.setUid(codec.number(person.uid()));
+            item.setName(person.name());
+            item.setUrl(codec.text(person.url()));
+            return item;
+        }, people, Map.of("gender", CompactPerson::gender)));
+
+        Map<String, ToLongFunction<CompactStarship>> starships = new LinkedHashMap<>();
+        starships.put("cost_in_credits", CompactStarship::costInCredits);
+        starships.put("length", CompactStarship::length);
+        starships.put("max_atmosphering_speed", CompactStarship::maxAtmospheringSpeed);
+        starships.put("crew", CompactStarship::crew);
+        starships.put("passengers", CompactStarship::passengers);
+        starships.put("cargo_capacity", CompactStarship::cargoCapacity);
+        starships.put("hyperdrive_rating", CompactStarship::hyperdriveRating);
+        starships.put("mglt", CompactStarship::mglt);
+        schemas.put(SwapiResource.STARSHIPS, new Schema<>(CompactStarship.class, CompactStarship::uid, (starship, codec) -> {
+            StarshipRawItemDto item = new StarshipRawItemDto();
+            item.setUid(codec.number(starship.uid()));
+            item.setName(starship.name());
+            item.setUrl(codec.text(starship.url()));
+            return item;
+        }, starships, Map.of("starship_class", CompactStarship::starshipClass)));
+
+        Map<String, ToLongFunction<CompactVehicle>> vehicles = new LinkedHashMap<>();
+        vehicles.put("cost_in_credits", CompactVehicle::costInCredits);
+        vehicles.put("length", CompactVehicle::length);
+        vehicles.put("max_atmosphering_speed", CompactVehicle::maxAtmospheringSpeed);
+        vehicles.put("crew", CompactVehicle::crew);
+        vehicles.put("passengers", CompactVehicle::passengers);
+        vehicles.put("cargo_capacity", CompactVehicle::cargoCapacity);
+        schemas.put(SwapiResource.VEHICLES, new Schema<>(CompactVehicle.class, CompactVehicle::uid, (vehicle, codec) -> {
+            VehicleRawItemDto item = new VehicleRawItemDto();
+            item.setUid(codec.number(vehicle.uid()));
+            item.setName(vehicle.name());
+            item.setUrl(codec.text(vehicle.url()));
+            return item;
+        }, vehicles, Map.of("vehicle_class", CompactVehicle::vehicleClass)));
+        return schemas;
+    }
+
+    private record Schema<C>(Class<C> type,
+                             ToLongFunction<C> uid,
+                             BiFunction<C, SwapiEntityCodec, Object> item,
+                             Map<String, ToLongFunction<C>> fields,
+                             Map<String, ToIntFunction<C>> categories) {
+    }
+
+    private record Snapshot(RangeIndex<?> index, long builtAt) {
+    }
+}
@@ -0,0 +1,118 @@
+package conexa.starwarschallenge.service.store;
+
+import conexa.starwarschallenge.config.SwapiIndexProperties;
+import conexa.starwarschallenge.enums.SwapiResource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+@Slf4j
+@Component
+public class SwapiNameIndex {
+
+    private final SwapiIndexProperties properties;
+    private final Executor buildExecutor;
+    private final LongSupplier clock;
+    private final Map<SwapiResource, AtomicReference<Snapshot>> indexes = new EnumMap<>(SwapiResource.class);
+    private final Set<SwapiResource> building = ConcurrentHashMap.newKeySet();
+    private final Map<SwapiResource, Counter> localHits = new EnumMap<>(SwapiResource.class);
+
+    @Autowired
+    public SwapiNameIndex(SwapiIndexProperties properties,
+                          MeterRegistry meterRegistry,
+                          @Qualifier("swapiRefreshExecutor") Executor buildExecutor) {
+        this(properties, meterRegistry, buildExecutor, System::nanoTime);
+    }
+
+    SwapiNameIndex(SwapiIndexProperties properties, MeterRegistry meterRegistry, Executor buildExecutor, LongSupplier clock) {
+        this.properties = properties;
+        this.buildExecutor = buildExecutor;
+        this.clock = clock;
+        for (SwapiResource resource : SwapiResource.values()) {
+            AtomicReference<Snapshot> index = new AtomicReference<>();
+            indexes.put(resource, index);
+            Gauge.builder("swapi.index.size", index, ref -> ref.get() == null ? 0 : ref.get().index().size())
+                    .tag("resource", resource.getResourceName())
+                    .register(meterRegistry);
+            localHits.put(resource, meterRegistry.counter("swapi.index.searches", "resource", resource.getResourceName()));
+        }
+    }
+
+    /**
+     * Answers a name search from the local index. When the index is missing or older than the
+     * configured max age a rebuild from {@code corpus} is scheduled in the background; an empty
+     * result means the caller has to fall back to the upstream search.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Optional<List<T>> search(SwapiResource resource, String query, Supplier<List<T>> corpus, Function<T, String> nameOf) {
+        if (!properties.isEnabled()) {
+            return Optional.empty();
+        }
+        Snapshot snapshot = indexes.get(resource).get();
+        if (snapshot == null || age(snapshot).compareTo(properties.getMaxAge()) >= 0) {
+            rebuildInBackground(resource, corpus, nameOf);
+            snapshot = indexes.get(resource).get();
+        }
+        if (snapshot == null) {
+            return Optional.empty();
+        }
+        localHits.get(resource).increment();
+        return Optional.of(((NameIndex<T>) snapshot.index()).search(query));
+    }
+
+    public <T> void rebuild(SwapiResource resource, List<T> items, Function<T, String> nameOf) {
+        indexes.get(resource).set(new Snapshot(NameIndex.build(items, nameOf), clock.getAsLong()));
+    }
+
+    public boolean isBuilt(SwapiResource resource) {
+        return indexes.get(resource).get() != null;
+    }
+
+    public void invalidate(SwapiResource resource) {
+        indexes.get(resource).set(null);
+    }
+
+    private <T> void rebuildInBackground(SwapiResource resource, Supplier<List<T>> corpus, Function<T, String> nameOf) {
+        if (!building.add(resource)) {
+            return;
+        }
+        try {
+            buildExecutor.execute(() -> {
+                try {
+                    rebuild(resource, corpus.get(), nameOf);
+                } catch (RuntimeException ex) {
+                    log.warn("Could not build the {} name index: {}", resource.getResourceName(), ex.getMessage());
+                } finally {
+                    building.remove(resource);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            building.remove(resource);
+        }
+    }
+
+    private Duration age(Snapshot snapshot) {
+        return Duration.ofNanos(clock.getAsLong() - snapshot.builtAt());
+    }
+
+    private record Snapshot(NameIndex<?> index, long builtAt) {
+    }
+}
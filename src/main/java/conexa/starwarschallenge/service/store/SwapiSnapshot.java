@@ -0,0 +1,21 @@
+package conexa.starwarschallenge.service.store;
+
+import conexa.starwarschallenge.dto.*;
+
+import java.util.Map;
+
+/**
+ * Body of the on-disk snapshot: the cached list pages (by page number) and entities (by ID) of
+ * every resource. The format version and crawl time live in the file header.
+ */
+public record SwapiSnapshot(
+        ResourceSnapshot<FilmRawItemDto, FilmDto> films,
+        ResourceSnapshot<PersonRawItemDto, PersonDto> people,
+        ResourceSnapshot<StarshipRawItemDto, StarshipDto> starships,
+        ResourceSnapshot<VehicleRawItemDto, VehicleDto> vehicles) {
+
+    public record ResourceSnapshot<I, D>(
+            Map<Integer, PagedResponseDto<I>> pages,
+            Map<String, SingleResponseDto<D>> entities) {
+    }
+}
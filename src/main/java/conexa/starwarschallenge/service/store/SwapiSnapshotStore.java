@@ -0,0 +1,215 @@
+package conexa.starwarschallenge.service.store;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import conexa.starwarschallenge.config.SwapiSnapshotProperties;
+import conexa.starwarschallenge.dto.PagedResponseDto;
+import conexa.starwarschallenge.dto.SingleResponseDto;
+import conexa.starwarschallenge.enums.SwapiResource;
+import conexa.starwarschallenge.service.cache.SwapiCache;
+import conexa.starwarschallenge.service.cache.SwapiCacheKey;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Persists the cached SWAPI dataset to a Smile-encoded file so a restart can skip the crawl. It
+ * is written after the warm-up crawl, periodically and on shutdown. Layout: magic, format
+ * version, crawl time in epoch millis, then the {@link SwapiSnapshot} body.
+ */
+@Slf4j
+@Component
+public class SwapiSnapshotStore {
+
+    static final int MAGIC = 0x5357534E; // "SWSN"
+    static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = Integer.BYTES * 2 + Long.BYTES;
+
+    private final SwapiCache swapiCache;
+    private final SwapiSnapshotProperties properties;
+    private final Clock clock;
+    private final ObjectMapper mapper = new ObjectMapper(new SmileFactory())
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    @Autowired
+    public SwapiSnapshotStore(SwapiCache swapiCache, SwapiSnapshotProperties properties) {
+        this(swapiCache, properties, Clock.systemUTC());
+    }
+
+    SwapiSnapshotStore(SwapiCache swapiCache, SwapiSnapshotProperties properties, Clock clock) {
+        this.swapiCache = swapiCache;
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    /**
+     * Writes the cached dataset, unless the list pages of some resource are incomplete, e.g. because
+     * the crawl that loaded them failed part-way: a restart would take such a snapshot for a full
+     * crawl. The header records when the oldest entry was fetched. Returns whether it was written.
+     */
+    public boolean save() {
+        Path target = properties.getPath().toAbsolutePath();
+        Map<SwapiResource, SwapiSnapshot.ResourceSnapshot<?, ?>> resources = new EnumMap<>(SwapiResource.class);
+        Duration oldest = Duration.ZERO;
+        for (SwapiResource resource : SwapiResource.values()) {
+            SwapiSnapshot.ResourceSnapshot<?, ?> snapshot = resource(resource);
+            if (!hasAllPages(snapshot)) {
+                log.info("Not writing SWAPI snapshot: the {} list pages are incomplete", resource.getResourceName());
+                return false;
+            }
+            resources.put(resource, snapshot);
+            Duration age = swapiCache.oldestAge(resource);
+            oldest = age.compareTo(oldest) > 0 ? age : oldest;
+        }
+        SwapiSnapshot snapshot = new SwapiSnapshot(
+                cast(resources.get(SwapiResource.FILMS)),
+                cast(resources.get(SwapiResource.PEOPLE)),
+                cast(resources.get(SwapiResource.STARSHIPS)),
+                cast(resources.get(SwapiResource.VEHICLES)));
+        try {
+            Files.createDirectories(target.getParent());
+            Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+            try (OutputStream file = Files.newOutputStream(temp);
+                 DataOutputStream out = new DataOutputStream(file)) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(clock.millis() - oldest.toMillis());
+                mapper.writeValue((OutputStream) out, snapshot);
+            }
+            // Readers either see the previous snapshot or the complete new one.
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not write SWAPI snapshot to " + target, ex);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${swapi.snapshot.save-interval:PT1H}", initialDelayString = "${swapi.snapshot.save-interval:PT1H}")
+    public void saveOnSchedule() {
+        saveIfEnabled();
+    }
+
+    @PreDestroy
+    public void saveOnShutdown() {
+        saveIfEnabled();
+    }
+
+    private void saveIfEnabled() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            save();
+        } catch (RuntimeException ex) {
+            log.warn("Could not save SWAPI snapshot: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Loads the snapshot into the cache if it exists, has the current format version and is not
+     * older than the configured max age. Returns the crawl time of the loaded snapshot.
+     */
+    public Optional<Instant> load() {
+        Path source = properties.getPath().toAbsolutePath();
+        if (!Files.isRegularFile(source)) {
+            return Optional.empty();
+        }
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                log.warn("Ignoring truncated SWAPI snapshot {}", source);
+                return Optional.empty();
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int magic = buffer.getInt();
+            int version = buffer.getInt();
+            Instant crawledAt = Instant.ofEpochMilli(buffer.getLong());
+            if (magic != MAGIC || version != FORMAT_VERSION) {
+                log.info("Ignoring SWAPI snapshot {} with unsupported format version {}", source, version);
+                return Optional.empty();
+            }
+            Duration age = Duration.between(crawledAt, clock.instant());
+            if (age.compareTo(properties.getMaxAge()) > 0) {
+                log.info("Ignoring SWAPI snapshot {} crawled {} ago", source, age);
+                return Optional.empty();
+            }
+
+            SwapiSnapshot snapshot = mapper.readValue(new ByteBufferBackedInputStream(buffer), SwapiSnapshot.class);
+            preload(SwapiResource.FILMS, snapshot.films(), age);
+            preload(SwapiResource.PEOPLE, snapshot.people(), age);
+            preload(SwapiResource.STARSHIPS, snapshot.starships(), age);
+            preload(SwapiResource.VEHICLES, snapshot.vehicles(), age);
+            return Optional.of(crawledAt);
+        } catch (IOException ex) {
+            log.warn("Could not read SWAPI snapshot {}: {}", source, ex.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <I, D> SwapiSnapshot.ResourceSnapshot<I, D> resource(SwapiResource resource) {
+        Map<Integer, PagedResponseDto<I>> pages = new TreeMap<>();
+        Map<String, SingleResponseDto<D>> entities = new TreeMap<>();
+        swapiCache.entries(resource).forEach((key, value) -> {
+            switch (key.kind()) {
+                case PAGE -> pages.put(Integer.parseInt(key.value()), (PagedResponseDto<I>) value);
+                case ID -> entities.put(key.value(), (SingleResponseDto<D>) value);
+                default -> {
+                    // Search results and expanded pages are derived data, fetched again on demand.
+                }
+            }
+        });
+        return new SwapiSnapshot.ResourceSnapshot<>(pages, entities);
+    }
+
+    private static boolean hasAllPages(SwapiSnapshot.ResourceSnapshot<?, ?> snapshot) {
+        PagedResponseDto<?> first = snapshot.pages().get(1);
+        if (first == null) {
+            return false;
+        }
+        for (int page = 2; page <= first.getTotalPages(); page++) {
+            if (!snapshot.pages().containsKey(page)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <I, D> SwapiSnapshot.ResourceSnapshot<I, D> cast(SwapiSnapshot.ResourceSnapshot<?, ?> snapshot) {
+        return (SwapiSnapshot.ResourceSnapshot<I, D>) snapshot;
+    }
+
+    private void preload(SwapiResource resource, SwapiSnapshot.ResourceSnapshot<?, ?> snapshot, Duration age) {
+        if (snapshot == null) {
+            return;
+        }
+        if (snapshot.pages() != null) {
+            snapshot.pages().forEach((page, value) -> swapiCache.preload(SwapiCacheKey.page(resource, page), value, age));
+        }
+        if (snapshot.entities() != null) {
+            snapshot.entities().forEach((id, value) -> swapiCache.preload(SwapiCacheKey.byId(resource, id), value, age));
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package conexa.starwarschallenge.config;
+
+import conexa.starwarschallenge.service.diagnostics.VirtualThreadPinningMonitor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.threads.virtual.enabled=true")
+@ActiveProfiles("test")
+class VirtualThreadModeTest {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    @Qualifier("swapiFanOutExecutor")
+    private Executor fanOutExecutor;
+
+    @Test
+    @DisplayName("Should run SWAPI fan-out on virtual threads and watch for pinning")
+    void virtualMode_ShouldSwitchExecutorsAndStartPinningMonitor() {
+        assertInstanceOf(SimpleAsyncTaskExecutor.class, fanOutExecutor);
+        assertTrue(CompletableFuture.supplyAsync(() -> Thread.currentThread().isVirtual(), fanOutExecutor).join());
+        assertTrue(context.getBean(VirtualThreadPinningMonitor.class).isRunning());
+    }
+}
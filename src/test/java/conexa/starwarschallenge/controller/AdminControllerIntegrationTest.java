@@ -6,6 +6,8 @@ import conexa.starwarschallenge.dto.UserRoleDto;
 import conexa.starwarschallenge.entity.Role;
 import conexa.starwarschallenge.entity.User;
 import conexa.starwarschallenge.repository.UserRepository;
+import conexa.starwarschallenge.security.CachingUserDetailsService;
+import conexa.starwarschallenge.security.TokenVersions;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -24,8 +26,11 @@ import java.util.List;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -44,6 +49,12 @@ public class AdminControllerIntegrationTest {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private TokenVersions tokenVersions;
+
+    @Autowired
+    private CachingUserDetailsService userDetailsService;
+
     private ObjectMapper objectMapper = new ObjectMapper();
 
     private User adminUser;
@@ -101,6 +112,49 @@ public class AdminControllerIntegrationTest {
         assertEquals(Role.ADMIN, updatedUser.getRole());
     }
 
+    @Test
+    @DisplayName("Role changes and revocation should move the user's token version")
+    @WithMockUser(username = "admin_test", authorities = {"ADMIN"})
+    void adminCanRevokeTokens() throws Exception {
+        userDetailsService.evict(regularUser.getUsername());
+        assertEquals(Role.USER, ((User) userDetailsService.loadUserByUsername(regularUser.getUsername())).getRole());
+
+        mockMvc.perform(put("/api/v1/admin/users/{id}/role", regularUser.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UpdateUserRoleRequest(Role.ADMIN))))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/v1/admin/users/{id}/revoke-tokens", regularUser.getId()))
+                .andExpect(status().isNoContent());
+
+        assertEquals(2, userRepository.findById(regularUser.getId()).orElseThrow().getTokenVersion());
+        User cached = (User) userDetailsService.loadUserByUsername(regularUser.getUsername());
+        assertEquals(Role.ADMIN, cached.getRole());
+        assertEquals(2, cached.getTokenVersion());
+        assertFalse(tokenVersions.isCurrent(regularUser.getUsername(), 1));
+        assertTrue(tokenVersions.isCurrent(regularUser.getUsername(), 2));
+    }
+
+    @Test
+    @DisplayName("Admin should be able to see the SWAPI circuit breakers and concurrency limit")
+    @WithMockUser(username = "admin_test", authorities = {"ADMIN"})
+    void adminCanGetSwapiStatus() throws Exception {
+        mockMvc.perform(get("/api/v1/admin/swapi/status")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.circuits", hasSize(4)))
+                .andExpect(jsonPath("$.circuits[0].resource", is("films")))
+                .andExpect(jsonPath("$.concurrencyLimit").isNumber());
+    }
+
+    @Test
+    @DisplayName("Regular user should be forbidden from getting the SWAPI status")
+    @WithMockUser(username = "user_test", authorities = {"USER"})
+    void regularUserCannotGetSwapiStatus() throws Exception {
+        mockMvc.perform(get("/api/v1/admin/swapi/status")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isForbidden());
+    }
+
     @Test
     @DisplayName("Regular user should be forbidden from getting all users")
     @WithMockUser(username = "user_test", authorities = {"USER"})
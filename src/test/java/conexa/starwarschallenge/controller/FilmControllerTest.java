@@ -5,7 +5,8 @@ import conexa.starwarschallenge.dto.PagedResponseDto;
 import conexa.starwarschallenge.dto.SingleResponseDto;
 import conexa.starwarschallenge.dto.FilmPropertiesDto; // Re-add import
 import conexa.starwarschallenge.dto.FilmRawItemDto;
-import conexa.starwarschallenge.service.SwapiService;
+import conexa.starwarschallenge.service.FilmExpansionService;
+import conexa.starwarschallenge.service.SwapiAsyncService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -14,22 +15,33 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 
 @ExtendWith(MockitoExtension.class)
 class FilmControllerTest {
 
     @Mock
-    private SwapiService swapiService;
+    private SwapiAsyncService swapiAsyncService;
+
+    @Mock
+    private FilmExpansionService filmExpansionService;
 
     @InjectMocks
     private FilmController filmController;
@@ -54,10 +66,10 @@ class FilmControllerTest {
         pagedResponse.setResults(Collections.singletonList(filmRawItemDto));
         pagedResponse.setTotalRecords(1);
 
-        when(swapiService.findFilms(anyInt(), anyInt(), anyString()))
-                .thenReturn(pagedResponse);
+        when(swapiAsyncService.findFilms(anyInt(), anyInt(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(pagedResponse));
 
-        mockMvc.perform(get("/api/v1/films?page=1&limit=10&name=New")
+        performAsync(get("/api/v1/films?page=1&limit=10&name=New")
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.results[0].title").value("A New Hope"));
@@ -72,12 +84,34 @@ class FilmControllerTest {
         SingleResponseDto<FilmDto> singleResponse = new SingleResponseDto<>();
         singleResponse.setResult(filmDto);
 
-        when(swapiService.findFilmById(anyString()))
-                .thenReturn(singleResponse);
+        when(swapiAsyncService.findFilmById(anyString()))
+                .thenReturn(CompletableFuture.completedFuture(singleResponse));
 
-        mockMvc.perform(get("/api/v1/films/1")
+        performAsync(get("/api/v1/films/1")
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.result.properties.title").value("A New Hope"));
     }
+
+    @Test
+    void getFilmById_withExpand_shouldDelegateToExpansion() throws Exception {
+        FilmDto filmDto = new FilmDto();
+        filmDto.setUid("1");
+        SingleResponseDto<FilmDto> singleResponse = new SingleResponseDto<>("ok", filmDto);
+
+        when(filmExpansionService.findFilmById(eq("1"), eq(List.of("characters", "starships"))))
+                .thenReturn(CompletableFuture.completedFuture(singleResponse));
+
+        performAsync(get("/api/v1/films/1?expand=characters,starships")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.uid").value("1"));
+    }
+
+    private ResultActions performAsync(MockHttpServletRequestBuilder builder) throws Exception {
+        MvcResult result = mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
 }
@@ -33,6 +33,7 @@ import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -88,11 +89,17 @@ public class FilmIntegrationTest {
         jwtToken = response.getToken();
     }
 
+    private MvcResult perform(MockHttpServletRequestBuilder requestBuilder) throws Exception {
+        MvcResult result = mockMvc.perform(requestBuilder).andReturn();
+        // Film endpoints complete asynchronously; the response is written on the async dispatch.
+        return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)).andReturn() : result;
+    }
+
     private MvcResult performWithRetry(MockHttpServletRequestBuilder requestBuilder) throws Exception {
         MvcResult lastResult = null;
 
         for (int i = 0; i < MAX_RETRIES; i++) {
-            MvcResult result = mockMvc.perform(requestBuilder).andReturn();
+            MvcResult result = perform(requestBuilder);
             lastResult = result;
             HttpStatus status = HttpStatus.valueOf(result.getResponse().getStatus());
             String responseContent = result.getResponse().getContentAsString();
@@ -172,10 +179,9 @@ public class FilmIntegrationTest {
             String filmId = pagedResponse.getResults().get(0).getUid();
             assertNotNull(filmId, "Film ID should not be null");
 
-            MvcResult filmResult = mockMvc.perform(get("/api/v1/films/{id}", filmId)
-                            .header("Authorization", "Bearer " + jwtToken)
-                            .accept(MediaType.APPLICATION_JSON))
-                    .andReturn();
+            MvcResult filmResult = perform(get("/api/v1/films/{id}", filmId)
+                    .header("Authorization", "Bearer " + jwtToken)
+                    .accept(MediaType.APPLICATION_JSON));
 
             HttpStatus filmStatus = HttpStatus.valueOf(filmResult.getResponse().getStatus());
             String filmResponseContent = filmResult.getResponse().getContentAsString();
@@ -201,10 +207,9 @@ public class FilmIntegrationTest {
     @Test
     @DisplayName("Should return 404 for a non-existent film ID or handle Too Many Requests")
     void getFilmById_shouldReturnNotFoundForNonExistentId() throws Exception {
-        MvcResult result = mockMvc.perform(get("/api/v1/films/{id}", "99999")
-                        .header("Authorization", "Bearer " + jwtToken)
-                        .accept(MediaType.APPLICATION_JSON))
-                .andReturn();
+        MvcResult result = perform(get("/api/v1/films/{id}", "99999")
+                .header("Authorization", "Bearer " + jwtToken)
+                .accept(MediaType.APPLICATION_JSON));
 
         HttpStatus status = HttpStatus.valueOf(result.getResponse().getStatus());
         String responseContent = result.getResponse().getContentAsString();
@@ -1,10 +1,15 @@
 package conexa.starwarschallenge.controller;
 
+import conexa.starwarschallenge.dto.BatchItemDto;
+import conexa.starwarschallenge.dto.BatchResponseDto;
 import conexa.starwarschallenge.dto.PagedResponseDto;
 import conexa.starwarschallenge.dto.PersonDto;
 import conexa.starwarschallenge.dto.PersonPropertiesDto; // Re-add import
 import conexa.starwarschallenge.dto.PersonRawItemDto;
-import conexa.starwarschallenge.service.SwapiService;
+import conexa.starwarschallenge.service.SwapiBatchService;
+import conexa.starwarschallenge.service.store.EntityQuery;
+import conexa.starwarschallenge.exception.PersonNotFoundException;
+import conexa.starwarschallenge.service.SwapiAsyncService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,25 +18,35 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
 class PeopleControllerTest {
 
     @Mock
-    private SwapiService swapiService;
+    private SwapiAsyncService swapiAsyncService;
+
+    @Mock
+    private SwapiBatchService swapiBatchService;
 
     @InjectMocks
     private PeopleController peopleController;
@@ -54,10 +69,10 @@ class PeopleControllerTest {
         pagedResponse.setResults(Collections.singletonList(personRawItemDto));
         pagedResponse.setTotalRecords(1);
 
-        when(swapiService.findPeople(eq(1), eq(10), isNull()))
-                .thenReturn(pagedResponse);
+        when(swapiAsyncService.findPeople(eq(1), eq(10), isNull(), eq(EntityQuery.NONE)))
+                .thenReturn(CompletableFuture.completedFuture(pagedResponse));
 
-        mockMvc.perform(get("/api/v1/people?page=1&limit=10")
+        performAsync(get("/api/v1/people?page=1&limit=10")
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.results[0].name").value("Luke Skywalker"));
@@ -74,12 +89,58 @@ class PeopleControllerTest {
         pagedResponse.setResults(Collections.singletonList(personRawItemDto));
         pagedResponse.setTotalRecords(1);
 
-        when(swapiService.findPeople(eq(1), eq(1), eq("Luke")))
-                .thenReturn(pagedResponse);
+        when(swapiAsyncService.findPeople(eq(1), eq(10), eq("Luke"), eq(EntityQuery.NONE)))
+                .thenReturn(CompletableFuture.completedFuture(pagedResponse));
 
-        mockMvc.perform(get("/api/v1/people?name=Luke")
+        performAsync(get("/api/v1/people?name=Luke")
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.results[0].name").value("Luke Skywalker"));
     }
+
+    @Test
+    void getPersonById_shouldMapFailedLookupToNotFound() throws Exception {
+        when(swapiAsyncService.findPersonById("999"))
+                .thenReturn(CompletableFuture.failedFuture(new PersonNotFoundException("999")));
+
+        performAsync(get("/api/v1/people/999")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getPeopleByIds_shouldReturnPerIdResults() throws Exception {
+        PersonDto personDto = new PersonDto();
+        personDto.setUid("1");
+        BatchResponseDto<PersonDto> batchResponse = new BatchResponseDto<>(List.of(
+                BatchItemDto.success("1", personDto),
+                BatchItemDto.failure("999", 404, "Person with ID 999 not found.")), 1, 1);
+
+        when(swapiBatchService.findPeopleByIds(List.of("1", "999"))).thenReturn(batchResponse);
+
+        mockMvc.perform(post("/api/v1/people/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": [\"1\", \"999\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.results[0].result.uid").value("1"))
+                .andExpect(jsonPath("$.results[1].status").value(404))
+                .andExpect(jsonPath("$.results[1].result").doesNotExist());
+    }
+
+    @Test
+    void getPeopleByIds_shouldRejectEmptyBatch() throws Exception {
+        mockMvc.perform(post("/api/v1/people/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": []}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private ResultActions performAsync(MockHttpServletRequestBuilder builder) throws Exception {
+        MvcResult result = mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
 }
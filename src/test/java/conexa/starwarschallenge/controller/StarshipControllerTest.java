@@ -4,7 +4,8 @@ import conexa.starwarschallenge.dto.PagedResponseDto;
 import conexa.starwarschallenge.dto.StarshipDto;
 import conexa.starwarschallenge.dto.StarshipPropertiesDto; // Re-add import
 import conexa.starwarschallenge.dto.StarshipRawItemDto;
-import conexa.starwarschallenge.service.SwapiService;
+import conexa.starwarschallenge.service.SwapiAsyncService;
+import conexa.starwarschallenge.service.store.EntityQuery;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,24 +14,34 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
 class StarshipControllerTest {
 
     @Mock
-    private SwapiService swapiService;
+    private SwapiAsyncService swapiAsyncService;
 
     @InjectMocks
     private StarshipController starshipController;
@@ -53,10 +64,10 @@ class StarshipControllerTest {
         pagedResponse.setResults(Collections.singletonList(starshipRawItemDto));
         pagedResponse.setTotalRecords(1);
 
-        when(swapiService.findStarships(eq(1), eq(10), isNull()))
-                .thenReturn(pagedResponse);
+        when(swapiAsyncService.findStarships(eq(1), eq(10), isNull(), eq(EntityQuery.NONE)))
+                .thenReturn(CompletableFuture.completedFuture(pagedResponse));
 
-        mockMvc.perform(get("/api/v1/starships?page=1&limit=10")
+        performAsync(get("/api/v1/starships?page=1&limit=10")
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.results[0].name").value("Death Star"));
@@ -73,12 +84,48 @@ class StarshipControllerTest {
         pagedResponse.setResults(Collections.singletonList(starshipRawItemDto));
         pagedResponse.setTotalRecords(1);
 
-        when(swapiService.findStarships(eq(1), eq(1), eq("Death")))
-                .thenReturn(pagedResponse);
+        when(swapiAsyncService.findStarships(eq(1), eq(10), eq("Death"), eq(EntityQuery.NONE)))
+                .thenReturn(CompletableFuture.completedFuture(pagedResponse));
 
-        mockMvc.perform(get("/api/v1/starships?name=Death")
+        performAsync(get("/api/v1/starships?name=Death")
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.results[0].name").value("Death Star"));
     }
+
+    @Test
+    void getStarships_shouldPassRangeFiltersAndSort() throws Exception {
+        StarshipRawItemDto starshipRawItemDto = new StarshipRawItemDto();
+        starshipRawItemDto.setName("Millennium Falcon");
+        starshipRawItemDto.setUid("10");
+
+        PagedResponseDto<StarshipRawItemDto> pagedResponse = new PagedResponseDto<>();
+        pagedResponse.setResults(Collections.singletonList(starshipRawItemDto));
+        pagedResponse.setTotalRecords(1);
+
+        EntityQuery query = EntityQuery.parse(List.of("hyperdrive_rating:lt:1.0"), "cost_in_credits");
+        when(swapiAsyncService.findStarships(eq(1), eq(10), isNull(), eq(query)))
+                .thenReturn(CompletableFuture.completedFuture(pagedResponse));
+
+        performAsync(get("/api/v1/starships?filter=hyperdrive_rating:lt:1.0&sort=cost_in_credits")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].name").value("Millennium Falcon"));
+    }
+
+    @Test
+    void getStarships_shouldRejectMalformedFilter() throws Exception {
+        mockMvc.perform(get("/api/v1/starships?filter=hyperdrive_rating<1")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(result -> assertThat(result.getResolvedException().getMessage(),
+                        allOf(containsString("e.g. cost_in_credits:gt:100"), containsString("hyperdrive_rating, mglt"))));
+    }
+
+    private ResultActions performAsync(MockHttpServletRequestBuilder builder) throws Exception {
+        MvcResult result = mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
 }
@@ -0,0 +1,68 @@
+package conexa.starwarschallenge.controller;
+
+import conexa.starwarschallenge.dto.ResourceStatsDto;
+import conexa.starwarschallenge.enums.SwapiResource;
+import conexa.starwarschallenge.service.SwapiAsyncService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class StatsControllerTest {
+
+    @Mock
+    private SwapiAsyncService swapiAsyncService;
+
+    @InjectMocks
+    private StatsController statsController;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(statsController).build();
+    }
+
+    @Test
+    void getStats_shouldReturnResourceAggregates() throws Exception {
+        ResourceStatsDto stats = new ResourceStatsDto("starships", 2,
+                Map.of("starship_class", Map.of("starfighter", 2L)),
+                Map.of("crew", new ResourceStatsDto.FieldStats(2, 1.0, 2.0, 1.5, 1.0, 2.0, 2.0)));
+        when(swapiAsyncService.findStats(SwapiResource.STARSHIPS)).thenReturn(CompletableFuture.completedFuture(stats));
+
+        MvcResult result = mockMvc.perform(get("/api/v1/stats/Starships").accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(2))
+                .andExpect(jsonPath("$.counts.starship_class.starfighter").value(2))
+                .andExpect(jsonPath("$.fields.crew.avg").value(1.5));
+    }
+
+    @Test
+    void getStats_shouldRejectUnknownResource() throws Exception {
+        mockMvc.perform(get("/api/v1/stats/planets").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(swapiAsyncService);
+    }
+}
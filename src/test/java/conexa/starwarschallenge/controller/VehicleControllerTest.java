@@ -4,7 +4,8 @@ import conexa.starwarschallenge.dto.PagedResponseDto;
 import conexa.starwarschallenge.dto.VehicleDto;
 import conexa.starwarschallenge.dto.VehiclePropertiesDto; // Re-add import
 import conexa.starwarschallenge.dto.VehicleRawItemDto;
-import conexa.starwarschallenge.service.SwapiService;
+import conexa.starwarschallenge.service.SwapiAsyncService;
+import conexa.starwarschallenge.service.store.EntityQuery;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,24 +14,30 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
 
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
 class VehicleControllerTest {
 
     @Mock
-    private SwapiService swapiService;
+    private SwapiAsyncService swapiAsyncService;
 
     @InjectMocks
     private VehicleController vehicleController;
@@ -53,10 +60,10 @@ class VehicleControllerTest {
         pagedResponse.setResults(Collections.singletonList(vehicleRawItemDto));
         pagedResponse.setTotalRecords(1);
 
-        when(swapiService.findVehicles(eq(1), eq(10), isNull()))
-                .thenReturn(pagedResponse);
+        when(swapiAsyncService.findVehicles(eq(1), eq(10), isNull(), eq(EntityQuery.NONE)))
+                .thenReturn(CompletableFuture.completedFuture(pagedResponse));
 
-        mockMvc.perform(get("/api/v1/vehicles?page=1&limit=10")
+        performAsync(get("/api/v1/vehicles?page=1&limit=10")
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.results[0].name").value("Sand Crawler"));
@@ -73,12 +80,19 @@ class VehicleControllerTest {
         pagedResponse.setResults(Collections.singletonList(vehicleRawItemDto));
         pagedResponse.setTotalRecords(1);
 
-        when(swapiService.findVehicles(eq(1), eq(1), eq("Sand")))
-                .thenReturn(pagedResponse);
+        when(swapiAsyncService.findVehicles(eq(1), eq(10), eq("Sand"), eq(EntityQuery.NONE)))
+                .thenReturn(CompletableFuture.completedFuture(pagedResponse));
 
-        mockMvc.perform(get("/api/v1/vehicles?name=Sand")
+        performAsync(get("/api/v1/vehicles?name=Sand")
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.results[0].name").value("Sand Crawler"));
     }
+
+    private ResultActions performAsync(MockHttpServletRequestBuilder builder) throws Exception {
+        MvcResult result = mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
 }
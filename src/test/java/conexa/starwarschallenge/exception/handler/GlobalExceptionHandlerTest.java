@@ -1,6 +1,8 @@
 package conexa.starwarschallenge.exception.handler;
 
 import conexa.starwarschallenge.exception.DuplicateUserException;
+import conexa.starwarschallenge.exception.PasswordHashingBusyException;
+import conexa.starwarschallenge.exception.SwapiUnavailableException;
 import conexa.starwarschallenge.exception.TooManyRequestsException;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.MalformedJwtException;
@@ -21,6 +23,8 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Duration;
+
 class GlobalExceptionHandlerTest {
     private MockMvc mockMvc;
 
@@ -47,6 +51,24 @@ class GlobalExceptionHandlerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.error").value("Too Many Requests"));
     }
 
+    @Test
+    void handleSwapiUnavailableException_shouldReturnServiceUnavailable() throws Exception {
+        this.mockMvc.perform(MockMvcRequestBuilders.get("/test/swapi-unavailable")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isServiceUnavailable())
+                .andExpect(MockMvcResultMatchers.header().exists("Retry-After"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.error").value("SWAPI circuit is open"));
+    }
+
+    @Test
+    void handlePasswordHashingBusyException_shouldReturnServiceUnavailable() throws Exception {
+        this.mockMvc.perform(MockMvcRequestBuilders.get("/test/password-hashing-busy")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isServiceUnavailable())
+                .andExpect(MockMvcResultMatchers.header().string("Retry-After", "3"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.error").value("Hashing queue is full"));
+    }
+
     @Test
     void handleBadCredentialsException_shouldReturnUnauthorized() throws Exception {
         this.mockMvc.perform(MockMvcRequestBuilders.get("/test/bad-credentials")
@@ -117,6 +139,16 @@ class GlobalExceptionHandlerTest {
             throw new TooManyRequestsException("Too Many Requests");
         }
 
+        @GetMapping({"/test/swapi-unavailable"})
+        public String throwSwapiUnavailableException() {
+            throw new SwapiUnavailableException("SWAPI circuit is open");
+        }
+
+        @GetMapping({"/test/password-hashing-busy"})
+        public String throwPasswordHashingBusyException() {
+            throw new PasswordHashingBusyException("Hashing queue is full", Duration.ofSeconds(3));
+        }
+
         @GetMapping({"/test/bad-credentials"})
         public String throwBadCredentialsException() {
             throw new BadCredentialsException("Invalid credentials");
@@ -0,0 +1,99 @@
+package conexa.starwarschallenge.security;
+
+import conexa.starwarschallenge.config.UserCacheProperties;
+import conexa.starwarschallenge.entity.Role;
+import conexa.starwarschallenge.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CachingUserDetailsServiceTest {
+
+    private static final Duration MAX_TTL = Duration.ofHours(1);
+
+    @Mock
+    private UserDetailsService delegate;
+
+    private final UserCacheProperties properties = new UserCacheProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong nanos = new AtomicLong();
+
+    @Test
+    @DisplayName("Should load a user once and serve repeat lookups from the cache")
+    void loadUserByUsername_ShouldCacheUsers() {
+        User leia = User.builder().username("leia").role(Role.USER).build();
+        when(delegate.loadUserByUsername("leia")).thenReturn(leia);
+        CachingUserDetailsService users = new CachingUserDetailsService(delegate, properties, MAX_TTL, meterRegistry, nanos::get);
+
+        assertSame(leia, users.loadUserByUsername("leia"));
+        assertSame(leia, users.loadUserByUsername("leia"));
+
+        verify(delegate, times(1)).loadUserByUsername("leia");
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "security.users").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    @DisplayName("Should reload a user after eviction or once the entry expires")
+    void loadUserByUsername_ShouldReloadAfterEvictionAndTtl() {
+        when(delegate.loadUserByUsername("leia")).thenReturn(User.builder().username("leia").role(Role.USER).build());
+        CachingUserDetailsService users = new CachingUserDetailsService(delegate, properties, MAX_TTL, meterRegistry, nanos::get);
+
+        users.loadUserByUsername("leia");
+        users.evict("leia");
+        users.loadUserByUsername("leia");
+        nanos.addAndGet(properties.getTtl().plus(Duration.ofSeconds(1)).toNanos());
+        users.loadUserByUsername("leia");
+
+        verify(delegate, times(3)).loadUserByUsername("leia");
+    }
+
+    @Test
+    @DisplayName("Should expire entries after the maximum TTL when the configured one is longer")
+    void loadUserByUsername_ShouldCapTheTtl() {
+        when(delegate.loadUserByUsername("leia")).thenReturn(User.builder().username("leia").role(Role.USER).build());
+        CachingUserDetailsService users = new CachingUserDetailsService(delegate, properties, Duration.ofSeconds(30), meterRegistry, nanos::get);
+
+        users.loadUserByUsername("leia");
+        nanos.addAndGet(Duration.ofSeconds(31).toNanos());
+        users.loadUserByUsername("leia");
+
+        verify(delegate, times(2)).loadUserByUsername("leia");
+    }
+
+    @Test
+    @DisplayName("Should not cache unknown usernames")
+    void loadUserByUsername_ShouldNotCacheMissingUsers() {
+        when(delegate.loadUserByUsername("nobody")).thenThrow(new UsernameNotFoundException("User not found"));
+        CachingUserDetailsService users = new CachingUserDetailsService(delegate, properties, MAX_TTL, meterRegistry, nanos::get);
+
+        assertThrows(UsernameNotFoundException.class, () -> users.loadUserByUsername("nobody"));
+        assertThrows(UsernameNotFoundException.class, () -> users.loadUserByUsername("nobody"));
+
+        verify(delegate, times(2)).loadUserByUsername("nobody");
+    }
+
+    @Test
+    @DisplayName("Should go to the delegate every time when disabled")
+    void loadUserByUsername_ShouldBypassWhenDisabled() {
+        properties.setEnabled(false);
+        when(delegate.loadUserByUsername("leia")).thenReturn(User.builder().username("leia").role(Role.USER).build());
+        CachingUserDetailsService users = new CachingUserDetailsService(delegate, properties, MAX_TTL, meterRegistry, nanos::get);
+
+        users.loadUserByUsername("leia");
+        users.loadUserByUsername("leia");
+
+        verify(delegate, times(2)).loadUserByUsername("leia");
+    }
+}
@@ -0,0 +1,153 @@
+package conexa.starwarschallenge.security;
+
+import conexa.starwarschallenge.config.JwtCacheProperties;
+import conexa.starwarschallenge.config.JwtStatelessProperties;
+import conexa.starwarschallenge.entity.Role;
+import conexa.starwarschallenge.entity.User;
+import conexa.starwarschallenge.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTest {
+
+    private static final String SECRET_KEY = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private final JwtService jwtService = new JwtService(SECRET_KEY);
+    private final JwtStatelessProperties statelessProperties = new JwtStatelessProperties();
+    private TokenVersions tokenVersions;
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        tokenVersions = new TokenVersions(userRepository, mock(CachingUserDetailsService.class), new SimpleMeterRegistry());
+        filter = new JwtAuthenticationFilter(jwtService,
+                new VerifiedTokenCache(new JwtCacheProperties(), new SimpleMeterRegistry()),
+                userDetailsService, tokenVersions, statelessProperties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should authenticate from the token's claims without loading the user")
+    void doFilter_ShouldBuildPrincipalFromClaims() throws Exception {
+        when(userRepository.findByTokenVersionGreaterThan(0)).thenReturn(List.of());
+        tokenVersions.sync();
+
+        Authentication authentication = authenticate(token("leia", Role.ADMIN, 0));
+
+        assertNotNull(authentication);
+        assertEquals("leia", ((User) authentication.getPrincipal()).getUsername());
+        assertEquals(List.of(new SimpleGrantedAuthority("ADMIN")), List.copyOf(authentication.getAuthorities()));
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    @DisplayName("Should reject tokens issued before the user's version was bumped")
+    void doFilter_ShouldRejectRevokedTokens() throws Exception {
+        when(userRepository.findByTokenVersionGreaterThan(0)).thenReturn(List.of());
+        tokenVersions.sync();
+        String revoked = token("leia", Role.ADMIN, 0);
+        tokenVersions.bumped("leia", 1);
+
+        assertNull(authenticate(revoked));
+        assertNotNull(authenticate(token("leia", Role.USER, 1)));
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    @DisplayName("Should check the token against the database until the versions have been read")
+    void doFilter_ShouldFallBackToTheUserBeforeFirstSync() throws Exception {
+        User leia = user("leia", Role.USER, 2);
+        when(userDetailsService.loadUserByUsername("leia")).thenReturn(leia);
+        when(userRepository.findTokenVersionByUsername("leia")).thenReturn(Optional.of(view("leia", 2)));
+
+        assertNull(authenticate(token("leia", Role.ADMIN, 1)));
+        Authentication authentication = authenticate(token("leia", Role.USER, 2));
+
+        assertSame(leia, authentication.getPrincipal());
+    }
+
+    @Test
+    @DisplayName("Should load the user when stateless principals are disabled")
+    void doFilter_ShouldLoadUserWhenDisabled() throws Exception {
+        statelessProperties.setEnabled(false);
+        when(userRepository.findByTokenVersionGreaterThan(0)).thenReturn(List.of());
+        tokenVersions.sync();
+        User leia = user("leia", Role.ADMIN, 0);
+        when(userDetailsService.loadUserByUsername("leia")).thenReturn(leia);
+
+        assertSame(leia, authenticate(token("leia", Role.ADMIN, 0)).getPrincipal());
+    }
+
+    @Test
+    @DisplayName("Should not trust the version of a cached user loaded before the bump")
+    void doFilter_ShouldCheckLoadedUsersAgainstTokenVersions() throws Exception {
+        statelessProperties.setEnabled(false);
+        when(userRepository.findByTokenVersionGreaterThan(0)).thenReturn(List.of(view("leia", 1)));
+        tokenVersions.sync();
+        when(userDetailsService.loadUserByUsername("leia")).thenReturn(user("leia", Role.ADMIN, 0));
+
+        assertNull(authenticate(token("leia", Role.ADMIN, 0)));
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private String token(String username, Role role, long version) {
+        return jwtService.generateToken(user(username, role, version));
+    }
+
+    private static User user(String username, Role role, long version) {
+        return User.builder().username(username).password("secret").role(role).tokenVersion(version).build();
+    }
+
+    private static UserRepository.TokenVersionView view(String username, long version) {
+        return new UserRepository.TokenVersionView() {
+            @Override
+            public String getUsername() {
+                return username;
+            }
+
+            @Override
+            public long getTokenVersion() {
+                return version;
+            }
+        };
+    }
+}
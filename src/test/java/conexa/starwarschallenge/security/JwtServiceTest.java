@@ -1,5 +1,7 @@
 package conexa.starwarschallenge.security;
 
+import conexa.starwarschallenge.entity.Role;
+import conexa.starwarschallenge.entity.User;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
@@ -8,11 +10,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.test.util.ReflectionTestUtils;
 
 import java.security.Key;
 import java.util.Date;
@@ -30,7 +30,6 @@ import org.mockito.quality.Strictness;
 @MockitoSettings(strictness = Strictness.LENIENT)
 class JwtServiceTest {
 
-    @InjectMocks
     private JwtService jwtService;
 
     @Mock
@@ -41,7 +40,7 @@ class JwtServiceTest {
 
     @BeforeEach
     void setUp() {
-        ReflectionTestUtils.setField(jwtService, "secretKey", TEST_SECRET_KEY);
+        jwtService = new JwtService(TEST_SECRET_KEY);
         when(userDetails.getUsername()).thenReturn(TEST_USERNAME);
     }
 
@@ -96,6 +95,50 @@ class JwtServiceTest {
         assertFalse(jwtService.isTokenValid(expiredToken, userDetails));
     }
 
+    @Test
+    @DisplayName("Should verify a token once and expose its claims")
+    void verify_ShouldReturnClaimsOfValidToken() {
+        String token = jwtService.generateToken(Map.of("role", "USER"), userDetails);
+
+        VerifiedToken verified = jwtService.verify(token).orElseThrow();
+
+        assertEquals(TEST_USERNAME, verified.subject());
+        assertEquals("USER", verified.claims().get("role"));
+        assertTrue(verified.expiresAt().isAfter(verified.issuedAt()));
+        assertTrue(verified.isFor(TEST_USERNAME));
+        assertThrows(UnsupportedOperationException.class, () -> verified.claims().put("role", "ADMIN"));
+    }
+
+    @Test
+    @DisplayName("Should embed the role and token version of application users")
+    void generateToken_ShouldEmbedRoleAndTokenVersion() {
+        User user = User.builder().username("leia").role(Role.ADMIN).tokenVersion(3).build();
+
+        VerifiedToken verified = jwtService.verify(jwtService.generateToken(user)).orElseThrow();
+
+        assertEquals("ADMIN", verified.role());
+        assertEquals(3L, verified.tokenVersion());
+        assertNull(jwtService.verify(jwtService.generateToken(userDetails)).orElseThrow().role());
+    }
+
+    @Test
+    @DisplayName("Should not verify tampered, foreign-key or non-expiring tokens")
+    void verify_ShouldRejectUntrustedTokens() {
+        String token = jwtService.generateToken(userDetails);
+        String[] parts = token.split("\\.");
+        String tampered = parts[0] + "." + parts[1] + "." + new StringBuilder(parts[2]).reverse();
+        Key otherKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode("5970404E635266556A586E3272357538782F413F4428472B4B6250645367566B"));
+        String foreign = Jwts.builder().setSubject(TEST_USERNAME).setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(otherKey).compact();
+        String nonExpiring = Jwts.builder().setSubject(TEST_USERNAME)
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(TEST_SECRET_KEY))).compact();
+
+        assertTrue(jwtService.verify(tampered).isEmpty());
+        assertTrue(jwtService.verify(foreign).isEmpty());
+        assertTrue(jwtService.verify(nonExpiring).isEmpty());
+        assertTrue(jwtService.verify("").isEmpty());
+    }
+
     @Test
     @DisplayName("Should return false for malformed token")
     void isTokenValid_ShouldReturnFalseForMalformedToken() {
@@ -0,0 +1,93 @@
+package conexa.starwarschallenge.security;
+
+import conexa.starwarschallenge.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenVersionsTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private CachingUserDetailsService userDetailsService;
+
+    @Test
+    @DisplayName("Should keep the highest version seen locally or in the database")
+    void sync_ShouldMergeVersions() {
+        TokenVersions versions = new TokenVersions(userRepository, userDetailsService, new SimpleMeterRegistry());
+        when(userRepository.findByTokenVersionGreaterThan(0)).thenReturn(List.of(view("leia", 2), view("han", 1)));
+        versions.bumped("leia", 3);
+
+        versions.sync();
+
+        assertTrue(versions.isSynced());
+        assertFalse(versions.isCurrent("leia", 2));
+        assertTrue(versions.isCurrent("leia", 3));
+        assertFalse(versions.isCurrent("han", 0));
+        assertTrue(versions.isCurrent("luke", 0));
+    }
+
+    @Test
+    @DisplayName("Should evict the cached details of users whose version moved on another node")
+    void sync_ShouldEvictUsersChangedElsewhere() {
+        TokenVersions versions = new TokenVersions(userRepository, userDetailsService, new SimpleMeterRegistry());
+        when(userRepository.findByTokenVersionGreaterThan(0)).thenReturn(List.of(view("leia", 1)));
+        versions.sync();
+        when(userRepository.findByTokenVersionGreaterThan(0)).thenReturn(List.of(view("leia", 1), view("han", 2)));
+        versions.bumped("han", 2);
+
+        versions.sync();
+
+        verify(userDetailsService, times(1)).evict("leia");
+        verify(userDetailsService, never()).evict("han");
+    }
+
+    @Test
+    @DisplayName("Should stay unsynced while the database cannot be read")
+    void sync_ShouldTolerateDatabaseErrors() {
+        TokenVersions versions = new TokenVersions(userRepository, userDetailsService, new SimpleMeterRegistry());
+        when(userRepository.findByTokenVersionGreaterThan(0)).thenThrow(new DataAccessResourceFailureException("down"));
+
+        versions.sync();
+
+        assertFalse(versions.isSynced());
+    }
+
+    @Test
+    @DisplayName("Should read the user's version from the database until the first sync")
+    void isCurrent_ShouldReadTheDatabaseBeforeFirstSync() {
+        TokenVersions versions = new TokenVersions(userRepository, userDetailsService, new SimpleMeterRegistry());
+        when(userRepository.findTokenVersionByUsername("leia")).thenReturn(Optional.of(view("leia", 2)));
+
+        assertFalse(versions.isCurrent("leia", 1));
+        assertTrue(versions.isCurrent("leia", 2));
+        assertTrue(versions.isCurrent("luke", 0));
+    }
+
+    private static UserRepository.TokenVersionView view(String username, long version) {
+        return new UserRepository.TokenVersionView() {
+            @Override
+            public String getUsername() {
+                return username;
+            }
+
+            @Override
+            public long getTokenVersion() {
+                return version;
+            }
+        };
+    }
+}
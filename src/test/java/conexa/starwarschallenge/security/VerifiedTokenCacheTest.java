@@ -0,0 +1,90 @@
+package conexa.starwarschallenge.security;
+
+import conexa.starwarschallenge.config.JwtCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedTokenCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong nanos = new AtomicLong();
+    private final JwtCacheProperties properties = new JwtCacheProperties();
+    private final VerifiedTokenCache cache = new VerifiedTokenCache(properties, meterRegistry, nanos::get);
+    private final AtomicInteger verifications = new AtomicInteger();
+
+    @Test
+    @DisplayName("Should verify a token once and serve its claims from the cache afterwards")
+    void get_ShouldSkipRepeatVerification() {
+        Function<String, Optional<VerifiedToken>> verifier = verifying(token("luke", Duration.ofHours(1)));
+
+        VerifiedToken first = cache.get("header.payload.signature", verifier).orElseThrow();
+        VerifiedToken second = cache.get("header.payload.signature", verifier).orElseThrow();
+
+        assertSame(first, second);
+        assertEquals(1, verifications.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "jwt.verified-tokens").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "jwt.verified-tokens").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    @DisplayName("Should drop an entry when its token expires")
+    void get_ShouldExpireAtTokenExpiry() {
+        Function<String, Optional<VerifiedToken>> verifier = verifying(token("luke", Duration.ofMinutes(30)));
+        cache.get("token", verifier);
+
+        nanos.addAndGet(Duration.ofMinutes(31).toNanos());
+        cache.get("token", verifier);
+
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    @DisplayName("Should not cache tokens that fail verification")
+    void get_ShouldNotCacheInvalidTokens() {
+        Function<String, Optional<VerifiedToken>> verifier = token -> {
+            verifications.incrementAndGet();
+            return Optional.empty();
+        };
+
+        assertTrue(cache.get("forged", verifier).isEmpty());
+        assertTrue(cache.get("forged", verifier).isEmpty());
+
+        assertEquals(2, verifications.get());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Should verify every time when the cache is disabled")
+    void get_ShouldBypassWhenDisabled() {
+        properties.setEnabled(false);
+        Function<String, Optional<VerifiedToken>> verifier = verifying(token("luke", Duration.ofHours(1)));
+
+        cache.get("token", verifier);
+        cache.get("token", verifier);
+
+        assertEquals(2, verifications.get());
+    }
+
+    private Function<String, Optional<VerifiedToken>> verifying(VerifiedToken result) {
+        return token -> {
+            verifications.incrementAndGet();
+            return Optional.of(result);
+        };
+    }
+
+    private static VerifiedToken token(String subject, Duration lifetime) {
+        Instant now = Instant.now();
+        return new VerifiedToken(subject, now, now.plus(lifetime), Map.of("sub", subject));
+    }
+}
@@ -0,0 +1,95 @@
+package conexa.starwarschallenge.service;
+
+import conexa.starwarschallenge.config.SwapiBatchProperties;
+import conexa.starwarschallenge.dto.BatchItemDto;
+import conexa.starwarschallenge.dto.FilmDto;
+import conexa.starwarschallenge.dto.FilmPropertiesDto;
+import conexa.starwarschallenge.dto.PersonDto;
+import conexa.starwarschallenge.dto.SingleResponseDto;
+import conexa.starwarschallenge.dto.StarshipDto;
+import conexa.starwarschallenge.exception.StarshipNotFoundException;
+import conexa.starwarschallenge.exception.UnsupportedExpandException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FilmExpansionServiceTest {
+
+    @Mock
+    private SwapiService swapiService;
+
+    @Mock
+    private SwapiAsyncService swapiAsyncService;
+
+    private FilmExpansionService expansionService;
+    private FilmDto film;
+
+    @BeforeEach
+    void setUp() {
+        SwapiBatchProperties properties = new SwapiBatchProperties();
+        expansionService = new FilmExpansionService(swapiService, swapiAsyncService,
+                new SwapiBatchService(swapiService, properties, Runnable::run), properties);
+
+        FilmPropertiesDto filmProperties = new FilmPropertiesDto();
+        filmProperties.setTitle("A New Hope");
+        filmProperties.setCharacters(List.of("https://www.swapi.tech/api/people/1", "https://www.swapi.tech/api/people/2/"));
+        filmProperties.setStarships(List.of("https://www.swapi.tech/api/starships/9"));
+        film = new FilmDto();
+        film.setUid("1");
+        film.setProperties(filmProperties);
+        lenient().when(swapiAsyncService.findFilmById("1")).thenReturn(CompletableFuture.completedFuture(new SingleResponseDto<>("ok", film)));
+    }
+
+    @Test
+    @DisplayName("Should resolve only the requested relations on a copy of the cached film")
+    void findFilmById_ShouldExpandRequestedRelations() {
+        PersonDto luke = new PersonDto();
+        luke.setUid("1");
+        PersonDto c3po = new PersonDto();
+        c3po.setUid("2");
+        when(swapiService.findPersonById("1")).thenReturn(new SingleResponseDto<>("ok", luke));
+        when(swapiService.findPersonById("2")).thenReturn(new SingleResponseDto<>("ok", c3po));
+
+        FilmDto result = expansionService.findFilmById("1", List.of(" Characters ")).join().getResult();
+
+        assertEquals(List.of(luke, c3po), result.getExpanded().getCharacters().stream().map(BatchItemDto::getResult).toList());
+        assertNull(result.getExpanded().getStarships());
+        assertNull(film.getExpanded(), "The cached film must not be modified");
+        verify(swapiService, never()).findStarshipById(anyString());
+    }
+
+    @Test
+    @DisplayName("Should report unresolvable relations per item")
+    void findFilmById_ShouldReportMissingRelations() {
+        when(swapiService.findStarshipById("9")).thenThrow(new StarshipNotFoundException("9"));
+
+        FilmDto result = expansionService.findFilmById("1", List.of("starships")).join().getResult();
+
+        assertEquals(404, result.getExpanded().getStarships().get(0).getStatus());
+        assertEquals("9", result.getExpanded().getStarships().get(0).getId());
+    }
+
+    @Test
+    @DisplayName("Should reject relations that cannot be expanded")
+    void findFilmById_ShouldRejectUnsupportedRelations() {
+        assertThrows(UnsupportedExpandException.class, () -> expansionService.findFilmById("1", List.of("planets")));
+    }
+
+    @Test
+    @DisplayName("Should extract the SWAPI ID from resource URLs")
+    void idOf_ShouldReadLastPathSegment() {
+        assertEquals("10", FilmExpansionService.idOf("https://www.swapi.tech/api/starships/10/"));
+        assertEquals("3", FilmExpansionService.idOf("https://www.swapi.tech/api/people/3"));
+    }
+}
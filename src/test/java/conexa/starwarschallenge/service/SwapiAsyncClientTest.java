@@ -0,0 +1,122 @@
+package conexa.starwarschallenge.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import conexa.starwarschallenge.config.ApplicationConfig;
+import conexa.starwarschallenge.config.SwapiHttpClientProperties;
+import conexa.starwarschallenge.dto.PersonDto;
+import conexa.starwarschallenge.dto.SingleResponseDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.core5.io.CloseMode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.io.ByteArrayOutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletionException;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SwapiAsyncClientTest {
+
+    private static final ParameterizedTypeReference<SingleResponseDto<PersonDto>> PERSON_TYPE = new ParameterizedTypeReference<>() {};
+
+    private HttpServer server;
+    private PoolingAsyncClientConnectionManager connectionManager;
+    private CloseableHttpAsyncClient httpClient;
+    private SwapiAsyncClient client;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SwapiHttpClientProperties httpClientProperties = new SwapiHttpClientProperties();
+    private volatile String acceptEncoding;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/people/1", exchange -> {
+            byte[] body = "{\"message\":\"ok\",\"result\":{\"uid\":\"1\"}}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.createContext("/people/2", exchange -> {
+            acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write("{\"message\":\"ok\",\"result\":{\"uid\":\"2\"}}".getBytes(StandardCharsets.UTF_8));
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(200, compressed.size());
+            exchange.getResponseBody().write(compressed.toByteArray());
+            exchange.close();
+        });
+        server.createContext("/people/404", exchange -> {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        server.start();
+
+        ApplicationConfig config = new ApplicationConfig(null, httpClientProperties, null, null, null, meterRegistry);
+        connectionManager = config.swapiAsyncConnectionManager();
+        httpClient = config.swapiAsyncHttpClient(connectionManager);
+        config.swapiAsyncConnectionPoolMetrics(connectionManager).bindTo(meterRegistry);
+        client = new SwapiAsyncClient(httpClient, new ObjectMapper(), httpClientProperties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        httpClient.close(CloseMode.IMMEDIATE);
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Should read successful responses through the pooled async client")
+    void get_ShouldParseSuccessfulResponses() {
+        SingleResponseDto<PersonDto> response = client.<SingleResponseDto<PersonDto>>get(uri("/people/1"), PERSON_TYPE.getType()).join();
+
+        assertEquals("1", response.getResult().getUid());
+        assertEquals(100, meterRegistry.get("httpcomponents.httpclient.pool.total.max").tag("httpclient", "swapi-async").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should ask for gzip and decompress gzipped responses")
+    void get_ShouldDecompressGzippedResponses() {
+        SingleResponseDto<PersonDto> response = client.<SingleResponseDto<PersonDto>>get(uri("/people/2"), PERSON_TYPE.getType()).join();
+
+        assertEquals("gzip", acceptEncoding);
+        assertEquals("2", response.getResult().getUid());
+    }
+
+    @Test
+    @DisplayName("Should not ask for compressed responses when compression is disabled")
+    void get_ShouldNotNegotiateCompressionWhenDisabled() {
+        httpClientProperties.setCompression(false);
+
+        client.<SingleResponseDto<PersonDto>>get(uri("/people/2"), PERSON_TYPE.getType()).join();
+
+        assertNull(acceptEncoding);
+    }
+
+    @Test
+    @DisplayName("Should report error statuses with the RestTemplate exception types")
+    void get_ShouldTranslateErrorStatuses() {
+        CompletionException error = assertThrows(CompletionException.class,
+                () -> client.get(uri("/people/404"), PERSON_TYPE.getType()).join());
+
+        assertInstanceOf(HttpClientErrorException.NotFound.class, error.getCause());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort() + path);
+    }
+}
@@ -0,0 +1,393 @@
+package conexa.starwarschallenge.service;
+
+import conexa.starwarschallenge.config.SwapiCacheProperties;
+import conexa.starwarschallenge.config.SwapiCircuitBreakerProperties;
+import conexa.starwarschallenge.config.SwapiConcurrencyProperties;
+import conexa.starwarschallenge.config.SwapiHedgingProperties;
+import conexa.starwarschallenge.config.SwapiIndexProperties;
+import conexa.starwarschallenge.config.SwapiL2CacheProperties;
+import conexa.starwarschallenge.config.SwapiPagingProperties;
+import conexa.starwarschallenge.config.SwapiRateLimitProperties;
+import conexa.starwarschallenge.dto.PagedResponseDto;
+import conexa.starwarschallenge.dto.PersonDto;
+import conexa.starwarschallenge.dto.PersonPropertiesDto;
+import conexa.starwarschallenge.dto.PersonRawItemDto;
+import conexa.starwarschallenge.dto.ResourceStatsDto;
+import conexa.starwarschallenge.dto.SingleResponseDto;
+import conexa.starwarschallenge.enums.SwapiResource;
+import conexa.starwarschallenge.exception.InvalidQueryException;
+import conexa.starwarschallenge.exception.PersonNotFoundException;
+import conexa.starwarschallenge.exception.TooManyRequestsException;
+import conexa.starwarschallenge.repository.SwapiCacheEntryRepository;
+import conexa.starwarschallenge.service.cache.SingleFlight;
+import conexa.starwarschallenge.service.cache.StaleResponses;
+import conexa.starwarschallenge.service.cache.SwapiCache;
+import conexa.starwarschallenge.service.cache.SwapiCacheKey;
+import conexa.starwarschallenge.service.cache.SwapiL2Cache;
+import conexa.starwarschallenge.service.resilience.SwapiHedger;
+import conexa.starwarschallenge.service.resilience.SwapiRateLimiter;
+import conexa.starwarschallenge.service.resilience.SwapiUpstreamGuard;
+import conexa.starwarschallenge.service.store.EntityQuery;
+import conexa.starwarschallenge.service.store.SwapiEntityCodec;
+import conexa.starwarschallenge.service.store.SwapiEntityIndex;
+import conexa.starwarschallenge.service.store.SwapiNameIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class SwapiAsyncServiceTest {
+
+    private static final String BASE_URL = "http://swapi.dev/api";
+
+    @Mock
+    private SwapiAsyncClient client;
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final SwapiCacheProperties cacheProperties = new SwapiCacheProperties();
+    private SwapiCache swapiCache;
+    private SwapiEntityIndex entityIndex;
+    private SwapiUpstreamGuard upstreamGuard;
+    private SwapiAsyncService swapiAsyncService;
+
+    @BeforeEach
+    void setUp() {
+        swapiAsyncService = service(new SwapiRateLimitProperties(), new SwapiConcurrencyProperties());
+    }
+
+    private SwapiAsyncService service(SwapiRateLimitProperties rateLimitProperties, SwapiConcurrencyProperties concurrencyProperties) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SwapiEntityCodec codec = new SwapiEntityCodec();
+        SwapiIndexProperties indexProperties = new SwapiIndexProperties();
+        indexProperties.setEnabled(false);
+        SwapiL2CacheProperties l2Properties = new SwapiL2CacheProperties();
+        l2Properties.setEnabled(false);
+        SwapiRateLimiter rateLimiter = new SwapiRateLimiter(rateLimitProperties, meterRegistry);
+        swapiCache = new SwapiCache(cacheProperties, meterRegistry, Runnable::run, nanos::get, codec);
+        entityIndex = new SwapiEntityIndex(new SwapiIndexProperties(), codec, meterRegistry, Runnable::run);
+        upstreamGuard = new SwapiUpstreamGuard(new SwapiCircuitBreakerProperties(), concurrencyProperties, meterRegistry);
+        SwapiAsyncService service = new SwapiAsyncService(
+                client,
+                swapiCache,
+                new SwapiL2Cache(l2Properties, mock(SwapiCacheEntryRepository.class), mock(PlatformTransactionManager.class), meterRegistry),
+                new SingleFlight(meterRegistry),
+                rateLimiter,
+                upstreamGuard,
+                new SwapiHedger(new SwapiHedgingProperties(), rateLimiter, meterRegistry, Runnable::run),
+                new SwapiPagingProperties(),
+                new SwapiNameIndex(indexProperties, meterRegistry, Runnable::run),
+                entityIndex,
+                Runnable::run);
+        ReflectionTestUtils.setField(service, "swapiBaseUrl", BASE_URL);
+        return service;
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("Should complete without blocking and share one upstream call between concurrent lookups")
+    void findPersonById_ShouldCoalesceAndCache() {
+        CompletableFuture<SingleResponseDto<PersonDto>> upstream = new CompletableFuture<>();
+        when(client.<SingleResponseDto<PersonDto>>get(eq(URI.create(BASE_URL + "/people/1")), any(Type.class))).thenReturn(upstream);
+
+        CompletableFuture<SingleResponseDto<PersonDto>> first = swapiAsyncService.findPersonById("1");
+        CompletableFuture<SingleResponseDto<PersonDto>> second = swapiAsyncService.findPersonById("1");
+        assertFalse(first.isDone(), "The lookup must not wait for SWAPI on the calling thread");
+
+        upstream.complete(new SingleResponseDto<>("ok", person("1")));
+
+        assertEquals("1", first.join().getResult().getUid());
+        assertEquals("1", second.join().getResult().getUid());
+        assertEquals("1", swapiAsyncService.findPersonById("1").join().getResult().getUid());
+        verify(client, times(1)).get(any(URI.class), any(Type.class));
+    }
+
+    @Test
+    @DisplayName("Should fail with the domain exception when SWAPI answers 404")
+    void findPersonById_ShouldTranslateNotFound() {
+        when(client.get(any(URI.class), any(Type.class)))
+                .thenReturn(CompletableFuture.failedFuture(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null)));
+
+        CompletionException ex = assertThrows(CompletionException.class, () -> swapiAsyncService.findPersonById("999").join());
+
+        assertInstanceOf(PersonNotFoundException.class, ex.getCause());
+    }
+
+    @Test
+    @DisplayName("Should not count waiting for an outbound permit as SWAPI latency")
+    void findPersonById_ShouldNotLowerTheConcurrencyLimitWhenThrottled() {
+        SwapiRateLimitProperties rateLimit = new SwapiRateLimitProperties();
+        rateLimit.setPermitsPerSecond(5);
+        rateLimit.setBurst(1);
+        SwapiConcurrencyProperties concurrency = new SwapiConcurrencyProperties();
+        concurrency.setLatencyThreshold(Duration.ofMillis(100));
+        SwapiAsyncService throttled = service(rateLimit, concurrency);
+        when(client.get(any(URI.class), any(Type.class)))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(new SingleResponseDto<>("ok", new PersonDto())));
+
+        long start = System.nanoTime();
+        throttled.findPersonById("1").join();
+        throttled.findPersonById("2").join();
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofMillis(150)) > 0, "The second call waits for a permit");
+        assertEquals(concurrency.getInitialLimit(), upstreamGuard.status().concurrencyLimit());
+    }
+
+    @Test
+    @DisplayName("Should translate SWAPI rate limiting on list pages")
+    void findPeople_ShouldTranslateTooManyRequests() {
+        when(client.get(any(URI.class), any(Type.class)))
+                .thenReturn(CompletableFuture.failedFuture(HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", null, null, null)));
+
+        CompletionException ex = assertThrows(CompletionException.class, () -> swapiAsyncService.findPeople(1, 10, null).join());
+
+        assertInstanceOf(TooManyRequestsException.class, ex.getCause());
+    }
+
+    @Test
+    @DisplayName("Should assemble a window spanning two upstream pages")
+    void findPeople_ShouldRepackUpstreamPages() {
+        when(client.get(eq(URI.create(BASE_URL + "/people?page=1&limit=10")), any(Type.class)))
+                .thenReturn(CompletableFuture.completedFuture(peoplePage(1, 10)));
+        when(client.get(eq(URI.create(BASE_URL + "/people?page=2&limit=10")), any(Type.class)))
+                .thenReturn(CompletableFuture.completedFuture(peoplePage(11, 20)));
+
+        PagedResponseDto<PersonRawItemDto> result = swapiAsyncService.findPeople(2, 6, null).join();
+
+        assertEquals(List.of("7", "8", "9", "10", "11", "12"), result.getResults().stream().map(PersonRawItemDto::getUid).toList());
+        assertEquals(82, result.getTotalRecords());
+        assertEquals(14, result.getTotalPages());
+    }
+
+    @Test
+    @DisplayName("Should report the collection totals for a window past the end of the collection")
+    void findPeople_ShouldKeepTotalsPastTheEnd() {
+        when(client.get(eq(URI.create(BASE_URL + "/people?page=1&limit=10")), any(Type.class)))
+                .thenReturn(CompletableFuture.completedFuture(peoplePage(1, 10)));
+        when(client.get(eq(URI.create(BASE_URL + "/people?page=20&limit=10")), any(Type.class)))
+                .thenReturn(CompletableFuture.failedFuture(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null)));
+
+        PagedResponseDto<PersonRawItemDto> result = swapiAsyncService.findPeople(20, 10, null).join();
+
+        assertTrue(result.getResults().isEmpty());
+        assertEquals(82, result.getTotalRecords());
+        assertEquals(9, result.getTotalPages());
+    }
+
+    @Test
+    @DisplayName("Should mark stale pages on the request even when they are served after the request thread moved on")
+    void findPeople_ShouldMarkStalePagesOnTheOriginalRequest() {
+        when(client.get(eq(URI.create(BASE_URL + "/people?page=1&limit=10")), any(Type.class)))
+                .thenReturn(CompletableFuture.completedFuture(peoplePage(1, 10)));
+        when(client.get(eq(URI.create(BASE_URL + "/people?page=2&limit=10")), any(Type.class)))
+                .thenReturn(CompletableFuture.completedFuture(peoplePage(11, 20)));
+        swapiAsyncService.findPeople(2, 6, null).join();
+        nanos.addAndGet(Duration.ofMinutes(11).toNanos());
+        cacheProperties.setStaleWhileRevalidate(false);
+        CompletableFuture<Object> unavailable = new CompletableFuture<>();
+        when(client.get(any(URI.class), any(Type.class))).thenReturn(unavailable);
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        ServletRequestAttributes attributes = new ServletRequestAttributes(request);
+        RequestContextHolder.setRequestAttributes(attributes);
+        CompletableFuture<PagedResponseDto<PersonRawItemDto>> result = swapiAsyncService.findPeople(2, 6, null);
+        attributes.requestCompleted();
+        RequestContextHolder.resetRequestAttributes();
+        unavailable.completeExceptionally(HttpServerErrorException.create(HttpStatus.SERVICE_UNAVAILABLE, "Unavailable", null, null, null));
+
+        assertEquals(List.of("7", "8", "9", "10", "11", "12"), result.join().getResults().stream().map(PersonRawItemDto::getUid).toList());
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        assertEquals(Duration.ofMinutes(11), StaleResponses.staleAge());
+    }
+
+    @Test
+    @DisplayName("Should treat an expanded page past the end of the collection as empty")
+    void findPeople_ShouldTreatMissingExpandedPagesAsEmpty() {
+        when(client.get(eq(URI.create(BASE_URL + "/people?page=1&limit=10")), any(Type.class)))
+                .thenReturn(CompletableFuture.completedFuture(PagedResponseDto.<PersonRawItemDto>builder()
+                        .message("ok").results(List.of(rawPerson("1"), rawPerson("4"))).totalRecords(2).totalPages(1).build()));
+        when(client.get(eq(URI.create(BASE_URL + "/people?page=1&limit=10&expanded=true")), any(Type.class)))
+                .thenReturn(CompletableFuture.completedFuture(PagedResponseDto.<PersonDto>builder()
+                        .message("ok")
+                        .results(List.of(person("1", "Luke Skywalker", "172"), person("4", "Darth Vader", "202")))
+                        .totalRecords(12).totalPages(2).build()));
+        when(client.get(eq(URI.create(BASE_URL + "/people?page=2&limit=10&expanded=true")), any(Type.class)))
+                .thenReturn(CompletableFuture.failedFuture(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null)));
+
+        PagedResponseDto<PersonRawItemDto> tall = swapiAsyncService.findPeople(1, 10, null, EntityQuery.parse(List.of("height:gt:200"), null)).join();
+
+        assertEquals(List.of("4"), tall.getResults().stream().map(PersonRawItemDto::getUid).toList());
+    }
+
+    @Test
+    @DisplayName("Should filter and sort people from the entity index without further upstream calls")
+    void findPeople_ShouldAnswerRangeQueriesLocally() {
+        when(client.get(eq(URI.create(BASE_URL + "/people?page=1&limit=10")), any(Type.class)))
+                .thenReturn(CompletableFuture.completedFuture(PagedResponseDto.<PersonRawItemDto>builder()
+                        .message("ok").results(List.of(rawPerson("1"), rawPerson("4"), rawPerson("13"), rawPerson("3")))
+                        .totalRecords(4).totalPages(1).build()));
+        when(client.get(eq(URI.create(BASE_URL + "/people?page=1&limit=10&expanded=true")), any(Type.class)))
+                .thenReturn(CompletableFuture.completedFuture(PagedResponseDto.<PersonDto>builder()
+                        .message("ok")
+                        .results(List.of(person("1", "Luke Skywalker", "172"), person("4", "Darth Vader", "202"),
+                                person("13", "Chewbacca", "228"), person("3", "R2-D2", "unknown")))
+                        .totalRecords(4).totalPages(1).build()));
+        EntityQuery tallFirst = EntityQuery.parse(List.of("height:gt:200"), "-height");
+
+        PagedResponseDto<PersonRawItemDto> tall = swapiAsyncService.findPeople(1, 10, null, tallFirst).join();
+        PagedResponseDto<PersonRawItemDto> byHeight = swapiAsyncService.findPeople(1, 2, "a", EntityQuery.parse(null, "height")).join();
+
+        assertEquals(List.of("13", "4"), tall.getResults().stream().map(PersonRawItemDto::getUid).toList());
+        assertEquals(List.of("1", "4"), byHeight.getResults().stream().map(PersonRawItemDto::getUid).toList());
+        assertEquals(3, byHeight.getTotalRecords());
+        verify(client, times(2)).get(any(URI.class), any(Type.class));
+        assertEquals("228", swapiAsyncService.findPersonById("13").join().getResult().getProperties().getHeight());
+        verify(client, times(2)).get(any(URI.class), any(Type.class));
+    }
+
+    @Test
+    @DisplayName("Should answer statistics from the aggregates kept by the entity index")
+    void findStats_ShouldAggregateTheLocalCopy() {
+        when(client.get(eq(URI.create(BASE_URL + "/people?page=1&limit=10")), any(Type.class)))
+                .thenReturn(CompletableFuture.completedFuture(PagedResponseDto.<PersonRawItemDto>builder()
+                        .message("ok").results(List.of(rawPerson("1"), rawPerson("4"), rawPerson("3")))
+                        .totalRecords(3).totalPages(1).build()));
+        when(client.get(eq(URI.create(BASE_URL + "/people?page=1&limit=10&expanded=true")), any(Type.class)))
+                .thenReturn(CompletableFuture.completedFuture(PagedResponseDto.<PersonDto>builder()
+                        .message("ok")
+                        .results(List.of(person("1", "Luke Skywalker", "172"), person("4", "Darth Vader", "202"),
+                                person("3", "R2-D2", "unknown")))
+                        .totalRecords(3).totalPages(1).build()));
+
+        ResourceStatsDto stats = swapiAsyncService.findStats(SwapiResource.PEOPLE).join();
+
+        assertEquals(3, stats.count());
+        assertEquals(2, stats.fields().get("height").count());
+        assertEquals(187.0, stats.fields().get("height").avg());
+        assertEquals(Map.of("unknown", 3L), stats.counts().get("gender"));
+        assertSame(stats, swapiAsyncService.findStats(SwapiResource.PEOPLE).join());
+        verify(client, times(2)).get(any(URI.class), any(Type.class));
+        assertThrows(InvalidQueryException.class, () -> swapiAsyncService.findStats(SwapiResource.FILMS));
+    }
+
+    @Test
+    @DisplayName("Should rebuild the statistics as soon as the data expires instead of on the next request")
+    void findStats_ShouldRebuildEagerlyWhenTheDataExpires() {
+        when(client.get(eq(URI.create(BASE_URL + "/people?page=1&limit=10")), any(Type.class)))
+                .thenReturn(CompletableFuture.completedFuture(PagedResponseDto.<PersonRawItemDto>builder()
+                        .message("ok").results(List.of(rawPerson("1"), rawPerson("4")))
+                        .totalRecords(2).totalPages(1).build()));
+        when(client.get(eq(URI.create(BASE_URL + "/people?page=1&limit=10&expanded=true")), any(Type.class)))
+                .thenReturn(CompletableFuture.completedFuture(PagedResponseDto.<PersonDto>builder()
+                        .message("ok")
+                        .results(List.of(person("1", "Luke Skywalker", "172"), person("4", "Darth Vader", "202")))
+                        .totalRecords(2).totalPages(1).build()));
+        swapiAsyncService.findStats(SwapiResource.PEOPLE).join();
+
+        // What a refresh stores for a changed entity before it expires the index.
+        swapiCache.put(SwapiCacheKey.byId(SwapiResource.PEOPLE, "4"), new SingleResponseDto<>("ok", person("4", "Darth Vader", "210")));
+        entityIndex.expire(SwapiResource.PEOPLE);
+        ResourceStatsDto stats = entityIndex.statistics(SwapiResource.PEOPLE, () -> {
+            throw new AssertionError("A request must not load the corpus");
+        }).join();
+
+        assertEquals(210.0, stats.fields().get("height").max());
+        verify(client, times(2)).get(any(URI.class), any(Type.class));
+    }
+
+    @Test
+    @DisplayName("Should cache expanded pages and rebuild the entity index from the cached entities")
+    void findPeople_ShouldRebuildTheIndexFromTheCache() {
+        when(client.get(eq(URI.create(BASE_URL + "/people?page=1&limit=10")), any(Type.class)))
+                .thenReturn(CompletableFuture.completedFuture(PagedResponseDto.<PersonRawItemDto>builder()
+                        .message("ok").results(List.of(rawPerson("1"), rawPerson("4")))
+                        .totalRecords(2).totalPages(1).build()));
+        when(client.get(eq(URI.create(BASE_URL + "/people?page=1&limit=10&expanded=true")), any(Type.class)))
+                .thenReturn(CompletableFuture.completedFuture(PagedResponseDto.<PersonDto>builder()
+                        .message("ok")
+                        .results(List.of(person("1", "Luke Skywalker", "172"), person("4", "Darth Vader", "202")))
+                        .totalRecords(2).totalPages(1).build()));
+        EntityQuery tall = EntityQuery.parse(List.of("height:gt:200"), null);
+
+        assertEquals(List.of("4"), swapiAsyncService.findPeople(1, 10, null, tall).join().getResults().stream()
+                .map(PersonRawItemDto::getUid).toList());
+        assertNotNull(swapiCache.peek(SwapiCacheKey.expandedPage(SwapiResource.PEOPLE, 1)));
+        entityIndex.expire(SwapiResource.PEOPLE);
+        swapiAsyncService.findPeople(1, 10, null, tall).join();
+        PagedResponseDto<PersonRawItemDto> rebuilt = swapiAsyncService.findPeople(1, 10, null, tall).join();
+
+        assertEquals(List.of("4"), rebuilt.getResults().stream().map(PersonRawItemDto::getUid).toList());
+        assertEquals("Darth Vader", rebuilt.getResults().get(0).getName());
+        verify(client, times(2)).get(any(URI.class), any(Type.class));
+    }
+
+    private static PersonRawItemDto rawPerson(String uid) {
+        PersonRawItemDto item = new PersonRawItemDto();
+        item.setUid(uid);
+        return item;
+    }
+
+    private static PersonDto person(String uid, String name, String height) {
+        PersonPropertiesDto properties = new PersonPropertiesDto();
+        properties.setName(name);
+        properties.setHeight(height);
+        PersonDto person = person(uid);
+        person.setProperties(properties);
+        return person;
+    }
+
+    private static PersonDto person(String uid) {
+        PersonDto person = new PersonDto();
+        person.setUid(uid);
+        return person;
+    }
+
+    private static PagedResponseDto<PersonRawItemDto> peoplePage(int from, int to) {
+        List<PersonRawItemDto> people = IntStream.rangeClosed(from, to).mapToObj(i -> {
+            PersonRawItemDto item = new PersonRawItemDto();
+            item.setUid(String.valueOf(i));
+            item.setName("Person " + i);
+            return item;
+        }).toList();
+        return PagedResponseDto.<PersonRawItemDto>builder()
+                .message("ok")
+                .results(people)
+                .totalRecords(82)
+                .totalPages(9)
+                .build();
+    }
+}
@@ -0,0 +1,121 @@
+package conexa.starwarschallenge.service;
+
+import conexa.starwarschallenge.config.SwapiBatchProperties;
+import conexa.starwarschallenge.dto.BatchItemDto;
+import conexa.starwarschallenge.dto.BatchResponseDto;
+import conexa.starwarschallenge.dto.PersonDto;
+import conexa.starwarschallenge.dto.SingleResponseDto;
+import conexa.starwarschallenge.exception.BatchTooLargeException;
+import conexa.starwarschallenge.exception.PersonNotFoundException;
+import conexa.starwarschallenge.exception.SwapiUnavailableException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SwapiBatchServiceTest {
+
+    @Mock
+    private SwapiService swapiService;
+
+    private SwapiBatchProperties properties;
+    private SwapiBatchService batchService;
+
+    @BeforeEach
+    void setUp() {
+        properties = new SwapiBatchProperties();
+        batchService = new SwapiBatchService(swapiService, properties, Runnable::run);
+    }
+
+    @Test
+    @DisplayName("Should report each ID separately, keeping request order and dropping duplicates")
+    void findPeopleByIds_ShouldReportPartialFailures() {
+        PersonDto luke = new PersonDto();
+        luke.setUid("1");
+        when(swapiService.findPersonById("1")).thenReturn(new SingleResponseDto<>("ok", luke));
+        when(swapiService.findPersonById("999")).thenThrow(new PersonNotFoundException("999"));
+        when(swapiService.findPersonById("2")).thenThrow(new SwapiUnavailableException("SWAPI people is temporarily unavailable"));
+
+        BatchResponseDto<PersonDto> response = batchService.findPeopleByIds(List.of("1", "999", " 1 ", "2"));
+
+        assertEquals(List.of("1", "999", "2"), response.getResults().stream().map(BatchItemDto::getId).toList());
+        assertSame(luke, response.getResults().get(0).getResult());
+        assertEquals(404, response.getResults().get(1).getStatus());
+        assertEquals("Person with ID 999 not found.", response.getResults().get(1).getError());
+        assertEquals(503, response.getResults().get(2).getStatus());
+        assertEquals(1, response.getSucceeded());
+        assertEquals(2, response.getFailed());
+        verify(swapiService, times(1)).findPersonById("1");
+    }
+
+    @Test
+    @DisplayName("Should hide unexpected error details behind a 500 status")
+    void findPeopleByIds_ShouldMapUnexpectedErrors() {
+        when(swapiService.findPersonById("1")).thenThrow(new IllegalStateException("boom"));
+
+        BatchResponseDto<PersonDto> response = batchService.findPeopleByIds(List.of("1"));
+
+        assertEquals(500, response.getResults().get(0).getStatus());
+        assertEquals("An unexpected error occurred", response.getResults().get(0).getError());
+    }
+
+    @Test
+    @DisplayName("Should reject batches above the configured maximum")
+    void findPeopleByIds_ShouldRejectOversizedBatch() {
+        properties.setMaxSize(2);
+
+        assertThrows(BatchTooLargeException.class, () -> batchService.findPeopleByIds(List.of("1", "2", "3")));
+        verifyNoInteractions(swapiService);
+    }
+
+    @Test
+    @DisplayName("Should never run more upstream lookups at once than the configured parallelism")
+    void findPeopleByIds_ShouldBoundParallelism() throws Exception {
+        properties.setParallelism(3);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        SwapiBatchService parallelService = new SwapiBatchService(swapiService, properties, executor);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(3);
+        when(swapiService.findPersonById(anyString())).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            started.countDown();
+            started.await(5, TimeUnit.SECONDS);
+            TimeUnit.MILLISECONDS.sleep(10);
+            inFlight.decrementAndGet();
+            return new SingleResponseDto<>("ok", new PersonDto());
+        });
+
+        List<String> ids = IntStream.rangeClosed(1, 20).mapToObj(String::valueOf).toList();
+        BatchResponseDto<PersonDto> response = parallelService.findPeopleByIds(ids);
+
+        assertEquals(20, response.getSucceeded());
+        assertEquals(3, maxInFlight.get());
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should return an empty batch when no usable IDs were given")
+    void findPeopleByIds_ShouldIgnoreBlankIds() {
+        BatchResponseDto<PersonDto> response = batchService.findPeopleByIds(List.of(" ", ""));
+
+        assertEquals(Collections.emptyList(), response.getResults());
+        verifyNoInteractions(swapiService);
+    }
+}
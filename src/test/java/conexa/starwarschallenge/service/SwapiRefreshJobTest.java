@@ -0,0 +1,122 @@
+package conexa.starwarschallenge.service;
+
+import conexa.starwarschallenge.config.SwapiRefreshProperties;
+import conexa.starwarschallenge.enums.SwapiResource;
+import conexa.starwarschallenge.service.cache.SwapiCache;
+import conexa.starwarschallenge.service.cache.SwapiL2Cache;
+import conexa.starwarschallenge.service.store.LeaderLease;
+import conexa.starwarschallenge.service.store.SwapiDataVersions;
+import conexa.starwarschallenge.service.store.SwapiEditStamps;
+import conexa.starwarschallenge.service.store.SwapiEntityIndex;
+import conexa.starwarschallenge.service.store.SwapiNameIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SwapiRefreshJobTest {
+
+    @Mock
+    private SwapiService swapiService;
+    @Mock
+    private SwapiCache swapiCache;
+    @Mock
+    private SwapiL2Cache l2Cache;
+    @Mock
+    private SwapiNameIndex nameIndex;
+    @Mock
+    private SwapiEntityIndex entityIndex;
+    @Mock
+    private LeaderLease leaderLease;
+    @Mock
+    private SwapiDataVersions dataVersions;
+    @Mock
+    private SwapiEditStamps editStamps;
+
+    private SwapiRefreshJob job;
+
+    @BeforeEach
+    void setUp() {
+        job = new SwapiRefreshJob(swapiService, swapiCache, l2Cache, nameIndex, entityIndex, leaderLease, dataVersions, editStamps,
+                new SwapiRefreshProperties());
+    }
+
+    @Test
+    @DisplayName("Should not touch SWAPI without holding the refresh lease")
+    void refresh_ShouldSkipWithoutLease() {
+        when(leaderLease.tryAcquire(eq(SwapiRefreshJob.LEASE_NAME), any())).thenReturn(false);
+
+        job.refresh();
+
+        verifyNoInteractions(swapiService, dataVersions);
+    }
+
+    @Test
+    @DisplayName("Should flush the shared cache before publishing a version for changed resources")
+    void refresh_ShouldPublishVersionsForChangedResources() {
+        when(leaderLease.tryAcquire(eq(SwapiRefreshJob.LEASE_NAME), any())).thenReturn(true);
+        Map<String, String> peopleStamps = new HashMap<>(Map.of("1", "2014-12-20T21:17:56.891Z"));
+        when(editStamps.load(any())).thenReturn(new HashMap<>());
+        when(editStamps.load(SwapiResource.PEOPLE)).thenReturn(peopleStamps);
+        when(swapiService.refresh(any(), any())).thenReturn(0);
+        when(swapiService.refresh(SwapiResource.PEOPLE, peopleStamps)).thenReturn(3);
+        when(dataVersions.publish(SwapiResource.PEOPLE)).thenReturn(7L);
+
+        job.refresh();
+
+        InOrder inOrder = inOrder(l2Cache, dataVersions, editStamps);
+        inOrder.verify(l2Cache).flush();
+        inOrder.verify(dataVersions).publish(SwapiResource.PEOPLE);
+        inOrder.verify(editStamps).save(SwapiResource.PEOPLE, peopleStamps);
+        verify(dataVersions, never()).publish(SwapiResource.FILMS);
+        verify(editStamps, never()).save(eq(SwapiResource.FILMS), any());
+
+        // The leader already has the new data and must not drop it when it sees its own version.
+        when(dataVersions.current()).thenReturn(Map.of(SwapiResource.PEOPLE, 7L));
+        job.pollVersions();
+        verify(swapiCache, never()).invalidate(any(SwapiResource.class));
+    }
+
+    @Test
+    @DisplayName("Should renew the lease before each resource and stop once it is lost")
+    void refresh_ShouldStopWhenTheLeaseIsLost() {
+        when(leaderLease.tryAcquire(eq(SwapiRefreshJob.LEASE_NAME), any())).thenReturn(true, true, false);
+        when(editStamps.load(any())).thenReturn(new HashMap<>());
+
+        job.refresh();
+
+        verify(leaderLease, times(3)).tryAcquire(eq(SwapiRefreshJob.LEASE_NAME), any());
+        verify(swapiService).refresh(eq(SwapiResource.FILMS), any());
+        verify(swapiService).refresh(eq(SwapiResource.PEOPLE), any());
+        verify(swapiService, never()).refresh(eq(SwapiResource.STARSHIPS), any());
+    }
+
+    @Test
+    @DisplayName("Should drop local copies when another node publishes a newer version")
+    void pollVersions_ShouldInvalidateOnNewVersion() {
+        when(dataVersions.current())
+                .thenReturn(Map.of(SwapiResource.STARSHIPS, 1L))
+                .thenReturn(Map.of(SwapiResource.STARSHIPS, 1L))
+                .thenReturn(Map.of(SwapiResource.STARSHIPS, 2L));
+
+        job.pollVersions();
+        job.pollVersions();
+        verify(swapiCache, never()).invalidate(any(SwapiResource.class));
+
+        job.pollVersions();
+        verify(swapiCache).invalidate(SwapiResource.STARSHIPS);
+        verify(nameIndex).invalidate(SwapiResource.STARSHIPS);
+        verify(entityIndex).expire(SwapiResource.STARSHIPS);
+    }
+}
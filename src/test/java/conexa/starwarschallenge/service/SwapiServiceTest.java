@@ -1,5 +1,13 @@
 package conexa.starwarschallenge.service;
 
+import conexa.starwarschallenge.config.SwapiCacheProperties;
+import conexa.starwarschallenge.config.SwapiCircuitBreakerProperties;
+import conexa.starwarschallenge.config.SwapiConcurrencyProperties;
+import conexa.starwarschallenge.config.SwapiHedgingProperties;
+import conexa.starwarschallenge.config.SwapiIndexProperties;
+import conexa.starwarschallenge.config.SwapiL2CacheProperties;
+import conexa.starwarschallenge.config.SwapiPagingProperties;
+import conexa.starwarschallenge.config.SwapiRateLimitProperties;
 import conexa.starwarschallenge.dto.PagedResponseDto;
 import conexa.starwarschallenge.dto.PersonDto;
 import conexa.starwarschallenge.dto.PersonPropertiesDto;
@@ -13,31 +21,46 @@ import conexa.starwarschallenge.dto.VehicleRawItemDto;
 import conexa.starwarschallenge.dto.FilmRawItemDto;
 import conexa.starwarschallenge.dto.SearchResponseDto;
 import conexa.starwarschallenge.dto.SingleResponseDto;
+import conexa.starwarschallenge.enums.SwapiResource;
 import conexa.starwarschallenge.exception.PersonNotFoundException;
 import conexa.starwarschallenge.exception.StarshipNotFoundException;
 import conexa.starwarschallenge.exception.VehicleNotFoundException;
 import conexa.starwarschallenge.exception.FilmNotFoundException;
+import conexa.starwarschallenge.service.cache.SingleFlight;
+import conexa.starwarschallenge.repository.SwapiCacheEntryRepository;
+import conexa.starwarschallenge.service.cache.SwapiCache;
+import conexa.starwarschallenge.service.cache.SwapiL2Cache;
+import conexa.starwarschallenge.service.resilience.SwapiHedger;
+import conexa.starwarschallenge.service.resilience.SwapiRateLimiter;
+import conexa.starwarschallenge.service.resilience.SwapiUpstreamGuard;
+import conexa.starwarschallenge.service.store.SwapiNameIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -52,14 +75,39 @@ class SwapiServiceTest {
     @Mock
     private RestTemplate restTemplate;
 
-    @InjectMocks
     private SwapiService swapiService;
+    private SwapiIndexProperties indexProperties;
+    private SwapiUpstreamGuard upstreamGuard;
 
     private String swapiBaseUrl = "http://swapi.dev/api";
 
     @BeforeEach
     void setUp() {
-        ReflectionTestUtils.setField(swapiService, "swapiBaseUrl", swapiBaseUrl);
+        // Name searches go upstream unless a test opts into the local index.
+        indexProperties = new SwapiIndexProperties();
+        indexProperties.setEnabled(false);
+        swapiService = service(new SwapiRateLimitProperties(), new SwapiConcurrencyProperties());
+    }
+
+    private SwapiService service(SwapiRateLimitProperties rateLimitProperties, SwapiConcurrencyProperties concurrencyProperties) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SwapiL2CacheProperties l2Properties = new SwapiL2CacheProperties();
+        l2Properties.setEnabled(false);
+        SwapiRateLimiter rateLimiter = new SwapiRateLimiter(rateLimitProperties, meterRegistry);
+        upstreamGuard = new SwapiUpstreamGuard(new SwapiCircuitBreakerProperties(), concurrencyProperties, meterRegistry);
+        SwapiService service = new SwapiService(
+                restTemplate,
+                new SwapiCache(new SwapiCacheProperties(), meterRegistry, Runnable::run),
+                new SwapiL2Cache(l2Properties, mock(SwapiCacheEntryRepository.class), mock(PlatformTransactionManager.class), meterRegistry),
+                new SingleFlight(meterRegistry),
+                rateLimiter,
+                upstreamGuard,
+                new SwapiHedger(new SwapiHedgingProperties(), rateLimiter, meterRegistry, Runnable::run),
+                new SwapiPagingProperties(),
+                new SwapiNameIndex(indexProperties, meterRegistry, Runnable::run),
+                Runnable::run);
+        ReflectionTestUtils.setField(service, "swapiBaseUrl", swapiBaseUrl);
+        return service;
     }
 
     @Test
@@ -82,6 +130,7 @@ class SwapiServiceTest {
         URI expectedUri = UriComponentsBuilder.fromUriString(swapiBaseUrl)
                 .path("/people")
                 .queryParam("page", page)
+                .queryParam("limit", 10)
                 .build().toUri();
 
         when(restTemplate.exchange(
@@ -227,6 +276,7 @@ class SwapiServiceTest {
         URI expectedUri = UriComponentsBuilder.fromUriString(swapiBaseUrl)
                 .path("/people")
                 .queryParam("page", page)
+                .queryParam("limit", 10)
                 .build().toUri();
 
         when(restTemplate.exchange(
@@ -270,6 +320,7 @@ class SwapiServiceTest {
         URI expectedUri = UriComponentsBuilder.fromUriString(swapiBaseUrl)
                 .path("/films")
                 .queryParam("page", page)
+                .queryParam("limit", 10)
                 .build().toUri();
 
         when(restTemplate.exchange(
@@ -497,4 +548,282 @@ class SwapiServiceTest {
                 any(ParameterizedTypeReference.class)
         );
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should serve repeated lookups by ID from the cache")
+    void findPersonById_ShouldUseCacheOnRepeatedCalls() {
+        String id = "1";
+        PersonDto personDto = new PersonDto();
+        personDto.setUid(id);
+        SingleResponseDto<PersonDto> mockResponse = new SingleResponseDto<>();
+        mockResponse.setResult(personDto);
+
+        String expectedUri = UriComponentsBuilder.fromUriString(swapiBaseUrl)
+                .path("/people/{id}")
+                .buildAndExpand(id).toUriString();
+
+        when(restTemplate.exchange(
+                eq(expectedUri),
+                eq(HttpMethod.GET),
+                eq(null),
+                any(ParameterizedTypeReference.class)
+        )).thenReturn(new ResponseEntity<>(mockResponse, HttpStatus.OK));
+
+        SingleResponseDto<PersonDto> first = swapiService.findPersonById(id);
+        SingleResponseDto<PersonDto> second = swapiService.findPersonById(id);
+
+        assertEquals(first, second);
+        verify(restTemplate, times(1)).exchange(
+                eq(expectedUri),
+                eq(HttpMethod.GET),
+                eq(null),
+                any(ParameterizedTypeReference.class)
+        );
+    }
+
+    @Test
+    @DisplayName("Should not cache lookups that fail upstream")
+    void findVehicleById_ShouldNotCacheFailures() {
+        String id = "999";
+        String expectedUri = UriComponentsBuilder.fromUriString(swapiBaseUrl)
+                .path("/vehicles/{id}")
+                .buildAndExpand(id).toUriString();
+
+        when(restTemplate.exchange(
+                eq(expectedUri),
+                eq(HttpMethod.GET),
+                eq(null),
+                any(ParameterizedTypeReference.class)
+        )).thenThrow(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null));
+
+        assertThrows(VehicleNotFoundException.class, () -> swapiService.findVehicleById(id));
+        assertThrows(VehicleNotFoundException.class, () -> swapiService.findVehicleById(id));
+
+        verify(restTemplate, times(2)).exchange(
+                eq(expectedUri),
+                eq(HttpMethod.GET),
+                eq(null),
+                any(ParameterizedTypeReference.class)
+        );
+    }
+
+    @Test
+    @DisplayName("Should stitch and slice upstream pages to serve an arbitrary page/limit window")
+    void findPeople_ShouldRepackUpstreamPages() {
+        stubPeoplePage(2, 82);
+        stubPeoplePage(3, 82);
+
+        PagedResponseDto<PersonRawItemDto> result = swapiService.findPeople(2, 15, null);
+
+        assertEquals(15, result.getResults().size());
+        assertEquals("16", result.getResults().get(0).getUid());
+        assertEquals("30", result.getResults().get(14).getUid());
+        assertEquals(82, result.getTotalRecords());
+        assertEquals(6, result.getTotalPages());
+        verify(restTemplate, times(2)).exchange(any(URI.class), eq(HttpMethod.GET), eq(null), any(ParameterizedTypeReference.class));
+    }
+
+    @Test
+    @DisplayName("Should report the collection totals for a window past the end of the collection")
+    void findPeople_ShouldKeepTotalsPastTheEnd() {
+        stubPeoplePage(1, 82);
+        URI pastTheEnd = UriComponentsBuilder.fromUriString(swapiBaseUrl)
+                .path("/people")
+                .queryParam("page", 20)
+                .queryParam("limit", 10)
+                .build().toUri();
+        when(restTemplate.exchange(eq(pastTheEnd), eq(HttpMethod.GET), eq(null), any(ParameterizedTypeReference.class)))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", HttpHeaders.EMPTY, null, null));
+
+        PagedResponseDto<PersonRawItemDto> result = swapiService.findPeople(20, 10, null);
+
+        assertTrue(result.getResults().isEmpty());
+        assertEquals(82, result.getTotalRecords());
+        assertEquals(9, result.getTotalPages());
+    }
+
+    @Test
+    @DisplayName("Should not count waiting for an outbound permit as SWAPI latency")
+    void findPersonById_ShouldNotLowerTheConcurrencyLimitWhenThrottled() {
+        SwapiRateLimitProperties rateLimit = new SwapiRateLimitProperties();
+        rateLimit.setPermitsPerSecond(5);
+        rateLimit.setBurst(1);
+        SwapiConcurrencyProperties concurrency = new SwapiConcurrencyProperties();
+        concurrency.setLatencyThreshold(Duration.ofMillis(100));
+        SwapiService throttled = service(rateLimit, concurrency);
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), eq(null), any(ParameterizedTypeReference.class)))
+                .thenReturn(new ResponseEntity<>(new SingleResponseDto<>("ok", new PersonDto()), HttpStatus.OK));
+
+        long start = System.nanoTime();
+        throttled.findPersonById("1");
+        throttled.findPersonById("2");
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofMillis(150)) > 0, "The second call waits for a permit");
+        assertEquals(concurrency.getInitialLimit(), upstreamGuard.status().concurrencyLimit());
+    }
+
+    @Test
+    @DisplayName("Should clamp the upstream pages of a huge page number instead of overflowing")
+    void upstreamRange_ShouldNotOverflowForHugePages() {
+        SwapiPaging.UpstreamRange range = SwapiPaging.UpstreamRange.of(Integer.MAX_VALUE, 100, 10);
+
+        assertEquals(Integer.MAX_VALUE, range.firstPage());
+        assertEquals(Integer.MAX_VALUE, range.lastPage());
+        assertTrue(range.skip() > 0);
+        assertEquals(new SwapiPaging.UpstreamRange(2, 3, 5), SwapiPaging.UpstreamRange.of(2, 15, 10));
+    }
+
+    @Test
+    @DisplayName("Should reuse cached upstream pages for overlapping windows")
+    void findPeople_ShouldReuseCachedPagesForOverlappingWindows() {
+        stubPeoplePage(1, 82);
+        stubPeoplePage(2, 82);
+
+        swapiService.findPeople(1, 20, null);
+        PagedResponseDto<PersonRawItemDto> result = swapiService.findPeople(2, 5, null);
+
+        assertEquals("6", result.getResults().get(0).getUid());
+        verify(restTemplate, times(2)).exchange(any(URI.class), eq(HttpMethod.GET), eq(null), any(ParameterizedTypeReference.class));
+    }
+
+    @Test
+    @DisplayName("Should slice search results with the requested page and limit")
+    void findPeople_ShouldPageSearchResults() {
+        List<PersonRawItemDto> matches = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            matches.add(person(i));
+        }
+        SearchResponseDto<PersonRawItemDto> mockSearchResponse = new SearchResponseDto<>("ok", matches);
+        URI expectedUri = UriComponentsBuilder.fromUriString(swapiBaseUrl)
+                .path("/people")
+                .queryParam("search", "Sky")
+                .build().toUri();
+        when(restTemplate.exchange(eq(expectedUri), eq(HttpMethod.GET), eq(null), any(ParameterizedTypeReference.class)))
+                .thenReturn(new ResponseEntity<>(mockSearchResponse, HttpStatus.OK));
+
+        PagedResponseDto<PersonRawItemDto> result = swapiService.findPeople(2, 2, "Sky");
+
+        assertEquals(2, result.getResults().size());
+        assertEquals("3", result.getResults().get(0).getUid());
+        assertEquals(5, result.getTotalRecords());
+        assertEquals(3, result.getTotalPages());
+    }
+
+    @Test
+    @DisplayName("Should answer name searches from the local index once the collection has been crawled")
+    void findPeople_ShouldSearchLocalIndex() {
+        indexProperties.setEnabled(true);
+        stubPeoplePage(1, 12);
+        stubPeoplePage(2, 12);
+
+        PagedResponseDto<PersonRawItemDto> result = swapiService.findPeople(1, 10, "PERSON 1");
+
+        assertEquals(List.of("1", "10", "11", "12"), result.getResults().stream().map(PersonRawItemDto::getUid).toList());
+        assertEquals(4, result.getTotalRecords());
+        assertEquals(1, result.getTotalPages());
+        verify(restTemplate, times(2)).exchange(any(URI.class), eq(HttpMethod.GET), eq(null), any(ParameterizedTypeReference.class));
+    }
+
+    @Test
+    @DisplayName("Should crawl every list page and rebuild the name index from it")
+    void crawlAndIndex_ShouldCrawlAllPagesAndIndexNames() {
+        indexProperties.setEnabled(true);
+        stubPeoplePage(1, 25);
+        stubPeoplePage(2, 25);
+        stubPeoplePage(3, 25);
+
+        List<String> uids = swapiService.crawlAndIndex(SwapiResource.PEOPLE);
+        PagedResponseDto<PersonRawItemDto> search = swapiService.findPeople(1, 10, "person 25");
+
+        assertEquals(25, uids.size());
+        assertEquals("25", search.getResults().get(0).getUid());
+        verify(restTemplate, times(3)).exchange(any(URI.class), eq(HttpMethod.GET), eq(null), any(ParameterizedTypeReference.class));
+    }
+
+    @Test
+    @DisplayName("Should replace only the entities whose edited timestamp changed")
+    void refresh_ShouldUpdateChangedEntitiesOnly() {
+        PersonDto cachedLuke = personWithEdited("1", "2014-12-20T21:17:56.891Z");
+        when(restTemplate.exchange(eq(swapiBaseUrl + "/people/1"), eq(HttpMethod.GET), eq(null), any(ParameterizedTypeReference.class)))
+                .thenReturn(new ResponseEntity<>(new SingleResponseDto<>("ok", cachedLuke), HttpStatus.OK));
+        swapiService.findPersonById("1");
+
+        PersonDto leia = personWithEdited("5", "2024-01-01T00:00:00.000Z");
+        URI expandedUri = UriComponentsBuilder.fromUriString(swapiBaseUrl)
+                .path("/people")
+                .queryParam("page", 1)
+                .queryParam("limit", 10)
+                .queryParam("expanded", true)
+                .build().toUri();
+        when(restTemplate.exchange(eq(expandedUri), eq(HttpMethod.GET), eq(null), any(ParameterizedTypeReference.class)))
+                .thenReturn(new ResponseEntity<>(new PagedResponseDto<>(
+                        List.of(personWithEdited("1", "2014-12-20T21:17:56.891Z"), leia), "ok", 2, 1), HttpStatus.OK));
+        stubPeoplePage(1, 2);
+
+        Map<String, String> edited = new HashMap<>(Map.of("1", "2014-12-20T21:17:56.891Z", "9", "2014-12-20T21:17:50.000Z"));
+        int changed = swapiService.refresh(SwapiResource.PEOPLE, edited);
+
+        assertEquals(2, changed, "Leia was added and person 9 is gone");
+        assertEquals(Map.of("1", "2014-12-20T21:17:56.891Z", "5", "2024-01-01T00:00:00.000Z"), edited);
+        assertEquals(cachedLuke, swapiService.findPersonById("1").getResult());
+        assertEquals(leia, swapiService.findPersonById("5").getResult());
+        verify(restTemplate, times(1)).exchange(eq(swapiBaseUrl + "/people/1"), eq(HttpMethod.GET), eq(null), any(ParameterizedTypeReference.class));
+        verify(restTemplate, never()).exchange(eq(swapiBaseUrl + "/people/5"), eq(HttpMethod.GET), eq(null), any(ParameterizedTypeReference.class));
+    }
+
+    @Test
+    @DisplayName("Should count only moved edited timestamps as changes, whatever the local cache holds")
+    void refresh_ShouldCompareAgainstTheStoredTimestamps() {
+        URI expandedUri = UriComponentsBuilder.fromUriString(swapiBaseUrl)
+                .path("/people")
+                .queryParam("page", 1)
+                .queryParam("limit", 10)
+                .queryParam("expanded", true)
+                .build().toUri();
+        when(restTemplate.exchange(eq(expandedUri), eq(HttpMethod.GET), eq(null), any(ParameterizedTypeReference.class)))
+                .thenReturn(new ResponseEntity<>(new PagedResponseDto<>(List.of(
+                        personWithEdited("1", "2014-12-20T21:17:56.891Z"),
+                        personWithEdited("2", "2024-01-01T00:00:00.000Z")), "ok", 2, 1), HttpStatus.OK));
+        stubPeoplePage(1, 2);
+        Map<String, String> edited = new HashMap<>(Map.of("1", "2014-12-20T21:17:56.891Z", "2", "2024-01-01T00:00:00.000Z"));
+
+        assertEquals(0, swapiService.refresh(SwapiResource.PEOPLE, edited), "Nothing is cached here, yet nothing moved");
+
+        edited.put("2", "2014-12-20T21:17:50.000Z");
+        assertEquals(1, swapiService.refresh(SwapiResource.PEOPLE, edited));
+        verify(restTemplate, never()).exchange(eq(swapiBaseUrl + "/people/2"), eq(HttpMethod.GET), eq(null), any(ParameterizedTypeReference.class));
+        assertEquals("2024-01-01T00:00:00.000Z", swapiService.findPersonById("2").getResult().getProperties().getEdited());
+    }
+
+    private static PersonDto personWithEdited(String uid, String edited) {
+        PersonPropertiesDto properties = new PersonPropertiesDto();
+        properties.setEdited(edited);
+        PersonDto person = new PersonDto();
+        person.setUid(uid);
+        person.setProperties(properties);
+        return person;
+    }
+
+    private void stubPeoplePage(int page, int totalRecords) {
+        List<PersonRawItemDto> people = new ArrayList<>();
+        for (int i = (page - 1) * 10 + 1; i <= Math.min(page * 10, totalRecords); i++) {
+            people.add(person(i));
+        }
+        PagedResponseDto<PersonRawItemDto> body = new PagedResponseDto<>(people, "ok", totalRecords, (totalRecords + 9) / 10);
+        URI uri = UriComponentsBuilder.fromUriString(swapiBaseUrl)
+                .path("/people")
+                .queryParam("page", page)
+                .queryParam("limit", 10)
+                .build().toUri();
+        when(restTemplate.exchange(eq(uri), eq(HttpMethod.GET), eq(null), any(ParameterizedTypeReference.class)))
+                .thenReturn(new ResponseEntity<>(body, HttpStatus.OK));
+    }
+
+    private static PersonRawItemDto person(int uid) {
+        PersonRawItemDto person = new PersonRawItemDto();
+        person.setUid(String.valueOf(uid));
+        person.setName("Person " + uid);
+        person.setUrl("https://www.swapi.tech/api/people/" + uid);
+        return person;
+    }
+}
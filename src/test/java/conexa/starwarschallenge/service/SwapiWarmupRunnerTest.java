@@ -0,0 +1,117 @@
+package conexa.starwarschallenge.service;
+
+import conexa.starwarschallenge.config.SwapiBatchProperties;
+import conexa.starwarschallenge.config.SwapiSnapshotProperties;
+import conexa.starwarschallenge.config.SwapiWarmupProperties;
+import conexa.starwarschallenge.dto.PersonDto;
+import conexa.starwarschallenge.dto.SingleResponseDto;
+import conexa.starwarschallenge.enums.SwapiResource;
+import conexa.starwarschallenge.exception.SwapiUnavailableException;
+import conexa.starwarschallenge.exception.TooManyRequestsException;
+import conexa.starwarschallenge.service.store.SwapiSnapshotStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SwapiWarmupRunnerTest {
+
+    @Mock
+    private SwapiService swapiService;
+
+    @Mock
+    private SwapiSnapshotStore snapshotStore;
+
+    private SwapiWarmupProperties properties;
+    private SwapiSnapshotProperties snapshotProperties;
+    private SwapiWarmupRunner runner;
+
+    @BeforeEach
+    void setUp() {
+        properties = new SwapiWarmupProperties();
+        properties.setRetryBackoff(Duration.ZERO);
+        snapshotProperties = new SwapiSnapshotProperties();
+        runner = new SwapiWarmupRunner(swapiService,
+                new SwapiBatchService(swapiService, new SwapiBatchProperties(), Runnable::run), properties,
+                snapshotStore, snapshotProperties);
+    }
+
+    @Test
+    @DisplayName("Should crawl the list pages and then load every entity")
+    void warmUp_ShouldLoadListAndDetails() {
+        when(swapiService.crawlAndIndex(SwapiResource.PEOPLE)).thenReturn(List.of("1", "2"));
+        when(swapiService.findPersonById(any())).thenReturn(new SingleResponseDto<>("ok", new PersonDto()));
+
+        runner.warmUp(SwapiResource.PEOPLE);
+
+        verify(swapiService).findPersonById("1");
+        verify(swapiService).findPersonById("2");
+    }
+
+    @Test
+    @DisplayName("Should back off and retry when the outbound budget is exhausted")
+    void warmUp_ShouldRetryRateLimitedCalls() {
+        when(swapiService.crawlAndIndex(SwapiResource.FILMS))
+                .thenThrow(new TooManyRequestsException("Too Many Requests"))
+                .thenReturn(List.of("1"));
+        properties.setIncludeDetails(false);
+
+        runner.warmUp(SwapiResource.FILMS);
+
+        verify(swapiService, times(2)).crawlAndIndex(SwapiResource.FILMS);
+        verify(swapiService, never()).findFilmById(any());
+    }
+
+    @Test
+    @DisplayName("Should keep warming the remaining resources when one of them fails")
+    void run_ShouldContinueAfterFailures() {
+        when(swapiService.crawlAndIndex(SwapiResource.FILMS)).thenThrow(new SwapiUnavailableException("SWAPI films is temporarily unavailable"));
+        when(swapiService.crawlAndIndex(SwapiResource.PEOPLE)).thenReturn(List.of());
+        when(swapiService.crawlAndIndex(SwapiResource.STARSHIPS)).thenReturn(List.of());
+        when(swapiService.crawlAndIndex(SwapiResource.VEHICLES)).thenReturn(List.of());
+
+        assertDoesNotThrow(() -> runner.run(null));
+
+        verify(swapiService, times(1)).crawlAndIndex(SwapiResource.FILMS);
+        verify(swapiService).crawlAndIndex(SwapiResource.VEHICLES);
+        verifyNoInteractions(snapshotStore);
+    }
+
+    @Test
+    @DisplayName("Should restore a recent snapshot instead of crawling the entities")
+    void run_ShouldRestoreSnapshot() {
+        snapshotProperties.setEnabled(true);
+        when(snapshotStore.load()).thenReturn(Optional.of(Instant.now()));
+
+        runner.run(null);
+
+        verify(swapiService).crawlAndIndex(SwapiResource.PEOPLE);
+        verify(swapiService, never()).findPersonById(any());
+        verify(snapshotStore, never()).save();
+    }
+
+    @Test
+    @DisplayName("Should write a snapshot after a complete crawl when no usable snapshot exists")
+    void run_ShouldSaveSnapshotAfterCrawl() {
+        snapshotProperties.setEnabled(true);
+        properties.setIncludeDetails(false);
+        when(snapshotStore.load()).thenReturn(Optional.empty());
+        when(swapiService.crawlAndIndex(any())).thenReturn(List.of());
+
+        runner.run(null);
+
+        verify(snapshotStore).save();
+    }
+}
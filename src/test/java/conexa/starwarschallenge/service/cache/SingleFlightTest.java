@@ -0,0 +1,125 @@
+package conexa.starwarschallenge.service.cache;
+
+import conexa.starwarschallenge.enums.SwapiResource;
+import conexa.starwarschallenge.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    private final SingleFlight singleFlight = new SingleFlight(new SimpleMeterRegistry());
+    private final SwapiCacheKey key = SwapiCacheKey.byId(SwapiResource.FILMS, "1");
+
+    @Test
+    @DisplayName("Should share a single upstream call between concurrent callers")
+    void execute_ShouldCoalesceConcurrentCalls() throws Exception {
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> singleFlight.execute(key, () -> {
+                upstreamCalls.incrementAndGet();
+                await(release);
+                return "A New Hope";
+            })));
+        }
+        waitForInFlight();
+        TimeUnit.MILLISECONDS.sleep(100);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals("A New Hope", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(0, singleFlight.inFlightCount());
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should propagate the upstream exception to every waiting caller")
+    void execute_ShouldShareExceptions() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> singleFlight.execute(key, () -> {
+                await(release);
+                throw new TooManyRequestsException("Too Many Requests");
+            })));
+        }
+        waitForInFlight();
+        TimeUnit.MILLISECONDS.sleep(100);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            Exception ex = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(TooManyRequestsException.class, ex.getCause());
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should call upstream again once the previous call completed")
+    void execute_ShouldNotReuseCompletedCalls() {
+        AtomicInteger upstreamCalls = new AtomicInteger();
+
+        singleFlight.execute(key, upstreamCalls::incrementAndGet);
+        singleFlight.execute(key, upstreamCalls::incrementAndGet);
+
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    @DisplayName("Should share one pending asynchronous call and release the key once it completes")
+    void executeAsync_ShouldCoalesceUntilCompletion() {
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+
+        CompletableFuture<String> first = singleFlight.executeAsync(key, () -> {
+            upstreamCalls.incrementAndGet();
+            return upstream;
+        });
+        CompletableFuture<String> second = singleFlight.executeAsync(key, () -> {
+            upstreamCalls.incrementAndGet();
+            return CompletableFuture.completedFuture("unused");
+        });
+        upstream.complete("A New Hope");
+
+        assertEquals("A New Hope", first.join());
+        assertEquals("A New Hope", second.join());
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    private void waitForInFlight() throws InterruptedException {
+        while (singleFlight.inFlightCount() == 0) {
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
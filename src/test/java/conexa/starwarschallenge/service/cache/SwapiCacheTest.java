@@ -0,0 +1,234 @@
+package conexa.starwarschallenge.service.cache;
+
+import conexa.starwarschallenge.config.SwapiCacheProperties;
+import conexa.starwarschallenge.dto.PersonDto;
+import conexa.starwarschallenge.dto.PersonPropertiesDto;
+import conexa.starwarschallenge.dto.SingleResponseDto;
+import conexa.starwarschallenge.enums.SwapiResource;
+import conexa.starwarschallenge.exception.PersonNotFoundException;
+import conexa.starwarschallenge.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SwapiCacheTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final SwapiCacheKey key = SwapiCacheKey.byId(SwapiResource.PEOPLE, "1");
+
+    @BeforeEach
+    void setUp() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("Should count hits and misses per resource")
+    void get_ShouldRecordHitsAndMisses() {
+        SwapiCache cache = new SwapiCache(new SwapiCacheProperties(), new SimpleMeterRegistry(), Runnable::run);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(SwapiCacheKey.byId(SwapiResource.PEOPLE, "1"), () -> "Luke-" + loads.incrementAndGet());
+        String cached = cache.get(SwapiCacheKey.byId(SwapiResource.PEOPLE, "1"), () -> "Luke-" + loads.incrementAndGet());
+
+        assertEquals("Luke-1", cached);
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.stats(SwapiResource.PEOPLE).hitCount());
+        assertEquals(1, cache.stats(SwapiResource.PEOPLE).missCount());
+        assertEquals(0, cache.stats(SwapiResource.FILMS).requestCount());
+    }
+
+    @Test
+    @DisplayName("Should evict entries beyond the configured per-resource capacity")
+    void get_ShouldEvictBeyondCapacity() {
+        SwapiCacheProperties properties = new SwapiCacheProperties();
+        SwapiCacheProperties.ResourceCache films = new SwapiCacheProperties.ResourceCache();
+        films.setMaxSize(1L);
+        properties.getResources().put(SwapiResource.FILMS, films);
+        SwapiCache cache = new SwapiCache(properties, new SimpleMeterRegistry(), Runnable::run);
+
+        for (int i = 0; i < 20; i++) {
+            String id = String.valueOf(i);
+            cache.get(SwapiCacheKey.byId(SwapiResource.FILMS, id), () -> id);
+        }
+        cache.cleanUp();
+
+        assertTrue(cache.stats(SwapiResource.FILMS).evictionCount() >= 19);
+    }
+
+    @Test
+    @DisplayName("Should always call the loader when caching is disabled")
+    void get_ShouldBypassWhenDisabled() {
+        SwapiCacheProperties properties = new SwapiCacheProperties();
+        properties.setEnabled(false);
+        SwapiCache cache = new SwapiCache(properties, new SimpleMeterRegistry(), Runnable::run);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(SwapiCacheKey.page(SwapiResource.STARSHIPS, 1), loads::incrementAndGet);
+        cache.get(SwapiCacheKey.page(SwapiResource.STARSHIPS, 1), loads::incrementAndGet);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should serve the stale value and refresh it in the background after the soft TTL")
+    void get_ShouldServeStaleWhileRevalidating() {
+        List<Runnable> refreshes = new ArrayList<>();
+        SwapiCache cache = new SwapiCache(ttlProperties(), new SimpleMeterRegistry(), refreshes::add, nanos::get);
+
+        cache.get(key, () -> "v1");
+        advance(Duration.ofMinutes(2));
+        String stale = cache.get(key, () -> "v2");
+        cache.get(key, () -> "v3");
+
+        assertEquals("v1", stale);
+        assertEquals(1, refreshes.size(), "Only one background refresh should be scheduled per key");
+        assertEquals(Duration.ofMinutes(2), StaleResponses.staleAge());
+
+        refreshes.get(0).run();
+        assertEquals("v2", cache.get(key, () -> "v4"));
+    }
+
+    @Test
+    @DisplayName("Should serve the last known good value when the upstream fails before the hard TTL")
+    void get_ShouldServeStaleOnUpstreamError() {
+        SwapiCacheProperties properties = ttlProperties();
+        properties.setStaleWhileRevalidate(false);
+        SwapiCache cache = new SwapiCache(properties, new SimpleMeterRegistry(), Runnable::run, nanos::get);
+
+        cache.get(key, () -> "v1");
+        advance(Duration.ofMinutes(5));
+        String value = cache.get(key, () -> {
+            throw new TooManyRequestsException("Too Many Requests");
+        });
+
+        assertEquals("v1", value);
+        assertNotNull(StaleResponses.staleAge());
+    }
+
+    @Test
+    @DisplayName("Should serve the last known good value when an asynchronous reload fails upstream")
+    void getAsync_ShouldServeStaleOnUpstreamError() {
+        SwapiCacheProperties properties = ttlProperties();
+        properties.setStaleWhileRevalidate(false);
+        SwapiCache cache = new SwapiCache(properties, new SimpleMeterRegistry(), Runnable::run, nanos::get);
+
+        cache.getAsync(key, () -> CompletableFuture.completedFuture("v1")).join();
+        advance(Duration.ofMinutes(5));
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        CompletableFuture<String> value = cache.getAsync(key, () -> upstream);
+        upstream.completeExceptionally(new TooManyRequestsException("Too Many Requests"));
+
+        assertEquals("v1", value.join());
+        assertEquals(Duration.ofMinutes(5), StaleResponses.staleAge());
+    }
+
+    @Test
+    @DisplayName("Should not hide errors that are not upstream failures")
+    void get_ShouldRethrowNonUpstreamErrors() {
+        SwapiCacheProperties properties = ttlProperties();
+        properties.setStaleWhileRevalidate(false);
+        SwapiCache cache = new SwapiCache(properties, new SimpleMeterRegistry(), Runnable::run, nanos::get);
+
+        cache.get(key, () -> "v1");
+        advance(Duration.ofMinutes(5));
+
+        assertThrows(PersonNotFoundException.class, () -> cache.get(key, () -> {
+            throw new PersonNotFoundException("1");
+        }));
+    }
+
+    @Test
+    @DisplayName("Should drop entries after the hard TTL")
+    void get_ShouldExpireAfterHardTtl() {
+        SwapiCache cache = new SwapiCache(ttlProperties(), new SimpleMeterRegistry(), Runnable::run, nanos::get);
+
+        cache.get(key, () -> "v1");
+        advance(Duration.ofMinutes(11));
+
+        assertThrows(TooManyRequestsException.class, () -> cache.get(key, () -> {
+            throw new TooManyRequestsException("Too Many Requests");
+        }));
+        assertNull(StaleResponses.staleAge());
+    }
+
+    @Test
+    @DisplayName("Should keep the age of a value found in the L2 and revalidate it without reading the L2 again")
+    void get_ShouldKeepTheAgeOfPromotedValues() {
+        List<Runnable> refreshes = new ArrayList<>();
+        SwapiCache cache = new SwapiCache(ttlProperties(), new SimpleMeterRegistry(), refreshes::add, nanos::get);
+        AtomicInteger lookups = new AtomicInteger();
+
+        String value = cache.get(key,
+                () -> {
+                    lookups.incrementAndGet();
+                    return new AgedValue<>("from-l2", Duration.ofMinutes(2));
+                },
+                () -> AgedValue.fresh("from-swapi"));
+
+        assertEquals("from-l2", value);
+        assertEquals(Duration.ofMinutes(2), StaleResponses.staleAge());
+        assertEquals(1, refreshes.size());
+        refreshes.get(0).run();
+        assertEquals("from-swapi", cache.get(key, () -> "unused"));
+        assertEquals(1, lookups.get());
+    }
+
+    @Test
+    @DisplayName("Should expire a value found in the L2 a hard TTL after it was fetched")
+    void get_ShouldExpirePromotedValuesOnTheirOriginalSchedule() {
+        List<Runnable> refreshes = new ArrayList<>();
+        SwapiCache cache = new SwapiCache(ttlProperties(), new SimpleMeterRegistry(), refreshes::add, nanos::get);
+
+        cache.get(key, () -> new AgedValue<>("v1", Duration.ofMinutes(9)), () -> AgedValue.fresh("v2"));
+        advance(Duration.ofMinutes(2));
+
+        assertEquals("v3", cache.get(key, () -> "v3"));
+    }
+
+    @Test
+    @DisplayName("Should hand out a fresh DTO per read so callers cannot change the cached entity")
+    void get_ShouldMaterializeCompactEntities() {
+        SwapiCache cache = new SwapiCache(new SwapiCacheProperties(), new SimpleMeterRegistry(), Runnable::run);
+        PersonPropertiesDto properties = new PersonPropertiesDto();
+        properties.setName("Luke Skywalker");
+        properties.setHeight("172");
+        cache.put(key, new SingleResponseDto<>("ok", new PersonDto(properties, null, null, "1", null)));
+
+        SingleResponseDto<PersonDto> first = cache.get(key, () -> null);
+        first.getResult().getProperties().setHeight("0");
+        SingleResponseDto<PersonDto> second = cache.get(key, () -> null);
+
+        assertEquals("172", second.getResult().getProperties().getHeight());
+        assertEquals("Luke Skywalker", second.getResult().getProperties().getName());
+    }
+
+    private SwapiCacheProperties ttlProperties() {
+        SwapiCacheProperties properties = new SwapiCacheProperties();
+        properties.setSoftTtl(Duration.ofMinutes(1));
+        properties.setHardTtl(Duration.ofMinutes(10));
+        return properties;
+    }
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+}
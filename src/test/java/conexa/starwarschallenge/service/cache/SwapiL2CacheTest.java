@@ -0,0 +1,190 @@
+package conexa.starwarschallenge.service.cache;
+
+import conexa.starwarschallenge.config.SwapiL2CacheProperties;
+import conexa.starwarschallenge.dto.PersonDto;
+import conexa.starwarschallenge.dto.SingleResponseDto;
+import conexa.starwarschallenge.entity.SwapiCacheEntry;
+import conexa.starwarschallenge.enums.SwapiResource;
+import conexa.starwarschallenge.repository.SwapiCacheEntryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalAnswers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Type;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class SwapiL2CacheTest {
+
+    private static final Type PERSON_TYPE = new ParameterizedTypeReference<SingleResponseDto<PersonDto>>() {}.getType();
+    private static final Instant NOW = Instant.parse("2024-05-01T10:00:00Z");
+
+    @Autowired
+    private SwapiCacheEntryRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private SwapiL2CacheProperties properties;
+    private final SwapiCacheKey key = SwapiCacheKey.byId(SwapiResource.PEOPLE, "1");
+
+    @BeforeEach
+    void setUp() {
+        properties = new SwapiL2CacheProperties();
+    }
+
+    @Test
+    @DisplayName("Should let another node read a flushed entry instead of calling the loader")
+    void get_ShouldShareFlushedEntriesAcrossNodes() {
+        SwapiL2Cache writer = cacheAt(NOW);
+        writer.get(key, PERSON_TYPE, () -> new SingleResponseDto<>("ok", person("1")));
+        assertEquals(0, repository.count(), "Writes are deferred until the next flush");
+        writer.flush();
+
+        AtomicInteger loads = new AtomicInteger();
+        AgedValue<SingleResponseDto<PersonDto>> value = cacheAt(NOW.plusSeconds(30)).get(key, PERSON_TYPE, () -> {
+            loads.incrementAndGet();
+            return new SingleResponseDto<>("ok", person("other"));
+        });
+
+        assertEquals("1", value.value().getResult().getUid());
+        assertEquals(Duration.ofSeconds(30), value.age(), "The entry keeps the age it has in the L2");
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should ignore entries older than the configured max age")
+    void get_ShouldIgnoreExpiredEntries() {
+        SwapiL2Cache writer = cacheAt(NOW);
+        writer.get(key, PERSON_TYPE, () -> new SingleResponseDto<>("ok", person("1")));
+        writer.flush();
+
+        AgedValue<SingleResponseDto<PersonDto>> value = cacheAt(NOW.plus(properties.getMaxAge()).plus(Duration.ofSeconds(1)))
+                .get(key, PERSON_TYPE, () -> new SingleResponseDto<>("ok", person("fresh")));
+
+        assertEquals("fresh", value.value().getResult().getUid());
+        assertEquals(Duration.ZERO, value.age());
+    }
+
+    @Test
+    @DisplayName("Should batch queued writes and keep only the latest value per key")
+    void flush_ShouldUpsertLatestValues() {
+        SwapiL2Cache cache = cacheAt(NOW);
+        cache.get(key, PERSON_TYPE, () -> new SingleResponseDto<>("ok", person("1")));
+        cache.flush();
+
+        SwapiL2Cache later = cacheAt(NOW.plus(Duration.ofHours(1)));
+        later.get(key, PERSON_TYPE, () -> new SingleResponseDto<>("ok", person("v2")));
+        later.get(SwapiCacheKey.byId(SwapiResource.PEOPLE, "2"), PERSON_TYPE, () -> new SingleResponseDto<>("ok", person("2")));
+        assertEquals(2, later.pendingWriteCount());
+        later.flush();
+
+        assertEquals(0, later.pendingWriteCount());
+        assertEquals(2, repository.count());
+        SwapiCacheEntry updated = repository.findById("people:ID:1").orElseThrow();
+        assertEquals(NOW.plus(Duration.ofHours(1)), updated.getFetchedAt());
+    }
+
+    @Test
+    @DisplayName("Should skip entries that cannot be serialized and write the rest of the batch")
+    void flush_ShouldSkipUnserializableEntries() {
+        SwapiL2Cache cache = cacheAt(NOW);
+        cache.put(SwapiCacheKey.byId(SwapiResource.PEOPLE, "2"), new Object());
+        cache.put(key, new SingleResponseDto<>("ok", person("1")));
+
+        assertDoesNotThrow(cache::flush);
+
+        assertEquals(List.of("people:ID:1"), repository.findAll().stream().map(SwapiCacheEntry::getCacheKey).toList());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Should keep the rest of a batch when another node inserted one of its keys first")
+    void flush_ShouldRetryEntriesOneByOneOnConflicts() {
+        SwapiCacheKey raced = SwapiCacheKey.byId(SwapiResource.PEOPLE, "2");
+        SwapiCacheEntryRepository racingRepository = mock(SwapiCacheEntryRepository.class, AdditionalAnswers.delegatesTo(repository));
+        doAnswer(invocation -> {
+            List<SwapiCacheEntry> existing = repository.findAllById(invocation.getArgument(0));
+            // Another replica commits the same key between our read and our insert.
+            new TransactionTemplate(transactionManager, new DefaultTransactionDefinition(TransactionDefinition.PROPAGATION_REQUIRES_NEW))
+                    .executeWithoutResult(status -> repository.save(new SwapiCacheEntry("people:ID:2", SwapiResource.PEOPLE, new byte[]{1}, NOW)));
+            return existing;
+        }).doAnswer(invocation -> repository.findAllById(invocation.getArgument(0)))
+                .when(racingRepository).findAllById(any());
+        SwapiL2Cache cache = new SwapiL2Cache(properties, racingRepository, transactionManager, new SimpleMeterRegistry(),
+                Clock.fixed(NOW.plusSeconds(5), ZoneOffset.UTC));
+        try {
+            cache.put(key, new SingleResponseDto<>("ok", person("1")));
+            cache.put(raced, new SingleResponseDto<>("ok", person("2")));
+
+            cache.flush();
+
+            assertEquals(2, repository.count());
+            assertEquals(NOW.plusSeconds(5), repository.findById("people:ID:2").orElseThrow().getFetchedAt());
+        } finally {
+            repository.deleteAll();
+        }
+    }
+
+    @Test
+    @DisplayName("Should delete entries older than the max age in batches and keep the rest")
+    void purge_ShouldDeleteExpiredEntries() {
+        properties.setPurgeBatchSize(1);
+        SwapiL2Cache old = cacheAt(NOW);
+        old.put(key, new SingleResponseDto<>("ok", person("1")));
+        old.put(SwapiCacheKey.search(SwapiResource.PEOPLE, "luke"), new SingleResponseDto<>("ok", person("1")));
+        old.flush();
+        SwapiL2Cache recent = cacheAt(NOW.plus(properties.getMaxAge()));
+        recent.put(SwapiCacheKey.byId(SwapiResource.PEOPLE, "2"), new SingleResponseDto<>("ok", person("2")));
+        recent.flush();
+
+        cacheAt(NOW.plus(properties.getMaxAge()).plusSeconds(1)).purge();
+
+        assertEquals(List.of("people:ID:2"), repository.findAll().stream().map(SwapiCacheEntry::getCacheKey).toList());
+    }
+
+    @Test
+    @DisplayName("Should bypass the database entirely when disabled")
+    void get_ShouldBypassWhenDisabled() {
+        properties.setEnabled(false);
+        SwapiL2Cache cache = cacheAt(NOW);
+
+        cache.get(key, PERSON_TYPE, () -> new SingleResponseDto<>("ok", person("1")));
+
+        assertEquals(0, cache.pendingWriteCount());
+    }
+
+    private SwapiL2Cache cacheAt(Instant now) {
+        return new SwapiL2Cache(properties, repository, transactionManager, new SimpleMeterRegistry(), Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private static PersonDto person(String uid) {
+        PersonDto person = new PersonDto();
+        person.setUid(uid);
+        return person;
+    }
+}
@@ -0,0 +1,56 @@
+package conexa.starwarschallenge.service.diagnostics;
+
+import conexa.starwarschallenge.config.ThreadPinningProperties;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualThreadPinningMonitorTest {
+
+    private final Object monitor = new Object();
+
+    @Test
+    @DisplayName("Should time pinned virtual threads by the application frame that pinned them")
+    void monitor_ShouldReportPinningSite() throws Exception {
+        ThreadPinningProperties properties = new ThreadPinningProperties();
+        properties.setThreshold(Duration.ofMillis(10));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        VirtualThreadPinningMonitor pinningMonitor = new VirtualThreadPinningMonitor(properties, meterRegistry);
+
+        pinningMonitor.start();
+        try {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+            while (pinnedTimer(meterRegistry) == null && System.nanoTime() < deadline) {
+                Thread.ofVirtual().start(this::sleepWhileHoldingMonitor).join();
+                TimeUnit.MILLISECONDS.sleep(200);
+            }
+        } finally {
+            pinningMonitor.stop();
+        }
+
+        Timer timer = pinnedTimer(meterRegistry);
+        assertNotNull(timer, "Expected a jdk.VirtualThreadPinned event to be recorded");
+        assertTrue(timer.getId().getTag("site").startsWith(getClass().getName() + ".sleepWhileHoldingMonitor"));
+        assertFalse(pinningMonitor.isRunning());
+    }
+
+    private void sleepWhileHoldingMonitor() {
+        synchronized (monitor) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static Timer pinnedTimer(SimpleMeterRegistry meterRegistry) {
+        return meterRegistry.find("jvm.threads.virtual.pinned").timer();
+    }
+}
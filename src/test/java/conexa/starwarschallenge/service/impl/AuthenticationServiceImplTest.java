@@ -1,14 +1,19 @@
 package conexa.starwarschallenge.service.impl;
 
+import conexa.starwarschallenge.config.UserCacheProperties;
 import conexa.starwarschallenge.dto.JwtAuthenticationResponse;
 import conexa.starwarschallenge.dto.SignInRequest;
 import conexa.starwarschallenge.dto.SignUpRequest;
+import conexa.starwarschallenge.dto.UpdateUserRoleRequest;
 import conexa.starwarschallenge.dto.UserDto;
 import conexa.starwarschallenge.entity.Role;
 import conexa.starwarschallenge.entity.User;
 import conexa.starwarschallenge.exception.DuplicateUserException;
 import conexa.starwarschallenge.repository.UserRepository;
+import conexa.starwarschallenge.security.CachingUserDetailsService;
 import conexa.starwarschallenge.security.JwtService;
+import conexa.starwarschallenge.security.TokenVersions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -23,7 +28,10 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -116,6 +124,36 @@ class AuthenticationServiceImplTest {
         verify(jwtService, times(1)).generateToken(any(User.class));
     }
 
+    @Test
+    @DisplayName("Should sign in with a role changed on another node once this node syncs token versions")
+    void signin_ShouldSeeRoleChangesMadeOnAnotherNode() {
+        AtomicReference<User> stored = new AtomicReference<>(user);
+        when(userRepository.findById(1)).thenAnswer(invocation -> Optional.of(copy(stored.get())));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
+            stored.set(copy(invocation.getArgument(0)));
+            return invocation.getArgument(0);
+        });
+        when(userRepository.findByUsername("testuser")).thenAnswer(invocation -> Optional.of(copy(stored.get())));
+        when(userRepository.findByTokenVersionGreaterThan(0)).thenAnswer(invocation -> List.of(versionOf(stored.get())));
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenReturn(mock(Authentication.class));
+        when(jwtService.generateToken(any(User.class))).thenReturn(jwtToken);
+
+        CachingUserDetailsService usersOnA = userCache();
+        AdminServiceImpl adminOnA = new AdminServiceImpl(userRepository, null,
+                new TokenVersions(userRepository, usersOnA, new SimpleMeterRegistry()), usersOnA);
+        CachingUserDetailsService usersOnB = userCache();
+        TokenVersions versionsOnB = new TokenVersions(userRepository, usersOnB, new SimpleMeterRegistry());
+        AuthenticationServiceImpl authOnB = new AuthenticationServiceImpl(userRepository, passwordEncoder, jwtService,
+                authenticationManager, usersOnB);
+
+        assertEquals("USER", authOnB.signin(signInRequest).getRole());
+        adminOnA.updateUserRole(1, new UpdateUserRoleRequest(Role.ADMIN));
+        versionsOnB.sync();
+
+        assertEquals("ADMIN", authOnB.signin(signInRequest).getRole());
+    }
+
     @Test
     @DisplayName("Should throw exception when signing in with invalid credentials")
     void signin_InvalidCredentials() {
@@ -128,4 +166,33 @@ class AuthenticationServiceImplTest {
         verify(userDetailsService, never()).loadUserByUsername(anyString());
         verify(jwtService, never()).generateToken(any(User.class));
     }
+
+    private CachingUserDetailsService userCache() {
+        UserDetailsService users = username -> userRepository.findByUsername(username).orElseThrow();
+        return new CachingUserDetailsService(users, new UserCacheProperties(), Duration.ofMinutes(5), new SimpleMeterRegistry());
+    }
+
+    private static User copy(User user) {
+        return User.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .password(user.getPassword())
+                .role(user.getRole())
+                .tokenVersion(user.getTokenVersion())
+                .build();
+    }
+
+    private static UserRepository.TokenVersionView versionOf(User user) {
+        return new UserRepository.TokenVersionView() {
+            @Override
+            public String getUsername() {
+                return user.getUsername();
+            }
+
+            @Override
+            public long getTokenVersion() {
+                return user.getTokenVersion();
+            }
+        };
+    }
 }
@@ -0,0 +1,170 @@
+package conexa.starwarschallenge.service.resilience;
+
+import conexa.starwarschallenge.config.SwapiHedgingProperties;
+import conexa.starwarschallenge.config.SwapiRateLimitProperties;
+import conexa.starwarschallenge.enums.SwapiResource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SwapiHedgerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private SwapiHedger hedger;
+
+    @Test
+    @DisplayName("Should not hedge until enough latency samples are known")
+    void callAsync_ShouldNotHedgeWithoutSamples() {
+        hedger = new SwapiHedger(enabledProperties(), new SwapiRateLimiter(new SwapiRateLimitProperties(), meterRegistry), meterRegistry, Runnable::run);
+        AtomicInteger attempts = new AtomicInteger();
+
+        CompletableFuture<String> result = hedger.callAsync(SwapiResource.PEOPLE, () -> {
+            attempts.incrementAndGet();
+            return new CompletableFuture<>();
+        });
+
+        assertEquals(-1, hedger.hedgeDelayNanos(SwapiResource.PEOPLE));
+        assertFalse(result.isDone());
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    @DisplayName("Should answer with the hedge and cancel the slow primary")
+    void callAsync_ShouldHedgeSlowPrimary() throws Exception {
+        hedger = new SwapiHedger(enabledProperties(), new SwapiRateLimiter(new SwapiRateLimitProperties(), meterRegistry), meterRegistry, Runnable::run);
+        prime(hedger);
+        CompletableFuture<String> primary = new CompletableFuture<>();
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = hedger.callAsync(SwapiResource.PEOPLE, () -> attempts.getAndIncrement() == 0
+                ? primary
+                : CompletableFuture.completedFuture("hedge")).join();
+
+        assertEquals("hedge", result);
+        assertTrue(primary.isCancelled());
+        // The win is counted by the scheduler thread right after it completes the caller's future.
+        awaitCount("swapi.hedge.won");
+        assertEquals(1, meterRegistry.get("swapi.hedge.sent").tag("resource", "people").counter().count());
+        assertEquals(1, meterRegistry.get("swapi.hedge.won").tag("resource", "people").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should skip the hedge when the outbound rate budget is spent")
+    void callAsync_ShouldSkipHedgeWithoutPermit() throws Exception {
+        SwapiRateLimiter rateLimiter = new SwapiRateLimiter(singlePermitBudget(), meterRegistry);
+        hedger = new SwapiHedger(enabledProperties(), rateLimiter, meterRegistry, Runnable::run);
+        prime(hedger);
+        assertTrue(rateLimiter.tryAcquire(SwapiResource.PEOPLE));
+        CompletableFuture<String> primary = new CompletableFuture<>();
+        AtomicInteger attempts = new AtomicInteger();
+
+        CompletableFuture<String> result = hedger.callAsync(SwapiResource.PEOPLE, () -> {
+            attempts.incrementAndGet();
+            return primary;
+        });
+        awaitCount("swapi.hedge.skipped");
+        primary.complete("primary");
+
+        assertEquals("primary", result.join());
+        assertEquals(1, attempts.get());
+        assertEquals(1, meterRegistry.get("swapi.hedge.skipped").tag("resource", "people").counter().count());
+        assertEquals(0, meterRegistry.get("swapi.hedge.sent").tag("resource", "people").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should give the permit back when the primary answers while the hedge takes it")
+    void callAsync_ShouldNotSpendAPermitOnceThePrimaryAnswered() {
+        SwapiRateLimiter rateLimiter = spy(new SwapiRateLimiter(singlePermitBudget(), meterRegistry));
+        hedger = new SwapiHedger(enabledProperties(), rateLimiter, meterRegistry, Runnable::run);
+        prime(hedger);
+        CompletableFuture<String> primary = new CompletableFuture<>();
+        doAnswer(invocation -> {
+            primary.complete("primary");
+            return invocation.callRealMethod();
+        }).when(rateLimiter).tryAcquire(SwapiResource.PEOPLE);
+        AtomicInteger attempts = new AtomicInteger();
+
+        CompletableFuture<String> result = hedger.callAsync(SwapiResource.PEOPLE, () -> {
+            attempts.incrementAndGet();
+            return primary;
+        });
+
+        assertEquals("primary", result.join());
+        verify(rateLimiter, timeout(5000)).release(SwapiResource.PEOPLE);
+        assertEquals(1, attempts.get());
+        assertEquals(0, meterRegistry.get("swapi.hedge.sent").tag("resource", "people").counter().count());
+        assertTrue(rateLimiter.tryAcquire(SwapiResource.PEOPLE));
+    }
+
+    @Test
+    @DisplayName("Should run blocking calls once, since their losing attempt could not be aborted")
+    void call_ShouldNotHedgeBlockingAttempts() throws Exception {
+        hedger = new SwapiHedger(enabledProperties(), new SwapiRateLimiter(new SwapiRateLimitProperties(), meterRegistry), meterRegistry, Runnable::run);
+        prime(hedger);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = hedger.call(SwapiResource.PEOPLE, () -> {
+            attempts.incrementAndGet();
+            try {
+                TimeUnit.MILLISECONDS.sleep(100);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return "primary";
+        });
+
+        assertEquals("primary", result);
+        assertEquals(1, attempts.get());
+        assertEquals(0, meterRegistry.get("swapi.hedge.sent").tag("resource", "people").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should report the requested percentile of the recorded samples")
+    void latencyWindow_ShouldComputePercentile() {
+        LatencyWindow window = new LatencyWindow(100);
+        for (int i = 1; i <= 100; i++) {
+            window.record(i);
+        }
+
+        assertEquals(95, window.percentile(0.95, 20));
+        assertEquals(-1, new LatencyWindow(100).percentile(0.95, 1));
+    }
+
+    private void awaitCount(String counter) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get(counter).tag("resource", "people").counter().count() == 0 && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+
+    private static SwapiRateLimitProperties singlePermitBudget() {
+        SwapiRateLimitProperties properties = new SwapiRateLimitProperties();
+        SwapiRateLimitProperties.Budget people = new SwapiRateLimitProperties.Budget();
+        people.setPermitsPerSecond(0.1);
+        people.setBurst(1);
+        properties.getResources().put(SwapiResource.PEOPLE, people);
+        return properties;
+    }
+
+    private static SwapiHedgingProperties enabledProperties() {
+        SwapiHedgingProperties properties = new SwapiHedgingProperties();
+        properties.setEnabled(true);
+        properties.setMinDelay(Duration.ofMillis(20));
+        return properties;
+    }
+
+    private static void prime(SwapiHedger hedger) {
+        for (int i = 0; i < 20; i++) {
+            hedger.callAsync(SwapiResource.PEOPLE, () -> CompletableFuture.completedFuture("ok")).join();
+        }
+        assertEquals(Duration.ofMillis(20).toNanos(), hedger.hedgeDelayNanos(SwapiResource.PEOPLE));
+    }
+}
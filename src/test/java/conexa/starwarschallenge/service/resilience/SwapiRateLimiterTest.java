@@ -0,0 +1,84 @@
+package conexa.starwarschallenge.service.resilience;
+
+import conexa.starwarschallenge.config.SwapiRateLimitProperties;
+import conexa.starwarschallenge.enums.SwapiResource;
+import conexa.starwarschallenge.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SwapiRateLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Should fail fast with TooManyRequestsException once the per-resource budget is spent")
+    void acquire_ShouldRejectWhenResourceBudgetIsExhausted() {
+        SwapiRateLimitProperties properties = new SwapiRateLimitProperties();
+        properties.setMaxWait(Duration.ZERO);
+        SwapiRateLimitProperties.Budget people = new SwapiRateLimitProperties.Budget();
+        people.setPermitsPerSecond(0.1);
+        people.setBurst(1);
+        properties.getResources().put(SwapiResource.PEOPLE, people);
+        SwapiRateLimiter rateLimiter = new SwapiRateLimiter(properties, meterRegistry);
+
+        rateLimiter.acquire(SwapiResource.PEOPLE);
+
+        assertThrows(TooManyRequestsException.class, () -> rateLimiter.acquire(SwapiResource.PEOPLE));
+        assertDoesNotThrow(() -> rateLimiter.acquire(SwapiResource.FILMS));
+        assertEquals(1, meterRegistry.get("swapi.ratelimit.rejected").tag("resource", "people").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should fall back to the top-level rate when a resource only sets its burst")
+    void acquire_ShouldInheritTopLevelRateForPartialBudget() {
+        SwapiRateLimitProperties properties = new SwapiRateLimitProperties();
+        properties.setPermitsPerSecond(0.1);
+        properties.setBurst(100);
+        properties.setMaxWait(Duration.ZERO);
+        SwapiRateLimitProperties.Budget people = new SwapiRateLimitProperties.Budget();
+        people.setBurst(2);
+        properties.getResources().put(SwapiResource.PEOPLE, people);
+        SwapiRateLimiter rateLimiter = assertDoesNotThrow(() -> new SwapiRateLimiter(properties, meterRegistry));
+
+        rateLimiter.acquire(SwapiResource.PEOPLE);
+        rateLimiter.acquire(SwapiResource.PEOPLE);
+
+        assertThrows(TooManyRequestsException.class, () -> rateLimiter.acquire(SwapiResource.PEOPLE));
+    }
+
+    @Test
+    @DisplayName("Should wait briefly for a permit within the configured deadline")
+    void acquire_ShouldWaitWithinDeadline() {
+        SwapiRateLimitProperties properties = new SwapiRateLimitProperties();
+        properties.setPermitsPerSecond(20);
+        properties.setBurst(1);
+        properties.setMaxWait(Duration.ofSeconds(1));
+        SwapiRateLimiter rateLimiter = new SwapiRateLimiter(properties, meterRegistry);
+
+        rateLimiter.acquire(SwapiResource.FILMS);
+        rateLimiter.acquire(SwapiResource.FILMS);
+
+        assertTrue(meterRegistry.get("swapi.ratelimit.wait").tag("resource", "films").timer().max(TimeUnit.MILLISECONDS) > 0);
+    }
+
+    @Test
+    @DisplayName("Should let every call through when disabled")
+    void acquire_ShouldBypassWhenDisabled() {
+        SwapiRateLimitProperties properties = new SwapiRateLimitProperties();
+        properties.setEnabled(false);
+        properties.setBurst(1);
+        properties.setMaxWait(Duration.ZERO);
+        SwapiRateLimiter rateLimiter = new SwapiRateLimiter(properties, meterRegistry);
+
+        for (int i = 0; i < 10; i++) {
+            rateLimiter.acquire(SwapiResource.VEHICLES);
+        }
+        assertTrue(rateLimiter.tryAcquire(SwapiResource.VEHICLES));
+    }
+}
@@ -0,0 +1,152 @@
+package conexa.starwarschallenge.service.resilience;
+
+import conexa.starwarschallenge.config.SwapiCircuitBreakerProperties;
+import conexa.starwarschallenge.config.SwapiConcurrencyProperties;
+import conexa.starwarschallenge.enums.SwapiResource;
+import conexa.starwarschallenge.exception.SwapiUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SwapiUpstreamGuardTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    @Test
+    @DisplayName("Should open the circuit once the failure rate crosses the threshold")
+    void circuitBreaker_ShouldOpenOnFailures() {
+        CircuitBreaker breaker = new CircuitBreaker(breakerProperties(), nanos::get);
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(breaker.tryAcquirePermission());
+            breaker.onFailure();
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    @DisplayName("Should let a limited number of probes through after the open duration and close on success")
+    void circuitBreaker_ShouldProbeAndClose() {
+        CircuitBreaker breaker = openBreaker();
+
+        nanos.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquirePermission());
+        assertTrue(breaker.tryAcquirePermission());
+        assertFalse(breaker.tryAcquirePermission());
+
+        breaker.onSuccess();
+        breaker.onSuccess();
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    @DisplayName("Should reopen the circuit when a probe fails")
+    void circuitBreaker_ShouldReopenOnFailedProbe() {
+        CircuitBreaker breaker = openBreaker();
+        nanos.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        assertTrue(breaker.tryAcquirePermission());
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    @DisplayName("Should shrink the concurrency limit on slow calls and grow it back when latency recovers")
+    void concurrencyLimiter_ShouldAdaptToLatency() {
+        SwapiConcurrencyProperties properties = new SwapiConcurrencyProperties();
+        properties.setInitialLimit(10);
+        properties.setMinLimit(2);
+        properties.setLatencyThreshold(Duration.ofMillis(100));
+        properties.setBackoffRatio(0.5);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties);
+
+        limiter.tryAcquire();
+        limiter.onSuccess(Duration.ofSeconds(1).toNanos());
+        assertEquals(5, limiter.getLimit());
+
+        for (int i = 0; i < 50; i++) {
+            for (int j = 0; j < limiter.getLimit(); j++) {
+                limiter.tryAcquire();
+            }
+            while (limiter.getInFlight() > 0) {
+                limiter.onSuccess(Duration.ofMillis(10).toNanos());
+            }
+        }
+        assertTrue(limiter.getLimit() > 5);
+    }
+
+    @Test
+    @DisplayName("Should reject calls beyond the concurrency limit")
+    void concurrencyLimiter_ShouldRejectBeyondLimit() {
+        SwapiConcurrencyProperties properties = new SwapiConcurrencyProperties();
+        properties.setInitialLimit(2);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+    }
+
+    @Test
+    @DisplayName("Should fail fast with SwapiUnavailableException while the circuit is open")
+    void execute_ShouldFailFastWhenOpen() {
+        SwapiUpstreamGuard guard = new SwapiUpstreamGuard(breakerProperties(), new SwapiConcurrencyProperties(), new SimpleMeterRegistry());
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(HttpServerErrorException.class, () -> guard.execute(SwapiResource.PEOPLE, () -> {
+                throw new HttpServerErrorException(HttpStatus.BAD_GATEWAY);
+            }));
+        }
+
+        assertThrows(SwapiUnavailableException.class, () -> guard.execute(SwapiResource.PEOPLE, () -> "Luke"));
+        assertEquals("A New Hope", guard.execute(SwapiResource.FILMS, () -> "A New Hope"));
+        assertEquals("OPEN", guard.status().circuits().get(SwapiResource.PEOPLE.ordinal()).state());
+    }
+
+    @Test
+    @DisplayName("Should not count 404 responses as upstream failures")
+    void execute_ShouldTreatNotFoundAsHealthy() {
+        SwapiUpstreamGuard guard = new SwapiUpstreamGuard(breakerProperties(), new SwapiConcurrencyProperties(), new SimpleMeterRegistry());
+
+        for (int i = 0; i < 10; i++) {
+            assertThrows(HttpClientErrorException.class, () -> guard.execute(SwapiResource.STARSHIPS, () -> {
+                throw new HttpClientErrorException(HttpStatus.NOT_FOUND);
+            }));
+        }
+
+        assertEquals("A-Wing", guard.execute(SwapiResource.STARSHIPS, () -> "A-Wing"));
+    }
+
+    private CircuitBreaker openBreaker() {
+        CircuitBreaker breaker = new CircuitBreaker(breakerProperties(), nanos::get);
+        for (int i = 0; i < 4; i++) {
+            breaker.tryAcquirePermission();
+            breaker.onFailure();
+        }
+        return breaker;
+    }
+
+    private SwapiCircuitBreakerProperties breakerProperties() {
+        SwapiCircuitBreakerProperties properties = new SwapiCircuitBreakerProperties();
+        properties.setWindowSize(10);
+        properties.setMinimumCalls(4);
+        properties.setFailureRateThreshold(0.5);
+        properties.setOpenDuration(Duration.ofSeconds(5));
+        properties.setHalfOpenProbes(2);
+        return properties;
+    }
+}
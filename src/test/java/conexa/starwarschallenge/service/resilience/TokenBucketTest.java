@@ -0,0 +1,47 @@
+package conexa.starwarschallenge.service.resilience;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    @Test
+    @DisplayName("Should grant the burst immediately and then pace permits at the configured rate")
+    void reserve_ShouldPaceAfterBurst() {
+        TokenBucket bucket = new TokenBucket(10, 2, nanos::get);
+
+        assertEquals(0, bucket.reserve(0));
+        assertEquals(0, bucket.reserve(0));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), bucket.reserve(TimeUnit.SECONDS.toNanos(1)));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(200), bucket.reserve(TimeUnit.SECONDS.toNanos(1)));
+    }
+
+    @Test
+    @DisplayName("Should reject when the permit is not available within the deadline")
+    void reserve_ShouldRejectPastDeadline() {
+        TokenBucket bucket = new TokenBucket(1, 1, nanos::get);
+
+        assertEquals(0, bucket.reserve(0));
+        assertEquals(-1, bucket.reserve(TimeUnit.MILLISECONDS.toNanos(500)));
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(0, bucket.reserve(0));
+    }
+
+    @Test
+    @DisplayName("Should never accumulate more than the burst size")
+    void reserve_ShouldCapAtBurst() {
+        TokenBucket bucket = new TokenBucket(100, 3, nanos::get);
+
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(1));
+
+        assertEquals(3, bucket.availablePermits(), 0.001);
+    }
+}
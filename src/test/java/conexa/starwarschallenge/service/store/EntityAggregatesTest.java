@@ -0,0 +1,66 @@
+package conexa.starwarschallenge.service.store;
+
+import conexa.starwarschallenge.dto.ResourceStatsDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntityAggregatesTest {
+
+    private final EntityAggregates aggregates = new EntityAggregates("starships", List.of("starship_class"), List.of("crew"));
+
+    @Test
+    @DisplayName("Should summarize counts, extremes, average and nearest-rank percentiles")
+    void summary_ShouldAggregateRows() {
+        for (int crew = 1; crew <= 100; crew++) {
+            aggregates.upsert(String.valueOf(crew), row(crew % 2 == 0 ? "Starfighter" : "freighter", crew));
+        }
+        aggregates.upsert("101", row(null, null));
+
+        ResourceStatsDto stats = aggregates.summary();
+
+        assertEquals(101, stats.count());
+        assertEquals(Map.of("starfighter", 50L, "freighter", 50L, "unknown", 1L), stats.counts().get("starship_class"));
+        ResourceStatsDto.FieldStats crew = stats.fields().get("crew");
+        assertEquals(new ResourceStatsDto.FieldStats(100, 1.0, 100.0, 50.5, 50.0, 90.0, 99.0), crew);
+    }
+
+    @Test
+    @DisplayName("Should move only changed and removed entities and keep the summary until then")
+    void replaceAll_ShouldApplyDifferences() {
+        aggregates.replaceAll(Map.of("10", row("Starfighter", 1.0), "12", row("Star Destroyer", 47_060.0)));
+        ResourceStatsDto before = aggregates.summary();
+
+        assertSame(before, aggregates.summary());
+        assertEquals(0, aggregates.replaceAll(Map.of("10", row("Starfighter", 1.0), "12", row("Star Destroyer", 47_060.0))));
+        assertSame(before, aggregates.summary());
+
+        assertEquals(3, aggregates.replaceAll(Map.of("10", row("Starfighter", 2.0), "13", row("Starfighter", 1.0))));
+        ResourceStatsDto after = aggregates.summary();
+
+        assertEquals(2, after.count());
+        assertEquals(Map.of("starfighter", 2L), after.counts().get("starship_class"));
+        assertEquals(new ResourceStatsDto.FieldStats(2, 1.0, 2.0, 1.5, 1.0, 2.0, 2.0), after.fields().get("crew"));
+    }
+
+    @Test
+    @DisplayName("Should report an empty field without numbers")
+    void summary_ShouldHandleEmptyFields() {
+        aggregates.upsert("1", row("Starfighter", 3.0));
+        aggregates.remove("1");
+
+        assertEquals(new ResourceStatsDto.FieldStats(0, null, null, null, null, null, null), aggregates.summary().fields().get("crew"));
+        assertEquals(Map.of(), aggregates.summary().counts().get("starship_class"));
+    }
+
+    private static EntityAggregates.Row row(String starshipClass, Number crew) {
+        Map<String, String> categories = new HashMap<>();
+        categories.put("starship_class", starshipClass);
+        return new EntityAggregates.Row(categories, crew == null ? Map.of() : Map.of("crew", crew.doubleValue()));
+    }
+}
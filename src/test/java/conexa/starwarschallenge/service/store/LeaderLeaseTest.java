@@ -0,0 +1,60 @@
+package conexa.starwarschallenge.service.store;
+
+import conexa.starwarschallenge.repository.SwapiLeaseRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class LeaderLeaseTest {
+
+    private static final Instant NOW = Instant.parse("2024-05-01T10:00:00Z");
+    private static final Duration TTL = Duration.ofMinutes(5);
+
+    @Autowired
+    private SwapiLeaseRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("Should give the lease to a single node until it expires")
+    void tryAcquire_ShouldBeExclusiveUntilExpiry() {
+        assertTrue(lease("node-a", NOW).tryAcquire("refresh", TTL));
+        assertFalse(lease("node-b", NOW.plusSeconds(60)).tryAcquire("refresh", TTL));
+        assertTrue(lease("node-b", NOW.plus(TTL).plusSeconds(1)).tryAcquire("refresh", TTL));
+        assertEquals("node-b", repository.findById("refresh").orElseThrow().getOwner());
+    }
+
+    @Test
+    @DisplayName("Should let the current holder renew its lease")
+    void tryAcquire_ShouldRenewForOwner() {
+        assertTrue(lease("node-a", NOW).tryAcquire("refresh", TTL));
+        assertTrue(lease("node-a", NOW.plusSeconds(60)).tryAcquire("refresh", TTL));
+
+        assertEquals(NOW.plusSeconds(60).plus(TTL), repository.findById("refresh").orElseThrow().getExpiresAt());
+    }
+
+    @Test
+    @DisplayName("Should keep independent leases per name")
+    void tryAcquire_ShouldSeparateNames() {
+        assertTrue(lease("node-a", NOW).tryAcquire("refresh", TTL));
+        assertTrue(lease("node-b", NOW).tryAcquire("cleanup", TTL));
+    }
+
+    private LeaderLease lease(String owner, Instant now) {
+        return new LeaderLease(repository, transactionManager, Clock.fixed(now, ZoneOffset.UTC), owner);
+    }
+}
@@ -0,0 +1,45 @@
+package conexa.starwarschallenge.service.store;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NameIndexTest {
+
+    private final NameIndex<String> index = NameIndex.build(
+            List.of("Luke Skywalker", "Anakin Skywalker", "Darth Vader", "Leia Organa", "Owen Lars"),
+            Function.identity());
+
+    @Test
+    @DisplayName("Should match case-insensitive substrings in collection order")
+    void search_ShouldMatchSubstrings() {
+        assertEquals(List.of("Luke Skywalker", "Anakin Skywalker"), index.search("SKYWALKER"));
+        assertEquals(List.of("Darth Vader"), index.search("th va"));
+    }
+
+    @Test
+    @DisplayName("Should verify candidates whose trigrams match but are not contiguous")
+    void search_ShouldRejectNonContiguousTrigrams() {
+        NameIndex<String> names = NameIndex.build(List.of("abcxbcd"), Function.identity());
+
+        assertTrue(names.search("abcd").isEmpty());
+        assertEquals(List.of("abcxbcd"), names.search("xbcd"));
+    }
+
+    @Test
+    @DisplayName("Should scan names for queries shorter than a trigram")
+    void search_ShouldHandleShortQueries() {
+        assertEquals(List.of("Darth Vader", "Owen Lars"), index.search("ar"));
+        assertEquals(5, index.search("  ").size());
+    }
+
+    @Test
+    @DisplayName("Should return nothing for unknown trigrams")
+    void search_ShouldReturnEmptyForUnknownTerms() {
+        assertTrue(index.search("yoda").isEmpty());
+    }
+}
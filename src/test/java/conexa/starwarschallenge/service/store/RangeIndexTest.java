@@ -0,0 +1,75 @@
+package conexa.starwarschallenge.service.store;
+
+import conexa.starwarschallenge.enums.SwapiResource;
+import conexa.starwarschallenge.exception.InvalidQueryException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RangeIndexTest {
+
+    private static final double NONE = Double.NaN;
+
+    private final RangeIndex<String> index = RangeIndex.build(
+            List.of("X-wing", "Millennium Falcon", "Death Star", "Executor", "Slave 1"),
+            columns(
+                    new double[] {149_999, 100_000, 1_000_000_000_000d, 1_143_350_000, NONE},
+                    new double[] {1.0, 0.5, 4.0, 2.0, 3.0}));
+
+    @Test
+    @DisplayName("Should answer range filters from the sorted index in collection order")
+    void query_ShouldFilterByRange() {
+        assertEquals(List.of("Millennium Falcon"), index.query(EntityQuery.parse(List.of("hyperdrive_rating:lt:1.0"), null)));
+        assertEquals(List.of("X-wing", "Millennium Falcon"), index.query(EntityQuery.parse(List.of("hyperdrive_rating:lte:1"), null)));
+        assertEquals(List.of("Death Star", "Executor"), index.query(EntityQuery.parse(List.of("cost_in_credits:gte:1143350000"), null)));
+        assertEquals(List.of("Executor"), index.query(EntityQuery.parse(List.of("hyperdrive_rating:eq:2"), null)));
+    }
+
+    @Test
+    @DisplayName("Should combine filters and leave out rows without a number")
+    void query_ShouldIntersectFilters() {
+        EntityQuery query = EntityQuery.parse(List.of("hyperdrive_rating:gt:1", "cost_in_credits:lt:2000000000"), null);
+
+        assertEquals(List.of("Executor"), index.query(query));
+    }
+
+    @Test
+    @DisplayName("Should sort by a numeric field with missing values last")
+    void query_ShouldSort() {
+        assertEquals(List.of("Millennium Falcon", "X-wing", "Executor", "Death Star", "Slave 1"),
+                index.query(EntityQuery.parse(null, "cost_in_credits")));
+        assertEquals(List.of("Death Star", "Slave 1", "Executor"),
+                index.query(EntityQuery.parse(List.of("hyperdrive_rating:gte:2"), "-HYPERDRIVE_RATING")));
+    }
+
+    @Test
+    @DisplayName("Should reject unknown fields and malformed filters")
+    void query_ShouldRejectInvalidQueries() {
+        assertThrows(InvalidQueryException.class, () -> index.query(EntityQuery.parse(List.of("mass:gt:1"), null)));
+        assertThrows(InvalidQueryException.class, () -> EntityQuery.parse(List.of("height>200"), null));
+        assertThrows(InvalidQueryException.class, () -> EntityQuery.parse(List.of("height:above:200"), null));
+        assertThrows(InvalidQueryException.class, () -> EntityQuery.parse(List.of("height:gt:tall"), null));
+    }
+
+    @Test
+    @DisplayName("Should name the fields of the resource when a filter is malformed")
+    void parse_ShouldListTheResourceFieldsOnMalformedFilters() {
+        InvalidQueryException ex = assertThrows(InvalidQueryException.class,
+                () -> EntityQuery.parse(List.of("height>200"), null, SwapiEntityIndex.fields(SwapiResource.VEHICLES)));
+
+        assertEquals("Invalid filter 'height>200'. Expected field:operator:value, e.g. cost_in_credits:gt:100. Supported fields: "
+                + "cost_in_credits, length, max_atmosphering_speed, crew, passengers, cargo_capacity.", ex.getMessage());
+    }
+
+    private static Map<String, double[]> columns(double[] cost, double[] hyperdrive) {
+        Map<String, double[]> columns = new LinkedHashMap<>();
+        columns.put("cost_in_credits", cost);
+        columns.put("hyperdrive_rating", hyperdrive);
+        return columns;
+    }
+}
@@ -0,0 +1,38 @@
+package conexa.starwarschallenge.service.store;
+
+import conexa.starwarschallenge.enums.SwapiResource;
+import conexa.starwarschallenge.repository.SwapiDataVersionRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class SwapiDataVersionsTest {
+
+    @Autowired
+    private SwapiDataVersionRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("Should start each resource at version 1 and increment it on every publish")
+    void publish_ShouldIncrementPerResource() {
+        SwapiDataVersions versions = new SwapiDataVersions(repository, transactionManager);
+
+        assertEquals(1, versions.publish(SwapiResource.PEOPLE));
+        assertEquals(2, versions.publish(SwapiResource.PEOPLE));
+        assertEquals(1, versions.publish(SwapiResource.FILMS));
+
+        assertEquals(Map.of(SwapiResource.PEOPLE, 2L, SwapiResource.FILMS, 1L), versions.current());
+    }
+}
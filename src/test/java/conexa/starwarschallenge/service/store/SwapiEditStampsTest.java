@@ -0,0 +1,40 @@
+package conexa.starwarschallenge.service.store;
+
+import conexa.starwarschallenge.enums.SwapiResource;
+import conexa.starwarschallenge.repository.SwapiEditStampRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class SwapiEditStampsTest {
+
+    @Autowired
+    private SwapiEditStampRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("Should replace the stored timestamps of one resource and leave the others alone")
+    void save_ShouldReplaceStampsPerResource() {
+        SwapiEditStamps stamps = new SwapiEditStamps(repository, transactionManager);
+        stamps.save(SwapiResource.PEOPLE, Map.of("1", "2014-12-20T21:17:56.891Z", "2", "2014-12-20T21:17:50.311Z"));
+        stamps.save(SwapiResource.FILMS, Map.of("1", "2014-12-20T19:49:45.256Z"));
+
+        stamps.save(SwapiResource.PEOPLE, Map.of("1", "2024-01-01T00:00:00.000Z", "5", "2014-12-20T21:17:50.315Z"));
+
+        assertEquals(Map.of("1", "2024-01-01T00:00:00.000Z", "5", "2014-12-20T21:17:50.315Z"), stamps.load(SwapiResource.PEOPLE));
+        assertEquals(Map.of("1", "2014-12-20T19:49:45.256Z"), stamps.load(SwapiResource.FILMS));
+        assertTrue(stamps.load(SwapiResource.VEHICLES).isEmpty());
+    }
+}
@@ -0,0 +1,91 @@
+package conexa.starwarschallenge.service.store;
+
+import conexa.starwarschallenge.dto.FilmDto;
+import conexa.starwarschallenge.dto.PersonDto;
+import conexa.starwarschallenge.dto.PersonPropertiesDto;
+import conexa.starwarschallenge.dto.SingleResponseDto;
+import conexa.starwarschallenge.dto.StarshipDto;
+import conexa.starwarschallenge.dto.StarshipPropertiesDto;
+import conexa.starwarschallenge.dto.VehicleDto;
+import conexa.starwarschallenge.dto.VehiclePropertiesDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SwapiEntityCodecTest {
+
+    private final SwapiEntityCodec codec = new SwapiEntityCodec();
+
+    @Test
+    @DisplayName("Should store person numbers as primitives and materialize an equal DTO")
+    void compact_ShouldRoundTripPerson() {
+        SingleResponseDto<PersonDto> luke = person("1", "Luke Skywalker", "172", "77", "blond");
+
+        CompactPerson compact = assertInstanceOf(CompactPerson.class, codec.compact(luke));
+
+        assertEquals(172, CompactValues.numericValue(compact.height()));
+        assertEquals(77, CompactValues.numericValue(compact.mass()));
+        assertEquals(luke, codec.materialize(compact));
+        assertNotSame(codec.materialize(compact), codec.materialize(compact));
+    }
+
+    @Test
+    @DisplayName("Should keep unknown, grouped, decimal and free-form values exactly as SWAPI sent them")
+    void compact_ShouldRoundTripIrregularValues() {
+        SingleResponseDto<PersonDto> jabba = person("16", "Jabba Desilijic Tiure", "175", "1,358", "n/a");
+        SingleResponseDto<PersonDto> r2 = person("3", "R2-D2", "unknown", "32.5", null);
+        SingleResponseDto<StarshipDto> star = new SingleResponseDto<>("ok", new StarshipDto(new StarshipPropertiesDto(
+                "Death Star", "DS-1 Orbital Battle Station", "Imperial Department of Military Research, Sienar Fleet Systems",
+                "1000000000000", "120000", "n/a", "342,953", "843,342", "1000000000000", "3 years", "4.0", "10",
+                "Deep Space Mobile Battlestation", "2014-12-10T16:36:50.509000Z", "2014-12-20T21:26:24.783000Z",
+                "https://www.swapi.tech/api/starships/9"), "A Starship", "5f63a34fee9fd7000499be1e", "9", "0"));
+        SingleResponseDto<VehicleDto> crawler = new SingleResponseDto<>("ok", new VehicleDto(new VehiclePropertiesDto(
+                "Sand Crawler", "Digger Crawler", "Corellia Mining Corporation", "150000", "36.8 ", "30", "46", "30",
+                "50000", "2 months", "wheeled", "2014-12-10T15:36:25Z", "not a date",
+                "https://www.swapi.tech/api/vehicles/4"), "A vehicle", "5f63a160cf50d100047f97fc", "4", "0"));
+
+        assertEquals(jabba, codec.materialize(codec.compact(jabba)));
+        assertEquals(r2, codec.materialize(codec.compact(r2)));
+        assertEquals(star, codec.materialize(codec.compact(star)));
+        assertEquals(crawler, codec.materialize(codec.compact(crawler)));
+        CompactStarship compactStar = (CompactStarship) codec.compact(star);
+        assertEquals(342_953, CompactValues.numericValue(compactStar.crew()));
+        assertEquals(4.0, CompactValues.numericValue(compactStar.hyperdriveRating()));
+        assertEquals(CompactValues.NOT_APPLICABLE, compactStar.maxAtmospheringSpeed());
+        assertTrue(Double.isNaN(CompactValues.numericValue(((CompactVehicle) codec.compact(crawler)).length())));
+    }
+
+    @Test
+    @DisplayName("Should share one dictionary entry between repeated strings")
+    void compact_ShouldDictionaryEncodeRepeatedStrings() {
+        CompactPerson luke = (CompactPerson) codec.compact(person("1", "Luke Skywalker", "172", "77", "blond"));
+        int size = codec.dictionarySize();
+        CompactPerson anakin = (CompactPerson) codec.compact(person("11", "Anakin Skywalker", "188", "84", "blond"));
+
+        assertEquals(luke.hairColor(), anakin.hairColor());
+        assertEquals(luke.homeWorld(), anakin.homeWorld());
+        assertEquals(luke.description(), anakin.description());
+        // Only the new entity's own URL is added.
+        assertEquals(size + 1, codec.dictionarySize());
+    }
+
+    @Test
+    @DisplayName("Should pass other values through unchanged")
+    void compact_ShouldIgnoreOtherValues() {
+        SingleResponseDto<FilmDto> film = new SingleResponseDto<>("ok", new FilmDto());
+        SingleResponseDto<PersonDto> withoutProperties = new SingleResponseDto<>("ok", new PersonDto());
+
+        assertSame(film, codec.compact(film));
+        assertSame(withoutProperties, codec.compact(withoutProperties));
+        assertSame(film, codec.materialize(film));
+    }
+
+    private static SingleResponseDto<PersonDto> person(String uid, String name, String height, String mass, String hairColor) {
+        PersonPropertiesDto properties = new PersonPropertiesDto(name, height, mass, hairColor, "fair", "blue", "19BBY",
+                "male", "https://www.swapi.tech/api/planets/1", "2025-04-09T17:50:03.063Z", "2025-04-09T17:50:03.063Z",
+                "https://www.swapi.tech/api/people/" + uid);
+        return new SingleResponseDto<>("ok", new PersonDto(properties, "A person within the Star Wars universe",
+                "5f63a36eee9fd7000499be4" + uid, uid, "0"));
+    }
+}
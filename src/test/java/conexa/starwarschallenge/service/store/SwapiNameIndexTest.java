@@ -0,0 +1,72 @@
+package conexa.starwarschallenge.service.store;
+
+import conexa.starwarschallenge.config.SwapiIndexProperties;
+import conexa.starwarschallenge.enums.SwapiResource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SwapiNameIndexTest {
+
+    private final SwapiIndexProperties properties = new SwapiIndexProperties();
+    private final AtomicLong nanos = new AtomicLong();
+    private final List<Runnable> builds = new ArrayList<>();
+    private final SwapiNameIndex nameIndex = new SwapiNameIndex(properties, new SimpleMeterRegistry(), builds::add, nanos::get);
+
+    @Test
+    @DisplayName("Should fall back while the index is missing and schedule a single build")
+    void search_ShouldScheduleBuildWhenMissing() {
+        AtomicInteger crawls = new AtomicInteger();
+
+        Optional<List<String>> first = nameIndex.search(SwapiResource.FILMS, "hope", () -> corpus(crawls), Function.identity());
+        nameIndex.search(SwapiResource.FILMS, "hope", () -> corpus(crawls), Function.identity());
+
+        assertTrue(first.isEmpty());
+        assertEquals(1, builds.size());
+
+        builds.get(0).run();
+        assertEquals(Optional.of(List.of("A New Hope")),
+                nameIndex.search(SwapiResource.FILMS, "hope", () -> corpus(crawls), Function.identity()));
+        assertEquals(1, crawls.get());
+    }
+
+    @Test
+    @DisplayName("Should keep serving the old index while an expired one is rebuilt")
+    void search_ShouldRebuildExpiredIndex() {
+        nameIndex.rebuild(SwapiResource.FILMS, List.of("A New Hope"), Function.identity());
+        nanos.addAndGet(properties.getMaxAge().plus(Duration.ofSeconds(1)).toNanos());
+
+        Optional<List<String>> result = nameIndex.search(SwapiResource.FILMS, "empire",
+                () -> List.of("A New Hope", "The Empire Strikes Back"), Function.identity());
+
+        assertEquals(Optional.of(List.of()), result);
+        builds.get(0).run();
+        assertEquals(Optional.of(List.of("The Empire Strikes Back")),
+                nameIndex.search(SwapiResource.FILMS, "empire", List::of, Function.<String>identity()));
+    }
+
+    @Test
+    @DisplayName("Should not answer locally when the index is disabled")
+    void search_ShouldBypassWhenDisabled() {
+        properties.setEnabled(false);
+        nameIndex.rebuild(SwapiResource.FILMS, List.of("A New Hope"), Function.identity());
+
+        assertTrue(nameIndex.search(SwapiResource.FILMS, "hope", List::of, Function.<String>identity()).isEmpty());
+        assertTrue(builds.isEmpty());
+    }
+
+    private static List<String> corpus(AtomicInteger crawls) {
+        crawls.incrementAndGet();
+        return List.of("A New Hope", "Return of the Jedi");
+    }
+}
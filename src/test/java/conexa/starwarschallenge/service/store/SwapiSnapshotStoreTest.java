@@ -0,0 +1,150 @@
+package conexa.starwarschallenge.service.store;
+
+import conexa.starwarschallenge.config.SwapiCacheProperties;
+import conexa.starwarschallenge.config.SwapiSnapshotProperties;
+import conexa.starwarschallenge.dto.FilmRawItemDto;
+import conexa.starwarschallenge.dto.PagedResponseDto;
+import conexa.starwarschallenge.dto.PersonDto;
+import conexa.starwarschallenge.dto.PersonPropertiesDto;
+import conexa.starwarschallenge.dto.SingleResponseDto;
+import conexa.starwarschallenge.enums.SwapiResource;
+import conexa.starwarschallenge.service.cache.SwapiCache;
+import conexa.starwarschallenge.service.cache.SwapiCacheKey;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SwapiSnapshotStoreTest {
+
+    private static final Instant CRAWLED_AT = Instant.parse("2024-05-01T10:00:00Z");
+
+    @TempDir
+    Path tempDir;
+
+    private SwapiSnapshotProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new SwapiSnapshotProperties();
+        properties.setPath(tempDir.resolve("snapshot.bin"));
+    }
+
+    @Test
+    @DisplayName("Should restore cached pages and entities with their original DTO types")
+    void saveAndLoad_ShouldRoundTripCachedData() {
+        SwapiCache source = newCache();
+        FilmRawItemDto film = new FilmRawItemDto();
+        film.setUid("1");
+        film.setName("A New Hope");
+        source.get(SwapiCacheKey.page(SwapiResource.FILMS, 1),
+                () -> new PagedResponseDto<>(List.of(film), "ok", 6, 1));
+        PersonPropertiesDto lukeProperties = new PersonPropertiesDto();
+        lukeProperties.setName("Luke Skywalker");
+        PersonDto luke = new PersonDto();
+        luke.setUid("1");
+        luke.setProperties(lukeProperties);
+        source.get(SwapiCacheKey.byId(SwapiResource.PEOPLE, "1"), () -> new SingleResponseDto<>("ok", luke));
+        source.get(SwapiCacheKey.search(SwapiResource.PEOPLE, "luke"), () -> "not persisted");
+        cacheFirstPages(source, SwapiResource.PEOPLE, SwapiResource.STARSHIPS, SwapiResource.VEHICLES);
+
+        new SwapiSnapshotStore(source, properties, clockAt(CRAWLED_AT)).save();
+        SwapiCache target = newCache();
+        Optional<Instant> loaded = new SwapiSnapshotStore(target, properties, clockAt(CRAWLED_AT.plusSeconds(60))).load();
+
+        assertEquals(Optional.of(CRAWLED_AT), loaded);
+        PagedResponseDto<FilmRawItemDto> page = target.get(SwapiCacheKey.page(SwapiResource.FILMS, 1), () -> null);
+        assertEquals("A New Hope", page.getResults().get(0).getName());
+        assertEquals(6, page.getTotalRecords());
+        SingleResponseDto<PersonDto> person = target.get(SwapiCacheKey.byId(SwapiResource.PEOPLE, "1"), () -> null);
+        assertEquals("Luke Skywalker", person.getResult().getProperties().getName());
+        assertTrue(target.entries(SwapiResource.PEOPLE).keySet().stream()
+                .noneMatch(key -> key.kind() == SwapiCacheKey.Kind.SEARCH));
+    }
+
+    @Test
+    @DisplayName("Should not write a snapshot while some list pages are missing")
+    void save_ShouldSkipIncompleteData() {
+        SwapiCache source = newCache();
+        cacheFirstPages(source, SwapiResource.FILMS, SwapiResource.STARSHIPS, SwapiResource.VEHICLES);
+        source.get(SwapiCacheKey.page(SwapiResource.PEOPLE, 1), () -> new PagedResponseDto<>(List.of(), "ok", 82, 9));
+
+        assertFalse(new SwapiSnapshotStore(source, properties, clockAt(CRAWLED_AT)).save());
+        assertFalse(Files.exists(properties.getPath()));
+    }
+
+    @Test
+    @DisplayName("Should stamp the snapshot with the fetch time of its oldest entry")
+    void save_ShouldRecordTheOldestEntry() {
+        AtomicLong nanos = new AtomicLong();
+        SwapiCache source = new SwapiCache(new SwapiCacheProperties(), new SimpleMeterRegistry(), Runnable::run, nanos::get);
+        cacheFirstPages(source, SwapiResource.FILMS, SwapiResource.PEOPLE);
+        nanos.addAndGet(Duration.ofMinutes(5).toNanos());
+        cacheFirstPages(source, SwapiResource.STARSHIPS, SwapiResource.VEHICLES);
+
+        assertTrue(new SwapiSnapshotStore(source, properties, clockAt(CRAWLED_AT)).save());
+
+        Optional<Instant> loaded = new SwapiSnapshotStore(newCache(), properties, clockAt(CRAWLED_AT)).load();
+        assertEquals(Optional.of(CRAWLED_AT.minus(Duration.ofMinutes(5))), loaded);
+    }
+
+    @Test
+    @DisplayName("Should ignore snapshots older than the configured max age")
+    void load_ShouldIgnoreExpiredSnapshot() {
+        SwapiCache source = newCache();
+        cacheFirstPages(source, SwapiResource.values());
+        new SwapiSnapshotStore(source, properties, clockAt(CRAWLED_AT)).save();
+
+        Optional<Instant> loaded = new SwapiSnapshotStore(newCache(), properties,
+                clockAt(CRAWLED_AT.plus(properties.getMaxAge()).plus(Duration.ofMinutes(1)))).load();
+
+        assertTrue(loaded.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should ignore snapshots written with another format version")
+    void load_ShouldIgnoreOtherFormatVersions() throws Exception {
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(properties.getPath()))) {
+            out.writeInt(SwapiSnapshotStore.MAGIC);
+            out.writeInt(SwapiSnapshotStore.FORMAT_VERSION + 1);
+            out.writeLong(CRAWLED_AT.toEpochMilli());
+        }
+
+        assertTrue(new SwapiSnapshotStore(newCache(), properties, clockAt(CRAWLED_AT)).load().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should report nothing loaded when no snapshot exists")
+    void load_ShouldHandleMissingFile() {
+        assertTrue(new SwapiSnapshotStore(newCache(), properties, clockAt(CRAWLED_AT)).load().isEmpty());
+    }
+
+    private static SwapiCache newCache() {
+        // A ticker that never moves keeps entry ages, and with them the snapshot's crawl time, exact.
+        return new SwapiCache(new SwapiCacheProperties(), new SimpleMeterRegistry(), Runnable::run, () -> 0L);
+    }
+
+    private static void cacheFirstPages(SwapiCache cache, SwapiResource... resources) {
+        for (SwapiResource resource : resources) {
+            cache.get(SwapiCacheKey.page(resource, 1), () -> new PagedResponseDto<>(List.of(), "ok", 0, 1));
+        }
+    }
+
+    private static Clock clockAt(Instant instant) {
+        return Clock.fixed(instant, ZoneOffset.UTC);
+    }
+}
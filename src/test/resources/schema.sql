@@ -4,5 +4,42 @@ CREATE TABLE users (
     id INT AUTO_INCREMENT PRIMARY KEY,
     username VARCHAR(255) NOT NULL UNIQUE,
     password VARCHAR(255),
-    role VARCHAR(255)
-);
\ No newline at end of file
+    role VARCHAR(255),
+    token_version BIGINT NOT NULL DEFAULT 0
+);
+
+DROP TABLE IF EXISTS swapi_cache_entries;
+
+CREATE TABLE swapi_cache_entries (
+    cache_key VARCHAR(255) PRIMARY KEY,
+    resource VARCHAR(32) NOT NULL,
+    payload BLOB NOT NULL,
+    fetched_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX idx_swapi_cache_entries_fetched_at ON swapi_cache_entries (fetched_at);
+
+DROP TABLE IF EXISTS swapi_leases;
+
+CREATE TABLE swapi_leases (
+    name VARCHAR(64) PRIMARY KEY,
+    owner VARCHAR(255) NOT NULL,
+    expires_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+DROP TABLE IF EXISTS swapi_data_versions;
+
+CREATE TABLE swapi_data_versions (
+    resource VARCHAR(32) PRIMARY KEY,
+    version BIGINT NOT NULL,
+    updated_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+DROP TABLE IF EXISTS swapi_edit_stamps;
+
+CREATE TABLE swapi_edit_stamps (
+    entity_key VARCHAR(64) PRIMARY KEY,
+    resource VARCHAR(32) NOT NULL,
+    uid VARCHAR(64) NOT NULL,
+    edited VARCHAR(64)
+);